@@ -0,0 +1,52 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.dataunit.files;
+
+import java.util.List;
+import java.util.Map;
+
+import eu.unifiedviews.dataunit.DataUnitException;
+
+/**
+ * {@link WritableFilesDataUnit} that can add many files at once. Each method registers all given files in a single
+ * transaction, so either all files are added or none.
+ * <p>
+ * Implementing this interface is optional, helpers fall back to adding files one by one with
+ * {@link WritableFilesDataUnit#addExistingFile(String, String)} and {@link WritableFilesDataUnit#addNewFile(String)}.
+ */
+public interface BulkWritableFilesDataUnit extends WritableFilesDataUnit {
+
+    /**
+     * Adds existing files to the data unit, see {@link WritableFilesDataUnit#addExistingFile(String, String)}.
+     * If the method fails then no file is added.
+     *
+     * @param existingFileURIStrings symbolic names (must be unique in scope of this data unit) mapped to real file locations
+     * @throws DataUnitException
+     */
+    void addExistingFiles(Map<String, String> existingFileURIStrings) throws DataUnitException;
+
+    /**
+     * Generates unique files under the {@link WritableFilesDataUnit#getBaseFileURIString()}, see
+     * {@link WritableFilesDataUnit#addNewFile(String)}. If the method fails then no file is added.
+     *
+     * @param symbolicNames symbolic names under which the files will be stored (must be unique in scope of this data unit)
+     * @return URIs (as string) of real locations of the newly created files, in the order of given symbolic names
+     * @throws DataUnitException
+     */
+    List<String> addNewFiles(List<String> symbolicNames) throws DataUnitException;
+
+}
@@ -16,12 +16,18 @@
  */
 package eu.unifiedviews.helpers.dataunit;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.eclipse.rdf4j.model.IRI;
 
+import eu.unifiedviews.helpers.dataunit.metadata.MetadataChangeLog;
+import eu.unifiedviews.helpers.dataunit.metadata.SymbolicNameResolver;
 import eu.unifiedviews.helpers.dataunit.rdf.RdfDataUnitUtils;
 import eu.unifiedviews.dataunit.DataUnitException;
 import eu.unifiedviews.dataunit.MetadataDataUnit;
@@ -47,6 +53,35 @@ public class DataUnitUtils {
 
     }
 
+    /**
+     * Must be called after an entry is added into given data unit. Invalidates cached symbolic names and entries
+     * of the data unit and records the entry into the open {@link MetadataChangeLog} of the data unit. All helpers
+     * in this library call it, DPU code that adds entries directly through the data unit API should call it too.
+     *
+     * @param dataUnit
+     * @param symbolicName Symbolic name of the added entry.
+     */
+    public static void entryAdded(MetadataDataUnit dataUnit, String symbolicName) {
+        entriesAdded(dataUnit, Collections.singletonList(symbolicName));
+    }
+
+    /**
+     * Same as {@link #entryAdded(MetadataDataUnit, String)} for many entries.
+     *
+     * @param dataUnit
+     * @param symbolicNames Symbolic names of the added entries.
+     */
+    public static void entriesAdded(MetadataDataUnit dataUnit, Collection<String> symbolicNames) {
+        if (symbolicNames.isEmpty()) {
+            return;
+        }
+        for (String symbolicName : symbolicNames) {
+            SymbolicNameResolver.invalidate(dataUnit, symbolicName);
+            MetadataChangeLog.recordEntryAdded(dataUnit, symbolicName);
+        }
+        EntryCache.invalidate(dataUnit);
+    }
+
     /**
      * Generate a new and unique symbolic name.
      *
@@ -59,7 +94,8 @@ public class DataUnitUtils {
     }
 
     /**
-     * Load entries into memory. Should be used only with reasonable small number of entries.
+     * Load entries into memory. Should be used only with reasonable small number of entries. If
+     * {@link EntryCache} is bound to current thread then entries are taken from the cache. Returned list can be modified.
      *
      * @param <T>         DataUnit type.
      * @param dataUnit
@@ -67,9 +103,27 @@ public class DataUnitUtils {
      * @return List of entries.
      * @throws eu.unifiedviews.dataunit.DataUnitException
      */
-    @SuppressWarnings(value = "unchecked")
     public static <T extends MetadataDataUnit, E extends T.Entry> List<E> getEntries(T dataUnit,
             Class<E> resultClass) throws DataUnitException {
+        final EntryCache cache = EntryCache.current();
+        if (cache != null) {
+            return new ArrayList<>(cache.getEntries(dataUnit, resultClass));
+        }
+        return readEntries(dataUnit, resultClass);
+    }
+
+    /**
+     * Read entries from given data unit, {@link EntryCache} is not used.
+     *
+     * @param <T>         DataUnit type.
+     * @param dataUnit
+     * @param resultClass Type of entries to retrieve.
+     * @return List of entries.
+     * @throws DataUnitException
+     */
+    @SuppressWarnings(value = "unchecked")
+    static <T extends MetadataDataUnit, E extends T.Entry> List<E> readEntries(T dataUnit,
+            Class<E> resultClass) throws DataUnitException {
         final List<E> result = new LinkedList<>();
         try (MetadataDataUnit.Iteration iter = dataUnit.getIteration()) {
             while (iter.hasNext()) {
@@ -79,6 +133,35 @@ public class DataUnitUtils {
         return result;
     }
 
+    /**
+     * Lazily evaluated stream of entries. Returned stream must be closed to close the underlying iteration.
+     *
+     * @param <T>         DataUnit type.
+     * @param dataUnit
+     * @param resultClass Type of entries to retrieve.
+     * @return Stream of entries.
+     * @throws DataUnitException
+     */
+    public static <T extends MetadataDataUnit, E extends T.Entry> Stream<E> streamEntries(T dataUnit,
+            Class<E> resultClass) throws DataUnitException {
+        return spliterator(dataUnit, resultClass).stream();
+    }
+
+    /**
+     * Lazily evaluated spliterator of entries. Returned spliterator must be closed to close the underlying
+     * iteration.
+     *
+     * @param <T>         DataUnit type.
+     * @param dataUnit
+     * @param resultClass Type of entries to retrieve.
+     * @return Spliterator of entries.
+     * @throws DataUnitException
+     */
+    public static <T extends MetadataDataUnit, E extends T.Entry> EntrySpliterator<E> spliterator(T dataUnit,
+            Class<E> resultClass) throws DataUnitException {
+        return new EntrySpliterator<>(dataUnit.getIteration(), resultClass);
+    }
+
     /**
      * Provide access to metadata in same form as to any other graph. As a symbolic name fixed value is used.
      * Do not write into input metadata graphs as it would corrupt data for other DPUs.
@@ -0,0 +1,211 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dataunit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.query.Dataset;
+
+import eu.unifiedviews.dataunit.DataUnitException;
+import eu.unifiedviews.dataunit.MetadataDataUnit;
+import eu.unifiedviews.dataunit.WritableMetadataDataUnit;
+import eu.unifiedviews.dataunit.rdf.RDFDataUnit;
+import eu.unifiedviews.helpers.dataunit.dataset.DatasetBuilder;
+
+/**
+ * Execution scoped cache of data unit entries. Entries of every data unit are loaded only once and then
+ * shared by all helpers and extensions that run within the same execution.
+ *
+ * The cache is used only if bound to the current thread, see {@link #bind(EntryCache)}. DPUs based on
+ * {@code AbstractDpu} have the cache of their execution context bound for the whole execution.
+ *
+ * Entries are cached per data unit instance and stay valid until {@link #invalidate(MetadataDataUnit)} is called
+ * for the instance. All helpers in this library call it, through {@link DataUnitUtils#entryAdded(MetadataDataUnit,
+ * String)}, when they add an entry. Code that adds entries directly through the {@link WritableMetadataDataUnit}
+ * API must call {@link DataUnitUtils#entryAdded(MetadataDataUnit, String)} as well, otherwise the new entries are
+ * not visible in the cache.
+ */
+public class EntryCache {
+
+    /**
+     * Cache bound to current thread.
+     */
+    private static final ThreadLocal<EntryCache> CURRENT = new ThreadLocal<>();
+
+    /**
+     * All existing caches, used for invalidation.
+     */
+    private static final Set<EntryCache> CACHES = Collections.newSetFromMap(
+            new WeakHashMap<EntryCache, Boolean>());
+
+    /**
+     * Data unit instance -> loaded entries.
+     */
+    private final Map<MetadataDataUnit, List<MetadataDataUnit.Entry>> entries = new IdentityHashMap<>();
+
+    /**
+     * Data unit instance -> dataset with all data graphs as default graphs, guarded by {@link #entries}.
+     */
+    private final Map<RDFDataUnit, Dataset> datasets = new IdentityHashMap<>();
+
+    /**
+     * Incremented on every invalidation, guarded by {@link #entries}. Entries loaded before an invalidation
+     * are not stored.
+     */
+    private long version = 0;
+
+    public EntryCache() {
+        synchronized (CACHES) {
+            CACHES.add(this);
+        }
+    }
+
+    /**
+     *
+     * @return Cache bound to current thread or null.
+     */
+    public static EntryCache current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Bind given cache to current thread.
+     *
+     * @param cache
+     */
+    public static void bind(EntryCache cache) {
+        CURRENT.set(cache);
+    }
+
+    /**
+     * Remove cache bound to current thread.
+     */
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Invalidate entries of given data unit in all caches. Should be called when a new entry is added
+     * into the data unit.
+     *
+     * @param dataUnit
+     */
+    public static void invalidate(MetadataDataUnit dataUnit) {
+        synchronized (CACHES) {
+            for (EntryCache cache : CACHES) {
+                cache.remove(dataUnit);
+            }
+        }
+    }
+
+    /**
+     * Return entries of given data unit, entries are loaded on first call and after each
+     * {@link #invalidate(MetadataDataUnit)} of the data unit.
+     *
+     * @param <T>         DataUnit type.
+     * @param dataUnit
+     * @param resultClass Type of entries to retrieve.
+     * @return Read-only list of entries, shared by all callers.
+     * @throws DataUnitException
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends MetadataDataUnit, E extends T.Entry> List<E> getEntries(T dataUnit,
+            Class<E> resultClass) throws DataUnitException {
+        List<MetadataDataUnit.Entry> result;
+        final long loadVersion;
+        synchronized (entries) {
+            result = entries.get(dataUnit);
+            loadVersion = version;
+        }
+        if (result == null) {
+            // Load out of the lock, so other data units are not blocked.
+            result = Collections.unmodifiableList(
+                    new ArrayList<MetadataDataUnit.Entry>(DataUnitUtils.readEntries(dataUnit, resultClass)));
+            synchronized (entries) {
+                // Entries loaded before an invalidation may be out of date, do not store them.
+                if (loadVersion == version) {
+                    entries.put(dataUnit, result);
+                }
+            }
+        }
+        return (List<E>) result;
+    }
+
+    /**
+     * Return dataset with all data graphs of given data unit as default graphs. The dataset is created from
+     * {@link #getEntries(MetadataDataUnit, Class)} on first call and after each
+     * {@link #invalidate(MetadataDataUnit)} of the data unit.
+     *
+     * @param dataUnit
+     * @return Dataset shared by all callers, must not be modified.
+     * @throws DataUnitException
+     */
+    public Dataset getDataset(RDFDataUnit dataUnit) throws DataUnitException {
+        Dataset result;
+        final long loadVersion;
+        synchronized (entries) {
+            result = datasets.get(dataUnit);
+            loadVersion = version;
+        }
+        if (result == null) {
+            final Set<IRI> graphs = new LinkedHashSet<>();
+            for (RDFDataUnit.Entry entry : getEntries(dataUnit, RDFDataUnit.Entry.class)) {
+                graphs.add(entry.getDataGraphURI());
+            }
+            result = new DatasetBuilder().withDefaultGraphs(graphs).build();
+            synchronized (entries) {
+                if (loadVersion == version) {
+                    datasets.put(dataUnit, result);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Remove cached entries for given data unit.
+     *
+     * @param dataUnit
+     */
+    public void remove(MetadataDataUnit dataUnit) {
+        synchronized (entries) {
+            ++version;
+            entries.remove(dataUnit);
+            datasets.remove(dataUnit);
+        }
+    }
+
+    /**
+     * Remove all cached entries.
+     */
+    public void clear() {
+        synchronized (entries) {
+            ++version;
+            entries.clear();
+            datasets.clear();
+        }
+    }
+
+}
@@ -0,0 +1,35 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dataunit;
+
+import eu.unifiedviews.dataunit.DataUnitException;
+
+/**
+ * Unchecked wrap of {@link DataUnitException} thrown during iteration over entries in {@link EntrySpliterator}.
+ */
+public class EntryIterationException extends RuntimeException {
+
+    public EntryIterationException(DataUnitException cause) {
+        super(cause);
+    }
+
+    @Override
+    public synchronized DataUnitException getCause() {
+        return (DataUnitException) super.getCause();
+    }
+
+}
@@ -0,0 +1,129 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dataunit;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.unifiedviews.dataunit.DataUnitException;
+import eu.unifiedviews.dataunit.MetadataDataUnit;
+
+/**
+ * Lazily evaluated {@link Spliterator} over {@link MetadataDataUnit.Iteration}. Entries are read one by one
+ * as they are consumed, so neither memory nor the time to the first entry depends on the number of entries.
+ *
+ * Failures during the iteration are reported as {@link EntryIterationException}. The underlying iteration
+ * must be closed, use {@link #close()} or close the stream from {@link #stream()}.
+ *
+ * Sample usage:
+ * <pre>
+ * {@code
+ * try (Stream<FilesDataUnit.Entry> entries = DataUnitUtils.streamEntries(dataUnit, FilesDataUnit.Entry.class)) {
+ *     entries.forEach(...);
+ * }
+ * }
+ * </pre>
+ *
+ * @param <E> Type of entries.
+ */
+public class EntrySpliterator<E extends MetadataDataUnit.Entry> implements Spliterator<E>, AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EntrySpliterator.class);
+
+    private final MetadataDataUnit.Iteration iteration;
+
+    private final Class<E> entryClass;
+
+    private boolean closed = false;
+
+    /**
+     *
+     * @param iteration  Iteration to read from, is closed by this class.
+     * @param entryClass Type of entries.
+     */
+    public EntrySpliterator(MetadataDataUnit.Iteration iteration, Class<E> entryClass) {
+        this.iteration = iteration;
+        this.entryClass = entryClass;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super E> action) {
+        if (closed) {
+            return false;
+        }
+        try {
+            if (iteration.hasNext()) {
+                action.accept(entryClass.cast(iteration.next()));
+                return true;
+            } else {
+                return false;
+            }
+        } catch (DataUnitException ex) {
+            throw new EntryIterationException(ex);
+        }
+    }
+
+    @Override
+    public Spliterator<E> trySplit() {
+        // Iteration can not be split.
+        return null;
+    }
+
+    @Override
+    public long estimateSize() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return Spliterator.ORDERED | Spliterator.NONNULL;
+    }
+
+    /**
+     * Returned stream closes this spliterator when closed.
+     *
+     * @return Sequential stream of entries.
+     */
+    public Stream<E> stream() {
+        return StreamSupport.stream(this, false).onClose(new Runnable() {
+
+            @Override
+            public void run() {
+                close();
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            iteration.close();
+        } catch (DataUnitException ex) {
+            LOG.warn("Error in close.", ex);
+        }
+    }
+
+}
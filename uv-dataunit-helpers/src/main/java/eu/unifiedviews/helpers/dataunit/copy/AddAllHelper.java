@@ -16,7 +16,19 @@
  */
 package eu.unifiedviews.helpers.dataunit.copy;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.eclipse.rdf4j.query.MalformedQueryException;
 import org.eclipse.rdf4j.query.QueryLanguage;
 import org.eclipse.rdf4j.query.Update;
@@ -29,7 +41,9 @@ import org.slf4j.LoggerFactory;
 import eu.unifiedviews.dataunit.DataUnitException;
 import eu.unifiedviews.dataunit.rdf.RDFDataUnit;
 import eu.unifiedviews.dataunit.rdf.WritableRDFDataUnit;
+import eu.unifiedviews.helpers.dataunit.DataUnitUtils;
 import eu.unifiedviews.helpers.dataunit.rdf.RDFHelper;
+import eu.unifiedviews.helpers.dataunit.rdf.RdfDataUnitUtils;
 
 /**
  * Helper to add all triples from one data unit into destination data unit under the "all" symbolic name.
@@ -40,10 +54,107 @@ import eu.unifiedviews.helpers.dataunit.rdf.RDFHelper;
  * AddAllHelper.addAll(inputDataUnit, outputDataUnit);
  * // outputDataUnit now contains all triples from all data graphs from input data unit, stored as one graph with symbolic name "all"
  * </pre></blockquote></p>
+ * <p>
+ * {@link #merge(RDFDataUnit, WritableRDFDataUnit, Options)} does the same in a single transaction, or in parallel on
+ * separate connections, reports metrics for each graph and propagates errors.
  */
 public class AddAllHelper {
     private static final Logger LOG = LoggerFactory.getLogger(AddAllHelper.class);
 
+    /**
+     * Options for {@link AddAllHelper#merge(RDFDataUnit, WritableRDFDataUnit, Options)}.
+     */
+    public static class Options {
+
+        /**
+         * If 1 then all graphs are merged in a single transaction. Otherwise graphs are merged in parallel,
+         * each on its own connection and in its own transaction. Use only if the store supports it.
+         */
+        private int parallelism = 1;
+
+        /**
+         * If true then the size of each source graph is counted, so the triple rate can be reported.
+         */
+        private boolean countTriples = false;
+
+        public Options() {
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public Options setParallelism(int parallelism) {
+            if (parallelism < 1) {
+                throw new IllegalArgumentException("Parallelism must be at least 1.");
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        public boolean isCountTriples() {
+            return countTriples;
+        }
+
+        public Options setCountTriples(boolean countTriples) {
+            this.countTriples = countTriples;
+            return this;
+        }
+
+    }
+
+    /**
+     * Metrics of a single merged graph.
+     */
+    public static class GraphMetrics {
+
+        private final IRI graph;
+
+        private final long triples;
+
+        private final long durationMillis;
+
+        public GraphMetrics(IRI graph, long triples, long durationMillis) {
+            this.graph = graph;
+            this.triples = triples;
+            this.durationMillis = durationMillis;
+        }
+
+        public IRI getGraph() {
+            return graph;
+        }
+
+        /**
+         *
+         * @return Number of triples in source graph, -1 if not counted.
+         */
+        public long getTriples() {
+            return triples;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        /**
+         *
+         * @return Triples per second, -1 if not counted.
+         */
+        public double getTriplesPerSecond() {
+            if (triples < 0) {
+                return -1;
+            }
+            return triples * 1000.0 / Math.max(durationMillis, 1);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("<%s> triples: %d, time: %d ms, rate: %.1f triples/s", graph.stringValue(),
+                    triples, durationMillis, getTriplesPerSecond());
+        }
+
+    }
+
     /**
      * Add all data from source DataUnit into destination DataUnit into one data graph with symbolic name "all".
      * The method does not modify sources.
@@ -58,6 +169,7 @@ public class AddAllHelper {
             connection = destination.getConnection();
 
             String targetGraphName = destination.addNewDataGraph("all").stringValue();
+            DataUnitUtils.entryAdded(destination, "all");
             for (IRI sourceGraph : RDFHelper.getGraphsURISet(source)) {
                 String sourceGraphName = sourceGraph.stringValue();
 
@@ -92,4 +204,162 @@ public class AddAllHelper {
             }
         }
     }
+
+    /**
+     * Add all data from source DataUnit into destination DataUnit into one data graph with symbolic name "all".
+     * The method does not modify sources. In contrast to {@link #addAll(RDFDataUnit, WritableRDFDataUnit)}
+     * any failure is reported by exception.
+     *
+     * The "all" graph is registered in the destination only after all data are copied. On failure already
+     * copied data are removed, so the destination is left unchanged.
+     *
+     * @param source {@link RDFDataUnit} to add from
+     * @param destination {@link RDFDataUnit} to add to
+     * @param options merge options
+     * @return metrics for each merged graph
+     * @throws DataUnitException
+     */
+    public static List<GraphMetrics> merge(RDFDataUnit source, WritableRDFDataUnit destination, Options options)
+            throws DataUnitException {
+        final IRI targetGraph = SimpleValueFactory.getInstance().createIRI(
+                destination.getBaseDataGraphURI().stringValue() + "/all-" + UUID.randomUUID().toString());
+        final List<IRI> sourceGraphs = new ArrayList<>(RDFHelper.getGraphsURISet(source));
+        final List<GraphMetrics> metrics;
+        try {
+            if (options.getParallelism() == 1 || sourceGraphs.size() < 2) {
+                metrics = mergeInTransaction(sourceGraphs, targetGraph, destination, options);
+            } else {
+                metrics = mergeParallel(sourceGraphs, targetGraph, destination, options);
+            }
+        } catch (DataUnitException ex) {
+            // Some graphs may be already committed by parallel merge.
+            clearGraph(destination, targetGraph);
+            throw ex;
+        }
+        RdfDataUnitUtils.addGraph(destination, "all", targetGraph);
+        for (GraphMetrics item : metrics) {
+            LOG.info("Merged {}", item);
+        }
+        return metrics;
+    }
+
+    static List<GraphMetrics> mergeInTransaction(List<IRI> sourceGraphs, IRI targetGraph,
+            WritableRDFDataUnit destination, Options options) throws DataUnitException {
+        final List<GraphMetrics> metrics = new ArrayList<>(sourceGraphs.size());
+        RepositoryConnection connection = null;
+        try {
+            connection = destination.getConnection();
+            connection.begin();
+            for (IRI sourceGraph : sourceGraphs) {
+                metrics.add(mergeGraph(connection, sourceGraph, targetGraph, options));
+            }
+            connection.commit();
+        } catch (RepositoryException | MalformedQueryException | UpdateExecutionException ex) {
+            if (connection != null) {
+                try {
+                    connection.rollback();
+                } catch (RepositoryException e) {
+                    LOG.warn("Rollback failed.", e);
+                }
+            }
+            throw new DataUnitException("Failed to merge graphs.", ex);
+        } finally {
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (RepositoryException ex) {
+                    LOG.warn("Error when closing connection", ex);
+                }
+            }
+        }
+        return metrics;
+    }
+
+    private static List<GraphMetrics> mergeParallel(List<IRI> sourceGraphs, final IRI targetGraph,
+            final WritableRDFDataUnit destination, final Options options) throws DataUnitException {
+        final ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(options.getParallelism(), sourceGraphs.size()));
+        try {
+            final List<Future<GraphMetrics>> futures = new ArrayList<>(sourceGraphs.size());
+            for (final IRI sourceGraph : sourceGraphs) {
+                futures.add(executor.submit(new Callable<GraphMetrics>() {
+
+                    @Override
+                    public GraphMetrics call() throws Exception {
+                        return mergeInTransaction(Arrays.asList(sourceGraph), targetGraph, destination,
+                                options).get(0);
+                    }
+                }));
+            }
+            final List<GraphMetrics> metrics = new ArrayList<>(sourceGraphs.size());
+            for (Future<GraphMetrics> future : futures) {
+                metrics.add(future.get());
+            }
+            return metrics;
+        } catch (ExecutionException ex) {
+            // Wait for running merges, so the caller can remove their data.
+            shutdownAndAwait(executor);
+            if (ex.getCause() instanceof DataUnitException) {
+                throw (DataUnitException) ex.getCause();
+            }
+            throw new DataUnitException("Failed to merge graphs.", ex.getCause());
+        } catch (InterruptedException ex) {
+            shutdownAndAwait(executor);
+            Thread.currentThread().interrupt();
+            throw new DataUnitException("Interrupted.", ex);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Interrupt running tasks and wait until they finish. Interruption of the current thread does not stop the
+     * waiting, it is restored once all tasks are finished.
+     *
+     * @param executor
+     */
+    private static void shutdownAndAwait(ExecutorService executor) {
+        executor.shutdownNow();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+                break;
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void clearGraph(WritableRDFDataUnit destination, IRI graph) {
+        RepositoryConnection connection = null;
+        try {
+            connection = destination.getConnection();
+            connection.clear(graph);
+        } catch (RepositoryException | DataUnitException ex) {
+            LOG.warn("Failed to remove partially merged data from <{}>.", graph, ex);
+        } finally {
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (RepositoryException ex) {
+                    LOG.warn("Error when closing connection", ex);
+                }
+            }
+        }
+    }
+
+    private static GraphMetrics mergeGraph(RepositoryConnection connection, IRI sourceGraph, IRI targetGraph,
+            Options options) throws RepositoryException, MalformedQueryException, UpdateExecutionException {
+        final long triples = options.isCountTriples() ? connection.size(sourceGraph) : -1;
+        final long start = System.currentTimeMillis();
+        final Update update = connection.prepareUpdate(QueryLanguage.SPARQL,
+                String.format("ADD <%s> TO <%s>", sourceGraph.stringValue(), targetGraph.stringValue()));
+        update.execute();
+        return new GraphMetrics(sourceGraph, triples, System.currentTimeMillis() - start);
+    }
+
 }
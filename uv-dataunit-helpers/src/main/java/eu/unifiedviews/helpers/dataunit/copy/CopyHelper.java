@@ -16,6 +16,8 @@
  */
 package eu.unifiedviews.helpers.dataunit.copy;
 
+import java.util.Collection;
+
 import eu.unifiedviews.dataunit.DataUnitException;
 
 /**
@@ -38,6 +40,19 @@ public interface CopyHelper extends AutoCloseable {
      */
     void copyMetadata(String symbolicName) throws DataUnitException;
 
+    /**
+     * Copy all metadata related to given symbolicNames, in a single transaction.
+     * @param symbolicNames keys to {@link eu.unifiedviews.dataunit.MetadataDataUnit.Entry} which will be copied
+     * @throws DataUnitException
+     */
+    void copyMetadata(Collection<String> symbolicNames) throws DataUnitException;
+
+    /**
+     * Copy metadata of all entries, in a single transaction.
+     * @throws DataUnitException
+     */
+    void copyAllMetadata() throws DataUnitException;
+
     @Override
     public void close();
 }
@@ -16,7 +16,17 @@
  */
 package eu.unifiedviews.helpers.dataunit.copy;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
 import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
 import org.eclipse.rdf4j.query.MalformedQueryException;
 import org.eclipse.rdf4j.query.QueryLanguage;
 import org.eclipse.rdf4j.query.Update;
@@ -24,12 +34,15 @@ import org.eclipse.rdf4j.query.UpdateExecutionException;
 import org.eclipse.rdf4j.query.impl.SimpleDataset;
 import org.eclipse.rdf4j.repository.RepositoryConnection;
 import org.eclipse.rdf4j.repository.RepositoryException;
+import org.eclipse.rdf4j.repository.RepositoryResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import eu.unifiedviews.dataunit.DataUnitException;
 import eu.unifiedviews.dataunit.MetadataDataUnit;
 import eu.unifiedviews.dataunit.WritableMetadataDataUnit;
+import eu.unifiedviews.helpers.dataunit.metadata.MetadataVocabulary;
+import eu.unifiedviews.helpers.dataunit.utils.ConvertUtils;
 
 /**
  * Static helper nutshell for {@link CopyHelper}.
@@ -55,6 +68,16 @@ import eu.unifiedviews.dataunit.WritableMetadataDataUnit;
 public class CopyHelpers {
     private static final CopyHelpers selfie = new CopyHelpers();
 
+    /**
+     * Depth of description copied by {@link #create(MetadataDataUnit, WritableMetadataDataUnit)}.
+     */
+    public static final int DEFAULT_DEPTH = 3;
+
+    /**
+     * Number of statements added at once by {@link #create(MetadataDataUnit, WritableMetadataDataUnit, int)}.
+     */
+    private static final int STATEMENT_BATCH_SIZE = 1000;
+
     private CopyHelpers() {
 
     }
@@ -69,6 +92,24 @@ public class CopyHelpers {
         return selfie.new CopyHelperImpl(source, destination);
     }
 
+    /**
+     * Create new {@link CopyHelper} that copies metadata statement by statement. Description of each entry is
+     * walked breadth-first up to given depth, following only IRI and blank node objects. Depth 1 copies only the
+     * statements about the entry itself, {@link #DEFAULT_DEPTH} corresponds to {@link #create(MetadataDataUnit, WritableMetadataDataUnit)}.
+     * Each node is copied only once.
+     *
+     * @param source data unit to copy metadata from
+     * @param destination data unit to copy metadata to
+     * @param depth maximum depth of copied description, must be at least 1
+     * @return new {@link CopyHelper} instance, don't forget to close it after usage
+     */
+    public static CopyHelper create(MetadataDataUnit source, WritableMetadataDataUnit destination, int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Depth must be at least 1.");
+        }
+        return selfie.new StatementCopyHelperImpl(source, destination, depth);
+    }
+
     /**
      * Just copy what i need and don't bother me with create/close. May be ineffective (each call = 1 connection opened+closed).
      *
@@ -94,11 +135,16 @@ public class CopyHelpers {
         protected static final String SYMBOLIC_NAME_BINDING = "symbolicName";
 
         /**
-         * Copy only first level.
+         * Insert part of {@link #UPDATE}.
          */
-        protected static final String UPDATE =
-                "INSERT { ?sA1 ?pA1 ?oA1 . ?oB1 ?pB2 ?oB2 . ?oC2 ?pC3 ?oC3 } WHERE { "
-                        + "{ "
+        protected static final String UPDATE_INSERT =
+                "INSERT { ?sA1 ?pA1 ?oA1 . ?oB1 ?pB2 ?oB2 . ?oC2 ?pC3 ?oC3 } ";
+
+        /**
+         * Body of the where clause of {@link #UPDATE}.
+         */
+        protected static final String UPDATE_WHERE_BODY =
+                "{ "
                         + "?sA1 ?pA1 ?oA1 . "
                         + "?sA1 <" + MetadataDataUnit.PREDICATE_SYMBOLIC_NAME + "> ?" + SYMBOLIC_NAME_BINDING + " . "
                         + "} "
@@ -116,8 +162,25 @@ public class CopyHelpers {
                         + "?sC1 ?pC1 ?oC1 . "
                         + "?sC1 <" + MetadataDataUnit.PREDICATE_SYMBOLIC_NAME + "> ?" + SYMBOLIC_NAME_BINDING + " . "
                         + "FILTER ((isURI(?oC1) || isBlank(?oC1)) && (isURI(?oC2) || isBlank(?oC2))) "
-                        + "} "
-                        + "}";
+                        + "} ";
+
+        /**
+         * Copy only first level.
+         */
+        protected static final String UPDATE = UPDATE_INSERT + "WHERE { " + UPDATE_WHERE_BODY + "}";
+
+        /**
+         * {@link #UPDATE} for multiple symbolic names.
+         * %s - values of symbolic names
+         */
+        protected static final String UPDATE_VALUES = UPDATE_INSERT + "WHERE { "
+                + "VALUES ?" + SYMBOLIC_NAME_BINDING + " { %s } "
+                + UPDATE_WHERE_BODY + "}";
+
+        /**
+         * Maximum number of symbolic names in a single {@link #UPDATE_VALUES} query.
+         */
+        protected static final int VALUES_BATCH_SIZE = 1000;
 
         private final Logger LOG = LoggerFactory.getLogger(CopyHelperImpl.class);
 
@@ -148,17 +211,92 @@ public class CopyHelpers {
                 update.setBinding(SYMBOLIC_NAME_BINDING,
                         connection.getValueFactory().createLiteral(symbolicName));
 
-                final SimpleDataset dataset = new SimpleDataset();
-                for (IRI item : source.getMetadataGraphnames()) {
-                    dataset.addDefaultGraph(item);
+                update.setDataset(createDataset());
+                update.execute();
+            } catch (RepositoryException | UpdateExecutionException | MalformedQueryException ex) {
+                throw new DataUnitException("", ex);
+            }
+        }
+
+        @Override
+        public void copyMetadata(Collection<String> symbolicNames) throws DataUnitException {
+            if (symbolicNames.isEmpty()) {
+                return;
+            }
+            try {
+                if (connection == null) {
+                    connection = source.getConnection();
+                }
+                final SimpleDataset dataset = createDataset();
+                final StringBuilder values = new StringBuilder();
+                int batchSize = 0;
+                connection.begin();
+                for (String symbolicName : symbolicNames) {
+                    values.append(ConvertUtils.toSparqlLiteral(symbolicName)).append(' ');
+                    if (++batchSize == VALUES_BATCH_SIZE) {
+                        executeValuesUpdate(values.toString(), dataset);
+                        values.setLength(0);
+                        batchSize = 0;
+                    }
                 }
-                dataset.setDefaultInsertGraph(
-                        destination.getMetadataWriteGraphname());
+                if (batchSize > 0) {
+                    executeValuesUpdate(values.toString(), dataset);
+                }
+                connection.commit();
+            } catch (RepositoryException | UpdateExecutionException | MalformedQueryException ex) {
+                rollback();
+                throw new DataUnitException("Failed to copy metadata.", ex);
+            }
+        }
 
-                update.setDataset(dataset);
+        @Override
+        public void copyAllMetadata() throws DataUnitException {
+            try {
+                if (connection == null) {
+                    connection = source.getConnection();
+                }
+                // Without the symbolic name binding the update copies all entries.
+                final Update update = connection.prepareUpdate(QueryLanguage.SPARQL, UPDATE);
+                update.setDataset(createDataset());
+                connection.begin();
                 update.execute();
+                connection.commit();
             } catch (RepositoryException | UpdateExecutionException | MalformedQueryException ex) {
-                throw new DataUnitException("", ex);
+                rollback();
+                throw new DataUnitException("Failed to copy metadata.", ex);
+            }
+        }
+
+        /**
+         *
+         * @return Dataset with source metadata graphs and destination write graph as insert graph.
+         * @throws DataUnitException
+         */
+        private SimpleDataset createDataset() throws DataUnitException {
+            final SimpleDataset dataset = new SimpleDataset();
+            for (IRI item : source.getMetadataGraphnames()) {
+                dataset.addDefaultGraph(item);
+            }
+            dataset.setDefaultInsertGraph(
+                    destination.getMetadataWriteGraphname());
+            return dataset;
+        }
+
+        private void executeValuesUpdate(String values, SimpleDataset dataset)
+                throws RepositoryException, UpdateExecutionException, MalformedQueryException {
+            final Update update = connection.prepareUpdate(QueryLanguage.SPARQL,
+                    String.format(UPDATE_VALUES, values));
+            update.setDataset(dataset);
+            update.execute();
+        }
+
+        private void rollback() {
+            try {
+                if (connection != null && connection.isActive()) {
+                    connection.rollback();
+                }
+            } catch (RepositoryException ex) {
+                LOG.warn("Rollback failed.", ex);
             }
         }
 
@@ -173,4 +311,152 @@ public class CopyHelpers {
             }
         }
     }
+    private class StatementCopyHelperImpl implements CopyHelper {
+
+        private final Logger LOG = LoggerFactory.getLogger(StatementCopyHelperImpl.class);
+
+        private final MetadataDataUnit source;
+
+        private final WritableMetadataDataUnit destination;
+
+        private final int depth;
+
+        private RepositoryConnection connection = null;
+
+        public StatementCopyHelperImpl(MetadataDataUnit source, WritableMetadataDataUnit destination, int depth) {
+            this.source = source;
+            this.destination = destination;
+            this.depth = depth;
+        }
+
+        @Override
+        public void copyMetadata(String symbolicName) throws DataUnitException {
+            copyMetadata(Arrays.asList(symbolicName));
+        }
+
+        @Override
+        public void copyMetadata(Collection<String> symbolicNames) throws DataUnitException {
+            copy(symbolicNames);
+        }
+
+        @Override
+        public void copyAllMetadata() throws DataUnitException {
+            copy(null);
+        }
+
+        @Override
+        public void close() {
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (RepositoryException ex) {
+                    LOG.warn("Error in close.", ex);
+                }
+            }
+        }
+
+        /**
+         * Copy description of entries with given symbolic names in a single transaction.
+         *
+         * @param symbolicNames Null to copy all entries.
+         * @throws DataUnitException
+         */
+        private void copy(Collection<String> symbolicNames) throws DataUnitException {
+            final Resource[] graphs = source.getMetadataGraphnames().toArray(
+                    new Resource[source.getMetadataGraphnames().size()]);
+            if (graphs.length == 0) {
+                return;
+            }
+            final IRI writeGraph = destination.getMetadataWriteGraphname();
+            try {
+                if (connection == null) {
+                    connection = source.getConnection();
+                }
+                // Roots are the entries.
+                final Set<Resource> visited = new LinkedHashSet<>();
+                if (symbolicNames == null) {
+                    addSubjects(visited, null, graphs);
+                } else {
+                    for (String symbolicName : symbolicNames) {
+                        addSubjects(visited, connection.getValueFactory().createLiteral(symbolicName), graphs);
+                    }
+                }
+                // Nodes of current level.
+                List<Resource> level = new ArrayList<>(visited);
+                final List<Statement> batch = new ArrayList<>(STATEMENT_BATCH_SIZE);
+                connection.begin();
+                for (int currentDepth = 1; currentDepth <= depth && !level.isEmpty(); ++currentDepth) {
+                    final List<Resource> nextLevel = new ArrayList<>();
+                    for (Resource node : level) {
+                        for (Statement statement : getStatements(node, graphs)) {
+                            batch.add(statement);
+                            final Value object = statement.getObject();
+                            // Only IRIs and blank nodes are followed.
+                            if (currentDepth < depth && object instanceof Resource && visited.add((Resource) object)) {
+                                nextLevel.add((Resource) object);
+                            }
+                        }
+                        if (batch.size() >= STATEMENT_BATCH_SIZE) {
+                            connection.add(batch, writeGraph);
+                            batch.clear();
+                        }
+                    }
+                    level = nextLevel;
+                }
+                if (!batch.isEmpty()) {
+                    connection.add(batch, writeGraph);
+                }
+                connection.commit();
+            } catch (RepositoryException ex) {
+                try {
+                    if (connection != null && connection.isActive()) {
+                        connection.rollback();
+                    }
+                } catch (RepositoryException e) {
+                    LOG.warn("Rollback failed.", e);
+                }
+                throw new DataUnitException("Failed to copy metadata.", ex);
+            }
+        }
+
+        /**
+         * Add subjects with given symbolic name to the set.
+         *
+         * @param subjects
+         * @param symbolicName Null to add all entries.
+         * @param graphs
+         */
+        private void addSubjects(Set<Resource> subjects, Value symbolicName, Resource[] graphs) {
+            final RepositoryResult<Statement> result = connection.getStatements(null,
+                    MetadataVocabulary.UV_SYMBOLIC_NAME, symbolicName, false, graphs);
+            try {
+                while (result.hasNext()) {
+                    subjects.add(result.next().getSubject());
+                }
+            } finally {
+                result.close();
+            }
+        }
+
+        /**
+         * Read all statements about given node. Result is read completely so the connection can be used for
+         * writing.
+         *
+         * @param node
+         * @param graphs
+         * @return
+         */
+        private List<Statement> getStatements(Resource node, Resource[] graphs) {
+            final List<Statement> statements = new ArrayList<>();
+            final RepositoryResult<Statement> result = connection.getStatements(node, null, null, false, graphs);
+            try {
+                while (result.hasNext()) {
+                    statements.add(result.next());
+                }
+            } finally {
+                result.close();
+            }
+            return statements;
+        }
+    }
 }
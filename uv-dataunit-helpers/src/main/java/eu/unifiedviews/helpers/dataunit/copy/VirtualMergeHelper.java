@@ -0,0 +1,105 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dataunit.copy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.rdf4j.model.IRI;
+
+import eu.unifiedviews.dataunit.DataUnitException;
+import eu.unifiedviews.dataunit.rdf.RDFDataUnit;
+import eu.unifiedviews.dataunit.rdf.WritableRDFDataUnit;
+import eu.unifiedviews.helpers.dataunit.DataUnitUtils;
+import eu.unifiedviews.helpers.dataunit.rdf.RDFHelper;
+import eu.unifiedviews.helpers.dataunit.rdf.RdfDataUnitUtils;
+
+/**
+ * Helper to merge RDF data units without copying the data. Data graphs of source data unit are registered
+ * as entries of the destination data unit, so readers see them as one union dataset through
+ * {@link RDFHelper#getDatasetWithDefaultGraphs(RDFDataUnit)}.
+ * <p>
+ * As the graphs are shared with the source data unit, they must not be modified through the destination.
+ * Consumers that need a single physical graph can use {@link #materialize(RDFDataUnit, WritableRDFDataUnit, String)}.
+ * <p>
+ * Example usage:
+ * <p><blockquote><pre>
+ * VirtualMergeHelper.merge(firstInputDataUnit, outputDataUnit, "first-");
+ * VirtualMergeHelper.merge(secondInputDataUnit, outputDataUnit, "second-");
+ * // query over all graphs
+ * query.setDataset(RDFHelper.getDatasetWithDefaultGraphs(outputDataUnit));
+ * </pre></blockquote></p>
+ */
+public class VirtualMergeHelper {
+
+    private VirtualMergeHelper() {
+
+    }
+
+    /**
+     * Register all data graphs of source data unit in destination data unit under their symbolic names.
+     *
+     * @param source data unit to merge from
+     * @param destination data unit to merge into
+     * @return new entries in destination data unit
+     * @throws DataUnitException
+     */
+    public static List<RDFDataUnit.Entry> merge(RDFDataUnit source, WritableRDFDataUnit destination)
+            throws DataUnitException {
+        return merge(source, destination, "");
+    }
+
+    /**
+     * Register all data graphs of source data unit in destination data unit. Symbolic names of new entries
+     * are prefixed by given prefix, so multiple data units with same symbolic names can be merged.
+     *
+     * @param source data unit to merge from
+     * @param destination data unit to merge into
+     * @param symbolicNamePrefix prefix for symbolic names of new entries
+     * @return new entries in destination data unit
+     * @throws DataUnitException
+     */
+    public static List<RDFDataUnit.Entry> merge(RDFDataUnit source, WritableRDFDataUnit destination,
+            String symbolicNamePrefix) throws DataUnitException {
+        final List<RDFDataUnit.Entry> result = new ArrayList<>();
+        for (RDFDataUnit.Entry entry : RDFHelper.getGraphs(source)) {
+            result.add(RdfDataUnitUtils.addGraph(destination, symbolicNamePrefix + entry.getSymbolicName(),
+                    entry.getDataGraphURI()));
+        }
+        return result;
+    }
+
+    /**
+     * Copy all data graphs of given data unit into a single new graph in destination data unit, in a single
+     * transaction.
+     *
+     * @param dataUnit data unit to materialize, can be the result of {@link #merge(RDFDataUnit, WritableRDFDataUnit)}
+     * @param destination data unit where the new graph is created
+     * @param symbolicName symbolic name of the new graph
+     * @return IRI of the new graph
+     * @throws DataUnitException
+     */
+    public static IRI materialize(RDFDataUnit dataUnit, WritableRDFDataUnit destination, String symbolicName)
+            throws DataUnitException {
+        final List<IRI> sourceGraphs = new ArrayList<>(RDFHelper.getGraphsURISet(dataUnit));
+        final IRI targetGraph = destination.addNewDataGraph(symbolicName);
+        DataUnitUtils.entryAdded(destination, symbolicName);
+        AddAllHelper.mergeInTransaction(sourceGraphs, targetGraph, destination, new AddAllHelper.Options());
+        return targetGraph;
+    }
+
+}
@@ -0,0 +1,286 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dataunit.files;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.unifiedviews.dataunit.DataUnitException;
+import eu.unifiedviews.dataunit.files.WritableFilesDataUnit;
+
+/**
+ * Helper to add all files from a directory tree into {@link WritableFilesDataUnit}.
+ * <p>
+ * Directories are walked in parallel on a work-stealing pool, while the calling thread registers found files
+ * in batches, see {@link FilesDataUnitUtils#addFiles(WritableFilesDataUnit, Map)}. Path relative to the root
+ * directory, with '/' as a separator, is used as both symbolic name and virtual path of each file.
+ * <p>
+ * Only regular files and links to regular files are added. Links to directories are not followed.
+ * <p>
+ * If the ingest fails, files from batches registered before the failure stay in the data unit, as files can't
+ * be removed from a data unit.
+ * <p>
+ * Example usage:
+ * <p><blockquote><pre>
+ * DirectoryIngestHelper.ingest(outputDataUnit, unpackedDirectory, "**.xml");
+ * </pre></blockquote></p>
+ */
+public class DirectoryIngestHelper {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DirectoryIngestHelper.class);
+
+    /**
+     * Number of files registered in a single transaction.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /**
+     * Number of found files that can wait for registration, per single file in a batch.
+     */
+    private static final int QUEUE_SIZE_PER_BATCH_ITEM = 2;
+
+    /**
+     * Time in milliseconds for which registering thread waits for new files and walking threads wait for
+     * space in the queue.
+     */
+    private static final long POLL_TIMEOUT = 100;
+
+    /**
+     * Metrics of a single ingest.
+     */
+    public static class Metrics {
+
+        private final long files;
+
+        private final long durationMillis;
+
+        public Metrics(long files, long durationMillis) {
+            this.files = files;
+            this.durationMillis = durationMillis;
+        }
+
+        /**
+         *
+         * @return Number of registered files.
+         */
+        public long getFiles() {
+            return files;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        public double getFilesPerSecond() {
+            return files * 1000.0 / Math.max(durationMillis, 1);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("files: %d, time: %d ms, rate: %.1f files/s", files, durationMillis,
+                    getFilesPerSecond());
+        }
+
+    }
+
+    /**
+     * Walk single directory, found files are added into queue and sub-directories are walked by forked tasks.
+     * If the queue is full the task waits until there is a space or until the walk is stopped.
+     */
+    private static class WalkTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Path root;
+
+        private final Path directory;
+
+        private final PathMatcher matcher;
+
+        private final transient BlockingQueue<Path> found;
+
+        private final AtomicBoolean stopped;
+
+        WalkTask(Path root, Path directory, PathMatcher matcher, BlockingQueue<Path> found,
+                AtomicBoolean stopped) {
+            this.root = root;
+            this.directory = directory;
+            this.matcher = matcher;
+            this.found = found;
+            this.stopped = stopped;
+        }
+
+        @Override
+        protected void compute() {
+            final List<WalkTask> subTasks = new ArrayList<>();
+            try {
+                Files.walkFileTree(directory, EnumSet.noneOf(FileVisitOption.class), 1,
+                        new SimpleFileVisitor<Path>() {
+
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                        if (attrs.isDirectory()) {
+                            // With max depth 1 sub-directories are visited as files.
+                            subTasks.add(new WalkTask(root, file, matcher, found, stopped));
+                        } else if (!attrs.isRegularFile() && !Files.isRegularFile(file)) {
+                            // Links are not followed, so a link to a directory is visited as a file.
+                            LOG.debug("Skipping: {}", file);
+                        } else if (matcher == null || matcher.matches(root.relativize(file))) {
+                            try {
+                                while (!found.offer(file, POLL_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                                    if (stopped.get()) {
+                                        return FileVisitResult.TERMINATE;
+                                    }
+                                }
+                            } catch (InterruptedException ex) {
+                                Thread.currentThread().interrupt();
+                                throw new IOException("Interrupted.", ex);
+                            }
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                });
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            if (!stopped.get()) {
+                ForkJoinTask.invokeAll(subTasks);
+            }
+        }
+
+    }
+
+    private DirectoryIngestHelper() {
+
+    }
+
+    /**
+     * Add all files under given directory.
+     *
+     * @param dataUnit
+     * @param root     Root directory.
+     * @param glob     Glob pattern matched against path relative to the root, if null all files are added.
+     * @return Ingest metrics.
+     * @throws DataUnitException
+     */
+    public static Metrics ingest(WritableFilesDataUnit dataUnit, File root, String glob) throws DataUnitException {
+        return ingest(dataUnit, root, glob, Runtime.getRuntime().availableProcessors(), DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Add all files under given directory.
+     *
+     * @param dataUnit
+     * @param root        Root directory.
+     * @param glob        Glob pattern matched against path relative to the root, if null all files are added.
+     * @param parallelism Number of threads used to walk the directory tree.
+     * @param batchSize   Number of files registered in a single transaction.
+     * @return Ingest metrics.
+     * @throws DataUnitException On failure, files registered before the failure stay in the data unit.
+     */
+    public static Metrics ingest(WritableFilesDataUnit dataUnit, File root, String glob, int parallelism,
+            int batchSize) throws DataUnitException {
+        final long start = System.currentTimeMillis();
+        final Path rootPath = root.toPath().toAbsolutePath();
+        final PathMatcher matcher = glob == null ? null : FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        final BlockingQueue<Path> found = new ArrayBlockingQueue<>(
+                Math.max(batchSize, 1) * QUEUE_SIZE_PER_BATCH_ITEM);
+        final AtomicBoolean stopped = new AtomicBoolean(false);
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        long counter = 0;
+        try {
+            final ForkJoinTask<Void> walk = pool.submit(
+                    new WalkTask(rootPath, rootPath, matcher, found, stopped));
+            final Map<String, File> batch = new LinkedHashMap<>();
+            // Register files as they are found, stop on walk failure.
+            while ((!walk.isDone() || !found.isEmpty()) && !walk.isCompletedAbnormally()) {
+                final Path file = found.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                if (file != null) {
+                    batch.put(asVirtualPath(rootPath.relativize(file)), file.toFile());
+                }
+                if (batch.size() >= batchSize || (file == null && !batch.isEmpty())) {
+                    FilesDataUnitUtils.addFiles(dataUnit, batch);
+                    counter += batch.size();
+                    batch.clear();
+                }
+            }
+            // Files found by a failed walk are not registered.
+            if (!batch.isEmpty() && !walk.isCompletedAbnormally()) {
+                FilesDataUnitUtils.addFiles(dataUnit, batch);
+                counter += batch.size();
+            }
+            // Propagate walk failure.
+            walk.get();
+        } catch (ExecutionException ex) {
+            throw new DataUnitException("Can't walk directory: " + root + ", " + counter
+                    + " files were already added.", ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new DataUnitException("Interrupted.", ex);
+        } finally {
+            // Release walking threads waiting for space in the queue.
+            stopped.set(true);
+            pool.shutdownNow();
+        }
+        final Metrics metrics = new Metrics(counter, System.currentTimeMillis() - start);
+        LOG.info("Directory {} added: {}", root, metrics);
+        return metrics;
+    }
+
+    /**
+     *
+     * @param relativePath
+     * @return Given path with '/' as a separator.
+     */
+    private static String asVirtualPath(Path relativePath) {
+        final StringBuilder builder = new StringBuilder();
+        for (Path name : relativePath) {
+            if (builder.length() > 0) {
+                builder.append('/');
+            }
+            builder.append(name.toString());
+        }
+        return builder.toString();
+    }
+
+}
@@ -17,9 +17,16 @@
 package eu.unifiedviews.helpers.dataunit.files;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
+import eu.unifiedviews.helpers.dataunit.DataUnitUtils;
 import eu.unifiedviews.helpers.dataunit.metadata.MetadataUtils;
+import eu.unifiedviews.helpers.dataunit.metadata.WritableMetadataUtilsInstance;
 import eu.unifiedviews.dataunit.DataUnitException;
+import eu.unifiedviews.dataunit.files.BulkWritableFilesDataUnit;
 import eu.unifiedviews.dataunit.files.FilesDataUnit;
 import eu.unifiedviews.dataunit.files.WritableFilesDataUnit;
 import eu.unifiedviews.helpers.dataunit.virtualpath.VirtualPathHelper;
@@ -89,6 +96,7 @@ public class FilesDataUnitUtils {
             throws DataUnitException {
         // Add existing file to DataUnit.
         dataUnit.addExistingFile(symbolicName, file.toURI().toString());
+        DataUnitUtils.entryAdded(dataUnit, symbolicName);
         // Set available metadata.
         MetadataUtils.add(dataUnit, symbolicName, FilesVocabulary.UV_VIRTUAL_PATH, symbolicName);
         // Return representing instance.
@@ -109,12 +117,139 @@ public class FilesDataUnitUtils {
             throws DataUnitException {
         // Add existing file to DataUnit.
         dataUnit.addExistingFile(symbolicName, file.toURI().toString());
+        DataUnitUtils.entryAdded(dataUnit, symbolicName);
         // Set available metadata.
         MetadataUtils.add(dataUnit, symbolicName, FilesVocabulary.UV_VIRTUAL_PATH, virtualPath);
         // Return representing instance.
         return new InMemoryEntry(file.toURI().toString(), symbolicName);
     }
 
+    /**
+     * Add files to the DataUnit. Symbolic names are used as virtual paths. Files are registered by
+     * {@link #addExistingFiles(WritableFilesDataUnit, Map)} and then all virtual paths are written in
+     * a single transaction by {@link #addVirtualPaths(WritableFilesDataUnit, List)}.
+     *
+     * @param dataUnit
+     * @param files    Symbolic names mapped to files to add, files must be under root.
+     * @return Added entries in the order of given map.
+     * @throws DataUnitException
+     */
+    public static List<FilesDataUnit.Entry> addFiles(WritableFilesDataUnit dataUnit, Map<String, File> files)
+            throws DataUnitException {
+        final List<FilesDataUnit.Entry> result = addExistingFiles(dataUnit, files);
+        addVirtualPaths(dataUnit, result);
+        return result;
+    }
+
+    /**
+     * Create files under given symbolic names. Symbolic names are used as virtual paths. Files are
+     * registered by {@link #addNewFiles(WritableFilesDataUnit, List)} and then all virtual paths are written
+     * in a single transaction by {@link #addVirtualPaths(WritableFilesDataUnit, List)}.
+     *
+     * @param dataUnit
+     * @param symbolicNames
+     * @return Created entries in the order of given symbolic names.
+     * @throws DataUnitException
+     */
+    public static List<FilesDataUnit.Entry> createFiles(WritableFilesDataUnit dataUnit, List<String> symbolicNames)
+            throws DataUnitException {
+        final List<FilesDataUnit.Entry> result = addNewFiles(dataUnit, symbolicNames);
+        addVirtualPaths(dataUnit, result);
+        return result;
+    }
+
+    /**
+     * Register existing files in the DataUnit, no metadata are added. If the data unit is
+     * {@link BulkWritableFilesDataUnit} then all files are registered in a single transaction and a failure adds
+     * nothing. Otherwise files are added one by one and the files added before a failure stay in the data unit.
+     *
+     * @param dataUnit
+     * @param files    Symbolic names mapped to files to add, files must be under root.
+     * @return Added entries in the order of given map.
+     * @throws DataUnitException
+     */
+    public static List<FilesDataUnit.Entry> addExistingFiles(WritableFilesDataUnit dataUnit, Map<String, File> files)
+            throws DataUnitException {
+        final Map<String, String> fileUris = new LinkedHashMap<>();
+        for (Map.Entry<String, File> item : files.entrySet()) {
+            fileUris.put(item.getKey(), item.getValue().toURI().toString());
+        }
+        final List<FilesDataUnit.Entry> result = new ArrayList<>(fileUris.size());
+        try {
+            if (dataUnit instanceof BulkWritableFilesDataUnit) {
+                ((BulkWritableFilesDataUnit) dataUnit).addExistingFiles(fileUris);
+                for (Map.Entry<String, String> item : fileUris.entrySet()) {
+                    result.add(new InMemoryEntry(item.getValue(), item.getKey()));
+                }
+            } else {
+                for (Map.Entry<String, String> item : fileUris.entrySet()) {
+                    dataUnit.addExistingFile(item.getKey(), item.getValue());
+                    result.add(new InMemoryEntry(item.getValue(), item.getKey()));
+                }
+            }
+        } finally {
+            entriesAdded(dataUnit, result);
+        }
+        return result;
+    }
+
+    /**
+     * Create new files in the DataUnit, no metadata are added. If the data unit is
+     * {@link BulkWritableFilesDataUnit} then all files are registered in a single transaction and a failure adds
+     * nothing. Otherwise files are added one by one and the files added before a failure stay in the data unit.
+     *
+     * @param dataUnit
+     * @param symbolicNames
+     * @return Created entries in the order of given symbolic names.
+     * @throws DataUnitException
+     */
+    public static List<FilesDataUnit.Entry> addNewFiles(WritableFilesDataUnit dataUnit, List<String> symbolicNames)
+            throws DataUnitException {
+        final List<FilesDataUnit.Entry> result = new ArrayList<>(symbolicNames.size());
+        try {
+            if (dataUnit instanceof BulkWritableFilesDataUnit) {
+                final List<String> fileUris = ((BulkWritableFilesDataUnit) dataUnit).addNewFiles(symbolicNames);
+                if (fileUris.size() != symbolicNames.size()) {
+                    throw new DataUnitException("Expected " + symbolicNames.size() + " files, but "
+                            + fileUris.size() + " were created.");
+                }
+                for (int index = 0; index < symbolicNames.size(); ++index) {
+                    result.add(new InMemoryEntry(fileUris.get(index), symbolicNames.get(index)));
+                }
+            } else {
+                for (String symbolicName : symbolicNames) {
+                    result.add(new InMemoryEntry(dataUnit.addNewFile(symbolicName), symbolicName));
+                }
+            }
+        } finally {
+            entriesAdded(dataUnit, result);
+        }
+        return result;
+    }
+
+    /**
+     * Add {@link FilesVocabulary#UV_VIRTUAL_PATH} equal to the symbolic name to given entries. All metadata are
+     * written in a single transaction.
+     *
+     * @param dataUnit
+     * @param entries
+     * @throws DataUnitException
+     */
+    public static void addVirtualPaths(WritableFilesDataUnit dataUnit, List<FilesDataUnit.Entry> entries)
+            throws DataUnitException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        final WritableMetadataUtilsInstance instance = MetadataUtils.create(dataUnit, true);
+        try {
+            for (FilesDataUnit.Entry entry : entries) {
+                instance.setEntry(entry.getSymbolicName()).add(FilesVocabulary.UV_VIRTUAL_PATH,
+                        entry.getSymbolicName());
+            }
+        } finally {
+            instance.close();
+        }
+    }
 
     /**
      * @param entry
@@ -137,6 +272,7 @@ public class FilesDataUnitUtils {
     public static FilesDataUnit.Entry createFile(WritableFilesDataUnit dataUnit, String symbolicName)
             throws DataUnitException {
         final String fileUri = dataUnit.addNewFile(symbolicName);
+        DataUnitUtils.entryAdded(dataUnit, symbolicName);
         MetadataUtils.add(dataUnit, symbolicName, FilesVocabulary.UV_VIRTUAL_PATH, symbolicName);
         return new InMemoryEntry(fileUri, symbolicName);
     }
@@ -153,9 +289,26 @@ public class FilesDataUnitUtils {
     public static FilesDataUnit.Entry createFile(WritableFilesDataUnit dataUnit, String symbolicName, String virtualPath)
             throws DataUnitException {
         final String fileUri = dataUnit.addNewFile(symbolicName);
+        DataUnitUtils.entryAdded(dataUnit, symbolicName);
         MetadataUtils.add(dataUnit, symbolicName, FilesVocabulary.UV_VIRTUAL_PATH, virtualPath);
         return new InMemoryEntry(fileUri, symbolicName);
     }
 
+    /**
+     * Call {@link DataUnitUtils#entriesAdded(eu.unifiedviews.dataunit.MetadataDataUnit, java.util.Collection)}
+     * for given entries.
+     *
+     * @param dataUnit
+     * @param entries
+     * @throws DataUnitException
+     */
+    private static void entriesAdded(WritableFilesDataUnit dataUnit, List<FilesDataUnit.Entry> entries)
+            throws DataUnitException {
+        final List<String> symbolicNames = new ArrayList<>(entries.size());
+        for (FilesDataUnit.Entry entry : entries) {
+            symbolicNames.add(entry.getSymbolicName());
+        }
+        DataUnitUtils.entriesAdded(dataUnit, symbolicNames);
+    }
 
 }
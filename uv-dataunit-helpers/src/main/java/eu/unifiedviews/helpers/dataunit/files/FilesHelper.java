@@ -18,13 +18,16 @@ package eu.unifiedviews.helpers.dataunit.files;
 
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import eu.unifiedviews.dataunit.DataUnitException;
 import eu.unifiedviews.dataunit.files.FilesDataUnit;
 import eu.unifiedviews.dataunit.files.WritableFilesDataUnit;
 import eu.unifiedviews.dpu.DPUException;
+import eu.unifiedviews.helpers.dataunit.DataUnitUtils;
 import java.io.File;
 
 /**
@@ -197,6 +200,39 @@ public class FilesHelper {
 
     }
 
+    /**
+     * Adds existing files to the {@link eu.unifiedviews.dataunit.files.WritableFilesDataUnit}.
+     * For each file a new entry is created with the symbolicName and virtualPath metadata equal to the key in the given map.
+     * Note: All files and their metadata are added using a single connection to the RDF working store, so this function should be used
+     * instead of {@link #addFile(WritableFilesDataUnit, File, String)} when adding greater number of files.
+     *
+     * @param filesDataUnit
+     *            data unit to which the files should be added
+     * @param files
+     *            Names under which the files should be added mapped to the files
+     * @return Added entries.
+     * @throws DataUnitException
+     */
+    public static List<FilesDataUnit.Entry> addFiles(WritableFilesDataUnit filesDataUnit, Map<String, File> files) throws DataUnitException {
+        return FilesDataUnitUtils.addFiles(filesDataUnit, files);
+    }
+
+    /**
+     * Creates new empty files in the {@link eu.unifiedviews.dataunit.files.WritableFilesDataUnit} with the symbolicName and virtualPath
+     * metadata equal to given filenames.
+     * Note: All files and their metadata are added using a single connection to the RDF working store, so this function should be used
+     * instead of {@link #createFile(WritableFilesDataUnit, String)} when creating greater number of files.
+     *
+     * @param filesDataUnit
+     *            data unit in which the files should be created
+     * @param filenames
+     * @return Entries pointing to the created files.
+     * @throws DataUnitException
+     */
+    public static List<FilesDataUnit.Entry> createFiles(WritableFilesDataUnit filesDataUnit, List<String> filenames) throws DataUnitException {
+        return FilesDataUnitUtils.createFiles(filesDataUnit, filenames);
+    }
+
     /**
      * Converts files entry to standard Java File object.
      * 
@@ -209,4 +245,14 @@ public class FilesHelper {
         return FilesDataUnitUtils.asFile(entry);
     }
 
+    /**
+     * Lazily evaluated stream of entries, entries are read as they are consumed. Returned stream must be closed.
+     *
+     * @param filesDataUnit
+     * @return stream of entries
+     * @throws DataUnitException
+     */
+    public static Stream<FilesDataUnit.Entry> streamFiles(FilesDataUnit filesDataUnit) throws DataUnitException {
+        return DataUnitUtils.streamEntries(filesDataUnit, FilesDataUnit.Entry.class);
+    }
 }
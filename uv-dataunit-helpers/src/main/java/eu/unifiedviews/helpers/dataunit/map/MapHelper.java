@@ -16,6 +16,8 @@
  */
 package eu.unifiedviews.helpers.dataunit.map;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import eu.unifiedviews.dataunit.DataUnitException;
@@ -81,6 +83,22 @@ public interface MapHelper extends AutoCloseable {
      */
     Map<String, String> getMap(String symbolicName, String mapName) throws DataUnitException;
 
+    /**
+     * Obtain maps named mapName attached to metadata entries with given symbolic names.
+     *
+     * @param symbolicNames entries' symbolic names
+     * @param mapName name of map (its id)
+     * @return symbolic names mapped to their metadata maps, empty map is used if no such map exists
+     * @throws DataUnitException
+     */
+    default Map<String, Map<String, String>> getMaps(Collection<String> symbolicNames, String mapName) throws DataUnitException {
+        final Map<String, Map<String, String>> result = new LinkedHashMap<>();
+        for (String symbolicName : symbolicNames) {
+            result.put(symbolicName, getMap(symbolicName, mapName));
+        }
+        return result;
+    }
+
     /**
      * Attach map 'map', named mapName to metadata entry named symbolicName. Any previously attached map with same mapName will be replaced with new one.
      * @param symbolicName entry's symbolic name
@@ -90,6 +108,30 @@ public interface MapHelper extends AutoCloseable {
      */
     void putMap(String symbolicName, String mapName, Map<String, String> map) throws DataUnitException;
 
+    /**
+     * Attach maps named mapName to metadata entries with given symbolic names, see {@link #putMap(String, String, Map)}.
+     * @param maps symbolic names mapped to the maps, maps can not be null
+     * @param mapName name of maps (their id)
+     * @throws DataUnitException
+     */
+    default void putMaps(Map<String, Map<String, String>> maps, String mapName) throws DataUnitException {
+        for (Map.Entry<String, Map<String, String>> item : maps.entrySet()) {
+            putMap(item.getKey(), mapName, item.getValue());
+        }
+    }
+
+    /**
+     * Attach maps of several names at once, see {@link #putMaps(Map, String)}. Writable helpers store all
+     * the maps in a single transaction.
+     * @param maps names of maps mapped to symbolic names mapped to the maps, maps can not be null
+     * @throws DataUnitException
+     */
+    default void putMaps(Map<String, Map<String, Map<String, String>>> maps) throws DataUnitException {
+        for (Map.Entry<String, Map<String, Map<String, String>>> item : maps.entrySet()) {
+            putMaps(item.getValue(), item.getKey());
+        }
+    }
+
     @Override
     public void close();
 }
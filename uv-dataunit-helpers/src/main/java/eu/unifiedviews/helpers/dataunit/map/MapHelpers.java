@@ -16,14 +16,24 @@
  */
 package eu.unifiedviews.helpers.dataunit.map;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
 import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.eclipse.rdf4j.query.*;
-import org.eclipse.rdf4j.query.impl.SimpleDataset;
 import org.eclipse.rdf4j.repository.RepositoryConnection;
 import org.eclipse.rdf4j.repository.RepositoryException;
+import org.eclipse.rdf4j.repository.RepositoryResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,6 +41,9 @@ import eu.unifiedviews.dataunit.DataUnitException;
 import eu.unifiedviews.dataunit.MetadataDataUnit;
 import eu.unifiedviews.dataunit.WritableMetadataDataUnit;
 import eu.unifiedviews.helpers.dataunit.dataset.DatasetBuilder;
+import eu.unifiedviews.helpers.dataunit.metadata.MetadataSnapshot;
+import eu.unifiedviews.helpers.dataunit.metadata.MetadataUtils;
+import eu.unifiedviews.helpers.dataunit.utils.ConvertUtils;
 
 /**
  * Static helper nutshell for {@link MapHelper}
@@ -78,6 +91,16 @@ public class MapHelpers {
         return selfie.new WritableMapHelperImpl(dataUnit);
     }
 
+    /**
+     * Create read-only {@link MapHelper} over given {@link MetadataSnapshot}, no connection to the storage is used.
+     * Method {@link MapHelper#putMap(String, String, Map)} is unsupported in this instance.
+     * @param snapshot snapshot of metadata, see {@link MetadataUtils#createSnapshot(MetadataDataUnit)}
+     * @return instance of {@link MapHelper}
+     */
+    public static MapHelper create(MetadataSnapshot snapshot) {
+        return selfie.new SnapshotMapHelperImpl(snapshot);
+    }
+
     /**
      * Just do the job, get map from given symbolicName saved under the mapName (id, key of the map).
      * Opens and closes connection to storage each time it is called.
@@ -102,6 +125,30 @@ public class MapHelpers {
         return result;
     }
 
+    /**
+     * Just do the job, get maps from given symbolicNames saved under the mapName (id, key of the map).
+     * All maps are read by a single query.
+     *
+     * @param dataUnit unit to work with
+     * @param symbolicNames to which the maps are binded
+     * @param mapName key of the map
+     * @return symbolic names mapped to their maps
+     * @throws DataUnitException
+     */
+    public static Map<String, Map<String, String>> getMaps(MetadataDataUnit dataUnit, Collection<String> symbolicNames, String mapName) throws DataUnitException {
+        MapHelper helper = null;
+        Map<String, Map<String, String>> result = null;
+        try {
+            helper = create(dataUnit);
+            result = helper.getMaps(symbolicNames, mapName);
+        } finally {
+            if (helper != null) {
+                helper.close();
+            }
+        }
+        return result;
+    }
+
     /**
      * Just put the map to given symbolicName under the mapName.
      * @param dataUnit unit to work with
@@ -123,7 +170,7 @@ public class MapHelpers {
     }
 
     private class MapHelperImpl implements MapHelper {
-        private final Logger LOG = LoggerFactory.getLogger(MapHelperImpl.class);
+        protected final Logger LOG = LoggerFactory.getLogger(MapHelperImpl.class);
 
         private MetadataDataUnit dataUnit;
 
@@ -152,6 +199,27 @@ public class MapHelpers {
                         + "?entry <" + MapHelper.PREDICATE_MAP_ENTRY_VALUE + "> ?" + VALUE_BINDING + ". "
                         + "}";
 
+        /**
+         * Select maps with given title for multiple symbolic names, so maps of many entries can be read by
+         * a single query.
+         * %s - values of symbolic names
+         */
+        protected static final String SELECT_MAPS =
+                "SELECT ?" + SYMBOLIC_NAME_BINDING + " ?key ?value WHERE { "
+                        + "VALUES ?" + SYMBOLIC_NAME_BINDING + " { %s } "
+                        + "?root <" + MetadataDataUnit.PREDICATE_SYMBOLIC_NAME + "> ?" + SYMBOLIC_NAME_BINDING + ". "
+                        + "?root <" + MapHelper.PREDICATE_HAS_MAP + "> ?map. "
+                        + "?map <" + MapHelper.PREDICATE_MAP_TITLE + "> ?" + TITLE_BINDING + ". "
+                        + "?map <" + MapHelper.PREDICATE_MAP_CONTAINS + "> ?entry. "
+                        + "?entry <" + MapHelper.PREDICATE_MAP_ENTRY_KEY + "> ?" + KEY_BINDING + ". "
+                        + "?entry <" + MapHelper.PREDICATE_MAP_ENTRY_VALUE + "> ?" + VALUE_BINDING + ". "
+                        + "}";
+
+        /**
+         * Maximum number of symbolic names in a single {@link #SELECT_MAPS} query.
+         */
+        protected static final int VALUES_BATCH_SIZE = 1000;
+
         public MapHelperImpl(MetadataDataUnit dataUnit) {
             this.dataUnit = dataUnit;
         }
@@ -200,6 +268,70 @@ public class MapHelpers {
             return resultMap;
         }
 
+        @Override
+        public Map<String, Map<String, String>> getMaps(Collection<String> symbolicNames, String mapName) throws DataUnitException {
+            if (connection == null) {
+                connection = dataUnit.getConnection();
+            }
+            final Map<String, Map<String, String>> resultMap = new LinkedHashMap<>();
+            for (String symbolicName : symbolicNames) {
+                resultMap.put(symbolicName, new LinkedHashMap<String, String>());
+            }
+            final Dataset dataset = new DatasetBuilder().withDefaultGraphs(dataUnit.getMetadataGraphnames()).build();
+            final StringBuilder values = new StringBuilder();
+            int batchSize = 0;
+            for (String symbolicName : resultMap.keySet()) {
+                values.append(ConvertUtils.toSparqlLiteral(symbolicName)).append(' ');
+                if (++batchSize == VALUES_BATCH_SIZE) {
+                    selectMaps(values.toString(), mapName, dataset, resultMap);
+                    values.setLength(0);
+                    batchSize = 0;
+                }
+            }
+            if (batchSize > 0) {
+                selectMaps(values.toString(), mapName, dataset, resultMap);
+            }
+            return resultMap;
+        }
+
+        /**
+         * Execute {@link #SELECT_MAPS} for given symbolic names and add results into given maps.
+         *
+         * @param values    Symbolic names as SPARQL literals.
+         * @param mapName
+         * @param dataset
+         * @param resultMap Symbolic name -> map to fill.
+         * @throws DataUnitException
+         */
+        private void selectMaps(String values, String mapName, Dataset dataset,
+                Map<String, Map<String, String>> resultMap) throws DataUnitException {
+            TupleQueryResult queryResult = null;
+            try {
+                final TupleQuery query = connection.prepareTupleQuery(QueryLanguage.SPARQL,
+                        String.format(SELECT_MAPS, values));
+                query.setBinding(TITLE_BINDING, connection.getValueFactory().createLiteral(mapName));
+                query.setDataset(dataset);
+
+                queryResult = query.evaluate();
+                while (queryResult.hasNext()) {
+                    final BindingSet binding = queryResult.next();
+                    resultMap.get(binding.getBinding(SYMBOLIC_NAME_BINDING).getValue().stringValue()).put(
+                            binding.getBinding(KEY_BINDING).getValue().stringValue(),
+                            binding.getBinding(VALUE_BINDING).getValue().stringValue());
+                }
+            } catch (MalformedQueryException | QueryEvaluationException | RepositoryException ex) {
+                throw new DataUnitException(ex);
+            } finally {
+                if (queryResult != null) {
+                    try {
+                        queryResult.close();
+                    } catch (QueryEvaluationException ex) {
+                        LOG.warn("Error in close.", ex);
+                    }
+                }
+            }
+        }
+
         @Override
         public void putMap(String symbolicName, String mapName, Map<String, String> map) throws DataUnitException {
             throw new UnsupportedOperationException("Cannot put map into read only dataunit");
@@ -220,44 +352,6 @@ public class MapHelpers {
     private class WritableMapHelperImpl extends MapHelperImpl {
         private WritableMetadataDataUnit writableDataUnit;
 
-        protected static final String CREATE_MAP =
-                "INSERT {"
-                        + "?root <" + MapHelper.PREDICATE_HAS_MAP + "> _:map. "
-                        + "_:map <" + MapHelper.PREDICATE_MAP_TITLE + "> ?" + TITLE_BINDING + ". "
-                        + "} WHERE {"
-                        + "?root <" + MetadataDataUnit.PREDICATE_SYMBOLIC_NAME + "> ?" + SYMBOLIC_NAME_BINDING + ". "
-                        + "FILTER NOT EXISTS {"
-                        + "?root <" + MapHelper.PREDICATE_HAS_MAP + "> ?map. "
-                        + "?map <" + MapHelper.PREDICATE_MAP_TITLE + "> ?" + TITLE_BINDING + ". "
-                        + "} }";
-
-        protected static final String ADD_ENTRY =
-                "INSERT {"
-                        + "?map <" + MapHelper.PREDICATE_MAP_CONTAINS + "> _:entry. "
-                        + "_:entry <" + MapHelper.PREDICATE_MAP_ENTRY_KEY + "> ?" + KEY_BINDING + ". "
-                        + "_:entry <" + MapHelper.PREDICATE_MAP_ENTRY_VALUE + "> ?" + VALUE_BINDING + ". "
-                        + "} WHERE { "
-                        + "?s <" + MetadataDataUnit.PREDICATE_SYMBOLIC_NAME + "> ?" + SYMBOLIC_NAME_BINDING + ". "
-                        + "?s <" + MapHelper.PREDICATE_HAS_MAP + "> ?map. "
-                        + "?map <" + MapHelper.PREDICATE_MAP_TITLE + "> ?" + TITLE_BINDING + ". "
-                        + "}";
-
-        protected static final String DELETE_ENTRIES =
-                "DELETE {"
-                        + "?map <" + MapHelper.PREDICATE_MAP_CONTAINS + "> ?entry. "
-                        + "?entry <" + MapHelper.PREDICATE_MAP_ENTRY_KEY + "> ?key. "
-                        + "?entry <" + MapHelper.PREDICATE_MAP_ENTRY_VALUE + "> ?value. "
-                        + "} WHERE { "
-                        // get the right hash map
-                        + "?s <" + MetadataDataUnit.PREDICATE_SYMBOLIC_NAME + "> ?" + SYMBOLIC_NAME_BINDING + ". "
-                        + "?s <" + MapHelper.PREDICATE_HAS_MAP + "> ?map. "
-                        + "?map <" + MapHelper.PREDICATE_MAP_TITLE + "> ?" + TITLE_BINDING + ". "
-                        // map entries
-                        + "?map <" + MapHelper.PREDICATE_MAP_CONTAINS + "> ?entry. "
-                        + "?entry <" + MapHelper.PREDICATE_MAP_ENTRY_KEY + "> ?key. "
-                        + "?entry <" + MapHelper.PREDICATE_MAP_ENTRY_VALUE + "> ?value. "
-                        + "}";
-
         public WritableMapHelperImpl(WritableMetadataDataUnit dataUnit) {
             super(dataUnit);
             this.writableDataUnit = dataUnit;
@@ -275,6 +369,19 @@ public class MapHelpers {
             return super.getMap(symbolicName, mapName);
         }
 
+        @Override
+        public Map<String, Map<String, String>> getMaps(Collection<String> symbolicNames, String mapName) throws DataUnitException {
+            // See getMap for reason of this initialization.
+            if (connection == null) {
+                connection = writableDataUnit.getConnection();
+            }
+            return super.getMaps(symbolicNames, mapName);
+        }
+
+        /**
+         * Replace map content in a single transaction, statements are added directly without use of SPARQL
+         * updates.
+         */
         @Override
         public void putMap(String symbolicName, String mapName, Map<String, String> map) throws DataUnitException {
             if (map == null) {
@@ -284,55 +391,197 @@ public class MapHelpers {
                 connection = writableDataUnit.getConnection();
             }
             final ValueFactory valueFactory = connection.getValueFactory();
-            final SimpleDataset dataset = new SimpleDataset();
-            dataset.addDefaultGraph(writableDataUnit.getMetadataWriteGraphname());
-            dataset.setDefaultInsertGraph(writableDataUnit.getMetadataWriteGraphname());
-            dataset.addDefaultRemoveGraph(writableDataUnit.getMetadataWriteGraphname());
-
+            final IRI writeGraph = writableDataUnit.getMetadataWriteGraphname();
+            final IRI hasMap = valueFactory.createIRI(MapHelper.PREDICATE_HAS_MAP);
+            final IRI mapTitle = valueFactory.createIRI(MapHelper.PREDICATE_MAP_TITLE);
+            final IRI mapContains = valueFactory.createIRI(MapHelper.PREDICATE_MAP_CONTAINS);
+            final IRI entryKey = valueFactory.createIRI(MapHelper.PREDICATE_MAP_ENTRY_KEY);
+            final IRI entryValue = valueFactory.createIRI(MapHelper.PREDICATE_MAP_ENTRY_VALUE);
+            final Literal titleLiteral = valueFactory.createLiteral(mapName);
+
+            final boolean ownTransaction = !connection.isActive();
             try {
-                //
-                // create map
-                //
-                {
-                    final Update update = connection.prepareUpdate(QueryLanguage.SPARQL, CREATE_MAP);
+                if (ownTransaction) {
+                    connection.begin();
+                }
+                for (Resource root : getResources(null, valueFactory.createIRI(MetadataDataUnit.PREDICATE_SYMBOLIC_NAME),
+                        valueFactory.createLiteral(symbolicName), writeGraph)) {
+                    //
+                    // create map or delete entries
+                    //
+                    final List<Resource> mapNodes = new ArrayList<>(1);
+                    for (Resource mapNode : getResources(root, hasMap, null, writeGraph)) {
+                        if (connection.hasStatement(mapNode, mapTitle, titleLiteral, false, writeGraph)) {
+                            mapNodes.add(mapNode);
+                        }
+                    }
+                    if (mapNodes.isEmpty()) {
+                        final Resource mapNode = valueFactory.createBNode();
+                        connection.add(root, hasMap, mapNode, writeGraph);
+                        connection.add(mapNode, mapTitle, titleLiteral, writeGraph);
+                        mapNodes.add(mapNode);
+                    } else {
+                        for (Resource mapNode : mapNodes) {
+                            for (Resource entry : getResources(mapNode, mapContains, null, writeGraph)) {
+                                connection.remove(entry, entryKey, null, writeGraph);
+                                connection.remove(entry, entryValue, null, writeGraph);
+                            }
+                            connection.remove(mapNode, mapContains, null, writeGraph);
+                        }
+                    }
+                    //
+                    // add entries
+                    //
+                    for (Resource mapNode : mapNodes) {
+                        for (Map.Entry<String, String> item : map.entrySet()) {
+                            final Resource entry = valueFactory.createBNode();
+                            connection.add(mapNode, mapContains, entry, writeGraph);
+                            connection.add(entry, entryKey, valueFactory.createLiteral(item.getKey()), writeGraph);
+                            connection.add(entry, entryValue, valueFactory.createLiteral(item.getValue()), writeGraph);
+                        }
+                    }
+                }
+                if (ownTransaction) {
+                    connection.commit();
+                }
+            } catch (RepositoryException ex) {
+                if (ownTransaction) {
+                    try {
+                        connection.rollback();
+                    } catch (RepositoryException e) {
+                        LOG.warn("Rollback failed.", e);
+                    }
+                }
+                throw new DataUnitException("Failed to add map.", ex);
+            }
+        }
 
-                    update.setBinding(SYMBOLIC_NAME_BINDING, valueFactory.createLiteral(symbolicName));
-                    update.setBinding(TITLE_BINDING, valueFactory.createLiteral(mapName));
+        /**
+         * Put all maps in a single transaction.
+         */
+        @Override
+        public void putMaps(Map<String, Map<String, String>> maps, String mapName) throws DataUnitException {
+            putMaps(Collections.singletonMap(mapName, maps));
+        }
+
+        /**
+         * Put all maps of all names in a single transaction.
+         */
+        @Override
+        public void putMaps(Map<String, Map<String, Map<String, String>>> maps) throws DataUnitException {
+            if (connection == null) {
+                connection = writableDataUnit.getConnection();
+            }
+            final boolean ownTransaction = !connection.isActive();
+            try {
+                if (ownTransaction) {
+                    connection.begin();
+                }
+                for (Map.Entry<String, Map<String, Map<String, String>>> named : maps.entrySet()) {
+                    for (Map.Entry<String, Map<String, String>> item : named.getValue().entrySet()) {
+                        putMap(item.getKey(), named.getKey(), item.getValue());
+                    }
+                }
+                if (ownTransaction) {
+                    connection.commit();
+                }
+            } catch (DataUnitException | RuntimeException ex) {
+                if (ownTransaction && connection.isActive()) {
+                    try {
+                        connection.rollback();
+                    } catch (RepositoryException e) {
+                        LOG.warn("Rollback failed.", e);
+                    }
+                }
+                if (ex instanceof RepositoryException) {
+                    throw new DataUnitException("Failed to add maps.", ex);
+                }
+                throw ex;
+            }
+        }
 
-                    update.setDataset(dataset);
-                    update.execute();
+        /**
+         * Return resources on the position of null subject or object in matching statements.
+         */
+        private List<Resource> getResources(Resource subject, IRI predicate, Value object, IRI graph)
+                throws RepositoryException {
+            final List<Resource> result = new ArrayList<>();
+            final RepositoryResult<Statement> statements = connection.getStatements(subject, predicate, object, false, graph);
+            try {
+                while (statements.hasNext()) {
+                    final Value value = object == null ? statements.next().getObject() : statements.next().getSubject();
+                    if (value instanceof Resource) {
+                        result.add((Resource) value);
+                    }
                 }
-                //
-                // delete entries
-                //
-                {
-                    final Update update = connection.prepareUpdate(QueryLanguage.SPARQL, DELETE_ENTRIES);
+            } finally {
+                statements.close();
+            }
+            return result;
+        }
+    }
+    private class SnapshotMapHelperImpl implements MapHelper {
+
+        private final IRI hasMap;
+
+        private final IRI mapTitle;
+
+        private final IRI mapContains;
 
-                    update.setBinding(SYMBOLIC_NAME_BINDING, valueFactory.createLiteral(symbolicName));
-                    update.setBinding(TITLE_BINDING, valueFactory.createLiteral(mapName));
+        private final IRI entryKey;
+
+        private final IRI entryValue;
+
+        private final MetadataSnapshot snapshot;
+
+        public SnapshotMapHelperImpl(MetadataSnapshot snapshot) {
+            final ValueFactory valueFactory = SimpleValueFactory.getInstance();
+            this.hasMap = valueFactory.createIRI(MapHelper.PREDICATE_HAS_MAP);
+            this.mapTitle = valueFactory.createIRI(MapHelper.PREDICATE_MAP_TITLE);
+            this.mapContains = valueFactory.createIRI(MapHelper.PREDICATE_MAP_CONTAINS);
+            this.entryKey = valueFactory.createIRI(MapHelper.PREDICATE_MAP_ENTRY_KEY);
+            this.entryValue = valueFactory.createIRI(MapHelper.PREDICATE_MAP_ENTRY_VALUE);
+            this.snapshot = snapshot;
+        }
 
-                    update.setDataset(dataset);
-                    update.execute();
+        @Override
+        public Map<String, String> getMap(String symbolicName, String mapName) throws DataUnitException {
+            final Map<String, String> resultMap = new LinkedHashMap<>();
+            for (Value map : snapshot.getAll(symbolicName, hasMap)) {
+                if (!(map instanceof Resource) || !hasTitle((Resource) map, mapName)) {
+                    continue;
                 }
-                //
-                // add entries
-                //
-                {
-                    for (String key : map.keySet()) {
-                        final Update update = connection.prepareUpdate(QueryLanguage.SPARQL, ADD_ENTRY);
-
-                        update.setBinding(SYMBOLIC_NAME_BINDING, valueFactory.createLiteral(symbolicName));
-                        update.setBinding(TITLE_BINDING, valueFactory.createLiteral(mapName));
-                        update.setBinding(KEY_BINDING, valueFactory.createLiteral(key));
-                        update.setBinding(VALUE_BINDING, valueFactory.createLiteral(map.get(key)));
-
-                        update.setDataset(dataset);
-                        update.execute();
+                for (Value entry : snapshot.getAll((Resource) map, mapContains)) {
+                    if (!(entry instanceof Resource)) {
+                        continue;
+                    }
+                    for (Value key : snapshot.getAll((Resource) entry, entryKey)) {
+                        for (Value value : snapshot.getAll((Resource) entry, entryValue)) {
+                            resultMap.put(key.stringValue(), value.stringValue());
+                        }
                     }
                 }
-            } catch (MalformedQueryException | RepositoryException | UpdateExecutionException ex) {
-                throw new DataUnitException("Failed to add map.", ex);
             }
+            return resultMap;
+        }
+
+        @Override
+        public void putMap(String symbolicName, String mapName, Map<String, String> map) throws DataUnitException {
+            throw new UnsupportedOperationException("Cannot put map into read only snapshot");
+        }
+
+        @Override
+        public void close() {
+            // Nothing to close.
+        }
+
+        private boolean hasTitle(Resource map, String mapName) {
+            for (Value title : snapshot.getAll(map, mapTitle)) {
+                if (title instanceof Literal && title.stringValue().equals(mapName)) {
+                    return true;
+                }
+            }
+            return false;
         }
     }
 }
@@ -0,0 +1,575 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dataunit.metadata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.MalformedQueryException;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.QueryLanguage;
+import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.unifiedviews.dataunit.DataUnitException;
+import eu.unifiedviews.dataunit.MetadataDataUnit;
+import eu.unifiedviews.dataunit.WritableMetadataDataUnit;
+import eu.unifiedviews.helpers.dataunit.dataset.DatasetBuilder;
+
+/**
+ * Append-only log of metadata changes made during execution. Downstream consumers can read only changes
+ * made after a given checkpoint instead of scanning all the metadata.
+ *
+ * Changes are collected in memory and written on {@link #flush()} or {@link #close()}. Changes are not stored
+ * in the metadata graphs, but each metadata write graph has its own log graph, see {@link #getLogGraph(IRI)},
+ * so the log is not visible to metadata queries. Each change gets a sequence number, which is used as
+ * a checkpoint. Sequence numbers are increasing within a single metadata graph, so a consumer that reads
+ * metadata of several upstream data units keeps one checkpoint per graph, see
+ * {@link #getLastCheckpoints(MetadataDataUnit)}.
+ *
+ * Only one log can be open for a data unit at a time, so sequence numbers are never used twice. Entries added
+ * by the helpers in this library are recorded into the open log of the data unit, see
+ * {@link #recordEntryAdded(MetadataDataUnit, String)}.
+ *
+ * Sample usage:
+ * <pre>
+ * {@code
+ * // Producer.
+ * try (MetadataChangeLog log = MetadataChangeLog.create(writableDataUnit)) {
+ *     // Entry added is recorded by the helper.
+ *     FilesDataUnitUtils.addFile(writableDataUnit, file, "file.csv");
+ *     // Let the metadata helper record the metadata changes.
+ *     MetadataUtils.create(writableDataUnit).setChangeLog(log);
+ * }
+ * // Consumer, checkpoints are graph -> last processed sequence number.
+ * List<MetadataChangeLog.Change> changes = MetadataChangeLog.readSince(dataUnit, checkpoints);
+ * checkpoints = MetadataChangeLog.getLastCheckpoints(dataUnit);
+ * }
+ * </pre>
+ *
+ * Internal storage format of a change:
+ * <p><blockquote><pre>
+ * GRAPH &lt;writeGraph/changelog&gt; {
+ *   &lt;writeGraph/changelog/sequence&gt; &lt;{@value #PREDICATE_SEQUENCE}&gt; sequence
+ *   &lt;writeGraph/changelog/sequence&gt; &lt;{@value #PREDICATE_TYPE}&gt; "type"
+ *   &lt;writeGraph/changelog/sequence&gt; &lt;{@value #PREDICATE_ENTRY}&gt; "symbolic name"
+ *   &lt;writeGraph/changelog/sequence&gt; &lt;{@value #PREDICATE_PREDICATE}&gt; &lt;predicate&gt;
+ *   &lt;writeGraph/changelog/sequence&gt; &lt;{@value #PREDICATE_VALUE}&gt; "value"
+ * }
+ * </pre></blockquote></p>
+ */
+public class MetadataChangeLog implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MetadataChangeLog.class);
+
+    /**
+     * Value: {@value #PREDICATE_SEQUENCE}, sequence number of the change.
+     */
+    public static final String PREDICATE_SEQUENCE = "http://unifiedviews.eu/MetadataChangeLog/sequence";
+
+    /**
+     * Value: {@value #PREDICATE_TYPE}, type of the change, see {@link ChangeType}.
+     */
+    public static final String PREDICATE_TYPE = "http://unifiedviews.eu/MetadataChangeLog/type";
+
+    /**
+     * Value: {@value #PREDICATE_ENTRY}, symbolic name of changed entry.
+     */
+    public static final String PREDICATE_ENTRY = "http://unifiedviews.eu/MetadataChangeLog/entry";
+
+    /**
+     * Value: {@value #PREDICATE_PREDICATE}, changed predicate.
+     */
+    public static final String PREDICATE_PREDICATE = "http://unifiedviews.eu/MetadataChangeLog/predicate";
+
+    /**
+     * Value: {@value #PREDICATE_VALUE}, new value.
+     */
+    public static final String PREDICATE_VALUE = "http://unifiedviews.eu/MetadataChangeLog/value";
+
+    /**
+     * Checkpoint before the first change.
+     */
+    public static final long INITIAL_CHECKPOINT = 0;
+
+    /**
+     * Suffix of log graph name, see {@link #getLogGraph(IRI)}.
+     */
+    private static final String LOG_GRAPH_SUFFIX = "/changelog";
+
+    /**
+     * Used with VALUES block that binds ?graph, ?logGraph and ?checkpoint for every metadata graph.
+     */
+    private static final String SELECT_CHANGES
+            = "SELECT ?graph ?sequence ?type ?entry ?predicate ?value WHERE { "
+            + "%s "
+            + "GRAPH ?logGraph { "
+            + "?change <" + PREDICATE_SEQUENCE + "> ?sequence ; "
+            + "<" + PREDICATE_TYPE + "> ?type ; "
+            + "<" + PREDICATE_ENTRY + "> ?entry . "
+            + "OPTIONAL { ?change <" + PREDICATE_PREDICATE + "> ?predicate } "
+            + "OPTIONAL { ?change <" + PREDICATE_VALUE + "> ?value } "
+            + "} "
+            + "FILTER (?sequence > ?checkpoint) "
+            + "} ORDER BY ?graph ?sequence";
+
+    /**
+     * Used with VALUES block that binds ?graph and ?logGraph for every metadata graph.
+     */
+    private static final String SELECT_LAST
+            = "SELECT ?graph (MAX(?sequence) AS ?last) WHERE { "
+            + "%s "
+            + "GRAPH ?logGraph { ?change <" + PREDICATE_SEQUENCE + "> ?sequence } "
+            + "} GROUP BY ?graph";
+
+    /**
+     * Open log of each data unit, used to record entries added by helpers.
+     */
+    private static final Map<MetadataDataUnit, MetadataChangeLog> OPEN_LOGS = new WeakHashMap<>();
+
+    /**
+     * Type of recorded change.
+     */
+    public static enum ChangeType {
+        /**
+         * New entry was added into the data unit.
+         */
+        ENTRY_ADDED,
+        /**
+         * Value of predicate was set, replacing the old values.
+         */
+        PREDICATE_SET,
+        /**
+         * Value was added to the predicate.
+         */
+        PREDICATE_ADDED
+    }
+
+    /**
+     * Single recorded change.
+     */
+    public static class Change {
+
+        private final IRI graph;
+
+        private final long sequence;
+
+        private final ChangeType type;
+
+        private final String symbolicName;
+
+        private final IRI predicate;
+
+        private final String value;
+
+        public Change(IRI graph, long sequence, ChangeType type, String symbolicName, IRI predicate,
+                String value) {
+            this.graph = graph;
+            this.sequence = sequence;
+            this.type = type;
+            this.symbolicName = symbolicName;
+            this.predicate = predicate;
+            this.value = value;
+        }
+
+        /**
+         *
+         * @return Metadata graph the change was written into.
+         */
+        public IRI getGraph() {
+            return graph;
+        }
+
+        /**
+         *
+         * @return Sequence number, can be used as a checkpoint for {@link #getGraph()}.
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        public ChangeType getType() {
+            return type;
+        }
+
+        public String getSymbolicName() {
+            return symbolicName;
+        }
+
+        /**
+         *
+         * @return Null for {@link ChangeType#ENTRY_ADDED}.
+         */
+        public IRI getPredicate() {
+            return predicate;
+        }
+
+        /**
+         *
+         * @return Null for {@link ChangeType#ENTRY_ADDED}.
+         */
+        public String getValue() {
+            return value;
+        }
+
+    }
+
+    private final WritableMetadataDataUnit dataUnit;
+
+    private final IRI writeGraph;
+
+    private final IRI logGraph;
+
+    private final IRI sequencePredicate;
+
+    private final IRI typePredicate;
+
+    private final IRI entryPredicate;
+
+    private final IRI predicatePredicate;
+
+    private final IRI valuePredicate;
+
+    /**
+     * Changes that are not yet written.
+     */
+    private final List<Change> pending = new LinkedList<>();
+
+    /**
+     * Last used sequence number in {@link #writeGraph}.
+     */
+    private long sequence;
+
+    private MetadataChangeLog(WritableMetadataDataUnit dataUnit, IRI writeGraph, long sequence) {
+        final ValueFactory valueFactory = SimpleValueFactory.getInstance();
+        this.dataUnit = dataUnit;
+        this.writeGraph = writeGraph;
+        this.logGraph = getLogGraph(writeGraph);
+        this.sequence = sequence;
+        this.sequencePredicate = valueFactory.createIRI(PREDICATE_SEQUENCE);
+        this.typePredicate = valueFactory.createIRI(PREDICATE_TYPE);
+        this.entryPredicate = valueFactory.createIRI(PREDICATE_ENTRY);
+        this.predicatePredicate = valueFactory.createIRI(PREDICATE_PREDICATE);
+        this.valuePredicate = valueFactory.createIRI(PREDICATE_VALUE);
+    }
+
+    /**
+     * Create change log for given data unit. New changes follow the changes already stored in the log graph
+     * of the metadata write graph of the data unit.
+     *
+     * @param dataUnit
+     * @return Change log, do not forget to close it after using it.
+     * @throws DataUnitException If another log of the data unit is open.
+     */
+    public static MetadataChangeLog create(WritableMetadataDataUnit dataUnit) throws DataUnitException {
+        synchronized (OPEN_LOGS) {
+            if (OPEN_LOGS.containsKey(dataUnit)) {
+                throw new DataUnitException("Change log of the data unit is already open.");
+            }
+            final IRI writeGraph = dataUnit.getMetadataWriteGraphname();
+            final Long last = getLastCheckpoints(dataUnit, Collections.singleton(writeGraph)).get(writeGraph);
+            final MetadataChangeLog changeLog = new MetadataChangeLog(dataUnit, writeGraph,
+                    last == null ? INITIAL_CHECKPOINT : last);
+            OPEN_LOGS.put(dataUnit, changeLog);
+            return changeLog;
+        }
+    }
+
+    /**
+     * Record that an entry was added into given data unit, into the open log of the data unit if there is one.
+     * Should be called when a new entry is added into the data unit, this is done by all helpers in this library.
+     *
+     * @param dataUnit
+     * @param symbolicName
+     */
+    public static void recordEntryAdded(MetadataDataUnit dataUnit, String symbolicName) {
+        synchronized (OPEN_LOGS) {
+            final MetadataChangeLog changeLog = OPEN_LOGS.get(dataUnit);
+            if (changeLog != null) {
+                changeLog.entryAdded(symbolicName);
+            }
+        }
+    }
+
+    /**
+     *
+     * @param metadataGraph
+     * @return Graph with the change log of given metadata graph.
+     */
+    public static IRI getLogGraph(IRI metadataGraph) {
+        return SimpleValueFactory.getInstance().createIRI(metadataGraph.stringValue() + LOG_GRAPH_SUFFIX);
+    }
+
+    /**
+     *
+     * @param dataUnit
+     * @return Metadata graph -> sequence number of last change stored in the graph. Graphs without changes
+     *         are not included.
+     * @throws DataUnitException
+     */
+    public static Map<IRI, Long> getLastCheckpoints(MetadataDataUnit dataUnit) throws DataUnitException {
+        return getLastCheckpoints(dataUnit, dataUnit.getMetadataGraphnames());
+    }
+
+    /**
+     * Read changes recorded after given checkpoints.
+     *
+     * @param dataUnit
+     * @param checkpoints Metadata graph -> sequence number of last processed change. For graphs that are not
+     *                    in the map {@link #INITIAL_CHECKPOINT} is used.
+     * @return Changes ordered by graph and sequence number.
+     * @throws DataUnitException
+     */
+    public static List<Change> readSince(MetadataDataUnit dataUnit, Map<IRI, Long> checkpoints)
+            throws DataUnitException {
+        final Set<IRI> graphs = dataUnit.getMetadataGraphnames();
+        if (graphs.isEmpty()) {
+            return new ArrayList<>();
+        }
+        final StringBuilder values = new StringBuilder("VALUES (?graph ?logGraph ?checkpoint) {");
+        for (IRI graph : graphs) {
+            final Long checkpoint = checkpoints.get(graph);
+            values.append(" (<").append(graph.stringValue()).append("> <")
+                    .append(getLogGraph(graph).stringValue()).append("> ")
+                    .append(checkpoint == null ? INITIAL_CHECKPOINT : checkpoint).append(")");
+        }
+        values.append(" }");
+        final List<Change> changes = new ArrayList<>();
+        for (BindingSet binding : select(dataUnit, String.format(SELECT_CHANGES, values), graphs)) {
+            final Value predicate = binding.getValue("predicate");
+            final Value value = binding.getValue("value");
+            final ChangeType type;
+            try {
+                type = ChangeType.valueOf(binding.getValue("type").stringValue());
+            } catch (IllegalArgumentException ex) {
+                throw new DataUnitException("Unknown change type.", ex);
+            }
+            changes.add(new Change(
+                    (IRI) binding.getValue("graph"),
+                    Long.parseLong(binding.getValue("sequence").stringValue()),
+                    type,
+                    binding.getValue("entry").stringValue(),
+                    predicate instanceof IRI ? (IRI) predicate : null,
+                    value == null ? null : value.stringValue()));
+        }
+        return changes;
+    }
+
+    /**
+     * Record that an entry was added.
+     *
+     * @param symbolicName
+     * @return Sequence number of the change.
+     */
+    public long entryAdded(String symbolicName) {
+        return record(ChangeType.ENTRY_ADDED, symbolicName, null, null);
+    }
+
+    /**
+     * Record that a predicate was set.
+     *
+     * @param symbolicName
+     * @param predicate
+     * @param value
+     * @return Sequence number of the change.
+     */
+    public long predicateSet(String symbolicName, IRI predicate, String value) {
+        return record(ChangeType.PREDICATE_SET, symbolicName, predicate, value);
+    }
+
+    /**
+     * Record that a value was added to a predicate.
+     *
+     * @param symbolicName
+     * @param predicate
+     * @param value
+     * @return Sequence number of the change.
+     */
+    public long predicateAdded(String symbolicName, IRI predicate, String value) {
+        return record(ChangeType.PREDICATE_ADDED, symbolicName, predicate, value);
+    }
+
+    /**
+     * Write pending changes into the log graph in a single transaction.
+     *
+     * @throws DataUnitException
+     */
+    public synchronized void flush() throws DataUnitException {
+        if (pending.isEmpty()) {
+            return;
+        }
+        RepositoryConnection connection = null;
+        try {
+            connection = dataUnit.getConnection();
+            final ValueFactory valueFactory = connection.getValueFactory();
+            connection.begin();
+            for (Change change : pending) {
+                final IRI subject = valueFactory.createIRI(
+                        logGraph.stringValue() + "/" + change.getSequence());
+                connection.add(subject, sequencePredicate, valueFactory.createLiteral(change.getSequence()),
+                        logGraph);
+                connection.add(subject, typePredicate, valueFactory.createLiteral(change.getType().name()),
+                        logGraph);
+                connection.add(subject, entryPredicate, valueFactory.createLiteral(change.getSymbolicName()),
+                        logGraph);
+                if (change.getPredicate() != null) {
+                    connection.add(subject, predicatePredicate, change.getPredicate(), logGraph);
+                }
+                if (change.getValue() != null) {
+                    connection.add(subject, valuePredicate, valueFactory.createLiteral(change.getValue()),
+                            logGraph);
+                }
+            }
+            connection.commit();
+            pending.clear();
+        } catch (RepositoryException ex) {
+            if (connection != null) {
+                try {
+                    connection.rollback();
+                } catch (RepositoryException e) {
+                    LOG.warn("Rollback failed.", e);
+                }
+            }
+            throw new DataUnitException("Failed to write change log.", ex);
+        } finally {
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (RepositoryException ex) {
+                    LOG.warn("Error in close.", ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Flush pending changes. The log stops recording entries added by helpers.
+     *
+     * @throws DataUnitException
+     */
+    @Override
+    public void close() throws DataUnitException {
+        synchronized (OPEN_LOGS) {
+            if (OPEN_LOGS.get(dataUnit) == this) {
+                OPEN_LOGS.remove(dataUnit);
+            }
+        }
+        flush();
+    }
+
+    private synchronized long record(ChangeType type, String symbolicName, IRI predicate, String value) {
+        ++sequence;
+        pending.add(new Change(writeGraph, sequence, type, symbolicName, predicate, value));
+        return sequence;
+    }
+
+    /**
+     *
+     * @param dataUnit
+     * @param graphs
+     * @return Graph -> sequence number of last change stored in the graph.
+     * @throws DataUnitException
+     */
+    private static Map<IRI, Long> getLastCheckpoints(MetadataDataUnit dataUnit, Set<IRI> graphs)
+            throws DataUnitException {
+        final Map<IRI, Long> result = new HashMap<>();
+        if (graphs.isEmpty()) {
+            return result;
+        }
+        final StringBuilder values = new StringBuilder("VALUES (?graph ?logGraph) {");
+        for (IRI graph : graphs) {
+            values.append(" (<").append(graph.stringValue()).append("> <")
+                    .append(getLogGraph(graph).stringValue()).append(">)");
+        }
+        values.append(" }");
+        for (BindingSet binding : select(dataUnit, String.format(SELECT_LAST, values), graphs)) {
+            final Value graph = binding.getValue("graph");
+            final Value last = binding.getValue("last");
+            if (graph instanceof IRI && last != null) {
+                result.put((IRI) graph, Long.parseLong(last.stringValue()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Execute given query over log graphs of given metadata graphs, the log graphs are used as named graphs.
+     *
+     * @param dataUnit
+     * @param query
+     * @param graphs
+     * @return
+     * @throws DataUnitException
+     */
+    private static List<BindingSet> select(MetadataDataUnit dataUnit, String query, Set<IRI> graphs)
+            throws DataUnitException {
+        final List<BindingSet> result = new LinkedList<>();
+        if (graphs.isEmpty()) {
+            return result;
+        }
+        RepositoryConnection connection = null;
+        TupleQueryResult queryResult = null;
+        try {
+            connection = dataUnit.getConnection();
+            final TupleQuery tupleQuery = connection.prepareTupleQuery(QueryLanguage.SPARQL, query);
+            final Set<IRI> logGraphs = new HashSet<>();
+            for (IRI graph : graphs) {
+                logGraphs.add(getLogGraph(graph));
+            }
+            tupleQuery.setDataset(new DatasetBuilder().withNamedGraphs(logGraphs).build());
+            queryResult = tupleQuery.evaluate();
+            while (queryResult.hasNext()) {
+                result.add(queryResult.next());
+            }
+        } catch (MalformedQueryException | QueryEvaluationException | RepositoryException ex) {
+            throw new DataUnitException("Failed to read change log.", ex);
+        } finally {
+            if (queryResult != null) {
+                try {
+                    queryResult.close();
+                } catch (QueryEvaluationException ex) {
+                    LOG.warn("Error in close.", ex);
+                }
+            }
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (RepositoryException ex) {
+                    LOG.warn("Error in close.", ex);
+                }
+            }
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,362 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dataunit.metadata;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.MalformedQueryException;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.QueryLanguage;
+import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.unifiedviews.dataunit.DataUnitException;
+import eu.unifiedviews.dataunit.MetadataDataUnit;
+import eu.unifiedviews.helpers.dataunit.dataset.DatasetBuilder;
+
+/**
+ * Read-only index of a single metadata predicate (like virtual path or virtual graph) for all entries of
+ * a data unit. The index is loaded by a single query and provides lookup in both directions.
+ *
+ * Bindings are stored in sorted arrays and searched by binary search, so the index can be used with
+ * millions of entries. The index does not reflect later changes in the data unit.
+ *
+ * Sample usage:
+ * <pre>
+ * {@code
+ * MetadataIndex index = VirtualPathHelpers.createIndex(filesDataUnit);
+ * String virtualPath = index.get(symbolicName);
+ * List<String> symbolicNames = index.getSymbolicNames(virtualPath);
+ * }
+ * </pre>
+ */
+public class MetadataIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MetadataIndex.class);
+
+    private static final String SYMBOLIC_NAME_BINDING = "symbolicName";
+
+    private static final String PREDICATE_BINDING = "predicate";
+
+    private static final String VALUE_BINDING = "value";
+
+    private static final String SELECT_QUERY
+            = "SELECT ?" + SYMBOLIC_NAME_BINDING + " ?" + VALUE_BINDING + " WHERE { "
+            + "?s <" + MetadataVocabulary.UV_SYMBOLIC_NAME + "> ?" + SYMBOLIC_NAME_BINDING + " ;"
+            + "?" + PREDICATE_BINDING + " ?" + VALUE_BINDING + " . "
+            + "}";
+
+    /**
+     * Single binding, used only during construction.
+     */
+    private static class Binding {
+
+        private final String symbolicName;
+
+        private final String value;
+
+        Binding(String symbolicName, String value) {
+            this.symbolicName = symbolicName;
+            this.value = value;
+        }
+
+    }
+
+    private static final Comparator<Binding> BY_SYMBOLIC_NAME = new Comparator<Binding>() {
+
+        @Override
+        public int compare(Binding left, Binding right) {
+            return left.symbolicName.compareTo(right.symbolicName);
+        }
+    };
+
+    private static final Comparator<Binding> BY_VALUE = new Comparator<Binding>() {
+
+        @Override
+        public int compare(Binding left, Binding right) {
+            return left.value.compareTo(right.value);
+        }
+    };
+
+    /**
+     * Sorted array of keys, may contain duplicities, with values on the same positions.
+     */
+    private static class SortedArrayMap extends AbstractMap<String, String> {
+
+        private final String[] keys;
+
+        private final String[] values;
+
+        /**
+         * Number of distinct keys.
+         */
+        private final int size;
+
+        SortedArrayMap(String[] keys, String[] values) {
+            this.keys = keys;
+            this.values = values;
+            int distinct = 0;
+            for (int i = 0; i < keys.length; ++i) {
+                if (i == 0 || !keys[i].equals(keys[i - 1])) {
+                    ++distinct;
+                }
+            }
+            this.size = distinct;
+        }
+
+        /**
+         *
+         * @param key
+         * @return Index of the first occurrence of given key or -1.
+         */
+        int indexOf(Object key) {
+            if (!(key instanceof String)) {
+                return -1;
+            }
+            int index = Arrays.binarySearch(keys, (String) key);
+            if (index < 0) {
+                return -1;
+            }
+            while (index > 0 && keys[index - 1].equals(key)) {
+                --index;
+            }
+            return index;
+        }
+
+        @Override
+        public String get(Object key) {
+            final int index = indexOf(key);
+            return index < 0 ? null : values[index];
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return indexOf(key) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Set<Map.Entry<String, String>> entrySet() {
+            return new AbstractSet<Map.Entry<String, String>>() {
+
+                @Override
+                public Iterator<Map.Entry<String, String>> iterator() {
+                    return new Iterator<Map.Entry<String, String>>() {
+
+                        private int index = 0;
+
+                        @Override
+                        public boolean hasNext() {
+                            return index < keys.length;
+                        }
+
+                        @Override
+                        public Map.Entry<String, String> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            final Map.Entry<String, String> entry
+                                    = new AbstractMap.SimpleImmutableEntry<>(keys[index], values[index]);
+                            // Skip other values of the same key.
+                            do {
+                                ++index;
+                            } while (index < keys.length && keys[index].equals(keys[index - 1]));
+                            return entry;
+                        }
+
+                        @Override
+                        public void remove() {
+                            throw new UnsupportedOperationException();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+
+    }
+
+    /**
+     * Symbolic name -> value.
+     */
+    private final SortedArrayMap forward;
+
+    /**
+     * Value -> symbolic name.
+     */
+    private final SortedArrayMap reverse;
+
+    MetadataIndex(List<Binding> bindings) {
+        final Binding[] sorted = bindings.toArray(new Binding[bindings.size()]);
+        final String[] keys = new String[sorted.length];
+        final String[] values = new String[sorted.length];
+        // Forward index.
+        Arrays.sort(sorted, BY_SYMBOLIC_NAME);
+        for (int i = 0; i < sorted.length; ++i) {
+            keys[i] = sorted[i].symbolicName;
+            values[i] = sorted[i].value;
+        }
+        this.forward = new SortedArrayMap(keys, values);
+        // Reverse index, strings are shared with the forward index.
+        final String[] reverseKeys = new String[sorted.length];
+        final String[] reverseValues = new String[sorted.length];
+        Arrays.sort(sorted, BY_VALUE);
+        for (int i = 0; i < sorted.length; ++i) {
+            reverseKeys[i] = sorted[i].value;
+            reverseValues[i] = sorted[i].symbolicName;
+        }
+        this.reverse = new SortedArrayMap(reverseKeys, reverseValues);
+    }
+
+    /**
+     * Load index for given predicate. Opens and closes its own connection.
+     *
+     * @param dataUnit
+     * @param predicate
+     * @return
+     * @throws DataUnitException
+     */
+    public static MetadataIndex create(MetadataDataUnit dataUnit, IRI predicate) throws DataUnitException {
+        RepositoryConnection connection = null;
+        try {
+            connection = dataUnit.getConnection();
+            return create(dataUnit, predicate, connection);
+        } finally {
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (RepositoryException ex) {
+                    LOG.warn("Can't close connection.", ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Load index for given predicate using given connection.
+     *
+     * @param dataUnit
+     * @param predicate
+     * @param connection Connection into given data unit, is not closed.
+     * @return
+     * @throws DataUnitException
+     */
+    public static MetadataIndex create(MetadataDataUnit dataUnit, IRI predicate, RepositoryConnection connection)
+            throws DataUnitException {
+        final List<Binding> bindings = new ArrayList<>();
+        try {
+            final TupleQuery query = connection.prepareTupleQuery(QueryLanguage.SPARQL, SELECT_QUERY);
+            query.setBinding(PREDICATE_BINDING, predicate);
+            query.setDataset(new DatasetBuilder().withDefaultGraphs(dataUnit.getMetadataGraphnames()).build());
+            try (TupleQueryResult result = query.evaluate()) {
+                while (result.hasNext()) {
+                    final BindingSet bindingSet = result.next();
+                    bindings.add(new Binding(bindingSet.getValue(SYMBOLIC_NAME_BINDING).stringValue(),
+                            bindingSet.getValue(VALUE_BINDING).stringValue()));
+                }
+            }
+        } catch (MalformedQueryException | QueryEvaluationException | RepositoryException ex) {
+            throw new DataUnitException("Failed to load index for: " + predicate, ex);
+        }
+        return new MetadataIndex(bindings);
+    }
+
+    /**
+     *
+     * @param symbolicName
+     * @return Value for given symbolic name or null. If there are more values one of them is returned.
+     */
+    public String get(String symbolicName) {
+        return forward.get(symbolicName);
+    }
+
+    /**
+     *
+     * @param value
+     * @return Symbolic name with given value or null. If there are more symbolic names one of them is returned.
+     */
+    public String getSymbolicName(String value) {
+        return reverse.get(value);
+    }
+
+    /**
+     *
+     * @param value
+     * @return All symbolic names with given value.
+     */
+    public List<String> getSymbolicNames(String value) {
+        int index = reverse.indexOf(value);
+        if (index < 0) {
+            return Collections.emptyList();
+        }
+        final List<String> result = new ArrayList<>(1);
+        for (; index < reverse.keys.length && reverse.keys[index].equals(value); ++index) {
+            result.add(reverse.values[index]);
+        }
+        return result;
+    }
+
+    /**
+     *
+     * @return Number of symbolic names with a value.
+     */
+    public int size() {
+        return forward.size();
+    }
+
+    /**
+     *
+     * @return Read-only map view of symbolic name to value, sorted by symbolic names.
+     */
+    public Map<String, String> asMap() {
+        return forward;
+    }
+
+    /**
+     *
+     * @return Read-only map view of value to symbolic name, sorted by values. If more symbolic names share
+     *         the same value only one of them is in the map, see {@link #getSymbolicNames(String)}.
+     */
+    public Map<String, String> asReverseMap() {
+        return reverse;
+    }
+
+}
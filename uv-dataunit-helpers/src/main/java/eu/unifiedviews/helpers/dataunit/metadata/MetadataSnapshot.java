@@ -0,0 +1,234 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dataunit.metadata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.eclipse.rdf4j.repository.RepositoryResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.unifiedviews.dataunit.DataUnitException;
+import eu.unifiedviews.dataunit.MetadataDataUnit;
+import eu.unifiedviews.dpu.DPUException;
+
+/**
+ * Read-only, in-memory copy of all metadata stored in {@link MetadataDataUnit#getMetadataGraphnames()}.
+ *
+ * All metadata are loaded in a single pass over the metadata graphs, so this class should be used instead of
+ * {@link MetadataUtilsInstance} when metadata of many entries are read. Once loaded the snapshot does not see
+ * any further changes in the data unit.
+ *
+ * Sample usage:
+ * <pre>
+ * {@code
+ * MetadataSnapshot snapshot = MetadataUtils.createSnapshot(filesDataUnit);
+ * for (FilesDataUnit.Entry entry : entries) {
+ *     Value virtualPath = snapshot.getFirst(entry.getSymbolicName(), FilesVocabulary.UV_VIRTUAL_PATH);
+ * }
+ * }
+ * </pre>
+ */
+public class MetadataSnapshot {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MetadataSnapshot.class);
+
+    /**
+     * Subject -> predicate -> objects, for all loaded triples.
+     */
+    private final Map<Resource, Map<IRI, List<Value>>> subjects = new HashMap<>();
+
+    /**
+     * Symbolic name -> predicate -> objects. Values for entries with single subject are shared with
+     * {@link #subjects}.
+     */
+    private final Map<String, Map<IRI, List<Value>>> entries = new HashMap<>();
+
+    /**
+     * Load metadata from given graphs. Given connection is not closed.
+     *
+     * @param connection
+     * @param readGraphs
+     * @throws DataUnitException
+     */
+    MetadataSnapshot(RepositoryConnection connection, Set<IRI> readGraphs) throws DataUnitException {
+        if (readGraphs.isEmpty()) {
+            // Empty contexts would mean the whole repository.
+            return;
+        }
+        RepositoryResult<Statement> result = null;
+        try {
+            result = connection.getStatements(null, null, null, false,
+                    readGraphs.toArray(new Resource[readGraphs.size()]));
+            while (result.hasNext()) {
+                final Statement statement = result.next();
+                Map<IRI, List<Value>> predicates = subjects.get(statement.getSubject());
+                if (predicates == null) {
+                    predicates = new HashMap<>();
+                    subjects.put(statement.getSubject(), predicates);
+                }
+                List<Value> objects = predicates.get(statement.getPredicate());
+                if (objects == null) {
+                    objects = new ArrayList<>(2);
+                    predicates.put(statement.getPredicate(), objects);
+                }
+                objects.add(statement.getObject());
+            }
+        } catch (RepositoryException ex) {
+            throw new DataUnitException("Failed to load metadata.", ex);
+        } finally {
+            if (result != null) {
+                try {
+                    result.close();
+                } catch (RepositoryException ex) {
+                    LOG.warn("Error in close.", ex);
+                }
+            }
+        }
+        // Build the symbolic name index.
+        for (Map<IRI, List<Value>> predicates : subjects.values()) {
+            final List<Value> names = predicates.get(MetadataVocabulary.UV_SYMBOLIC_NAME);
+            if (names == null) {
+                continue;
+            }
+            for (Value name : names) {
+                final Map<IRI, List<Value>> current = entries.get(name.stringValue());
+                if (current == null) {
+                    entries.put(name.stringValue(), predicates);
+                } else {
+                    // More subjects share the same symbolic name, merge them into a new map.
+                    final Map<IRI, List<Value>> merged = new HashMap<>();
+                    merge(merged, current);
+                    merge(merged, predicates);
+                    entries.put(name.stringValue(), merged);
+                }
+            }
+        }
+    }
+
+    /**
+     *
+     * @return Symbolic names of all entries in the snapshot.
+     */
+    public Set<String> getSymbolicNames() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    /**
+     *
+     * @param symbolicName
+     * @return True if there is an entry with given symbolic name.
+     */
+    public boolean contains(String symbolicName) {
+        return entries.containsKey(symbolicName);
+    }
+
+    /**
+     * Get a value stored under given predicate and symbolicName.
+     *
+     * If more values are stored under given predicate then one of them is returned.
+     *
+     * @param symbolicName
+     * @param predicate
+     * @return Null if there is no such value.
+     */
+    public Value getFirst(String symbolicName, IRI predicate) {
+        final List<Value> values = getAll(symbolicName, predicate);
+        if (values.isEmpty()) {
+            return null;
+        } else {
+            return values.get(0);
+        }
+    }
+
+    /**
+     * Get a value stored under given predicate and symbolicName.
+     *
+     * @param symbolicName
+     * @param predicate
+     * @return Null if there is no such value.
+     * @throws DPUException If more then one value is found for given predicate and symbolicName.
+     */
+    public Value get(String symbolicName, IRI predicate) throws DPUException {
+        final List<Value> values = getAll(symbolicName, predicate);
+        if (values.isEmpty()) {
+            return null;
+        } else if (values.size() > 1) {
+            throw new DPUException("More then one value found for predicate: " + predicate.stringValue());
+        } else {
+            return values.get(0);
+        }
+    }
+
+    /**
+     * Get all values stored under given predicate and symbolicName.
+     *
+     * @param symbolicName
+     * @param predicate
+     * @return Never null.
+     */
+    public List<Value> getAll(String symbolicName, IRI predicate) {
+        return select(entries.get(symbolicName), predicate);
+    }
+
+    /**
+     * Get all values stored under given predicate for given subject. Can be used to traverse
+     * structured metadata (like maps).
+     *
+     * @param subject
+     * @param predicate
+     * @return Never null.
+     */
+    public List<Value> getAll(Resource subject, IRI predicate) {
+        return select(subjects.get(subject), predicate);
+    }
+
+    private static List<Value> select(Map<IRI, List<Value>> predicates, IRI predicate) {
+        if (predicates == null) {
+            return Collections.emptyList();
+        }
+        final List<Value> values = predicates.get(predicate);
+        if (values == null) {
+            return Collections.emptyList();
+        } else {
+            return Collections.unmodifiableList(values);
+        }
+    }
+
+    private static void merge(Map<IRI, List<Value>> target, Map<IRI, List<Value>> source) {
+        for (Map.Entry<IRI, List<Value>> item : source.entrySet()) {
+            List<Value> values = target.get(item.getKey());
+            if (values == null) {
+                values = new ArrayList<>(item.getValue().size());
+                target.put(item.getKey(), values);
+            }
+            values.addAll(item.getValue());
+        }
+    }
+
+}
@@ -23,6 +23,9 @@ import eu.unifiedviews.dataunit.DataUnitException;
 import eu.unifiedviews.dataunit.MetadataDataUnit;
 import eu.unifiedviews.dataunit.WritableMetadataDataUnit;
 import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import eu.unifiedviews.dpu.DPUException;
 
@@ -44,6 +47,8 @@ import eu.unifiedviews.dpu.DPUException;
  */
 public class MetadataUtils {
 
+    private static final Logger LOG = LoggerFactory.getLogger(MetadataUtils.class);
+
     private MetadataUtils() {
 
     }
@@ -77,6 +82,26 @@ public class MetadataUtils {
                 dataUnit.getMetadataWriteGraphname(), null, true);
     }
 
+    /**
+     * Close must be called on returned class after usage. Also before first usage, symbolic name must be set.
+     *
+     * @param dataUnit
+     * @param buffered If true then changes are collected in memory and written in a single transaction
+     *                 on {@link WritableMetadataUtilsInstance#flush()} or {@link WritableMetadataUtilsInstance#close()}.
+     * @return
+     * @throws DataUnitException
+     */
+    public static WritableMetadataUtilsInstance create(WritableMetadataDataUnit dataUnit, boolean buffered)
+            throws DataUnitException {
+        final WritableMetadataUtilsInstance instance = new WritableMetadataUtilsInstance(dataUnit.getConnection(),
+                dataUnit.getMetadataGraphnames(),
+                dataUnit.getMetadataWriteGraphname(), null, true, buffered);
+        if (buffered) {
+            instance.setResolver(SymbolicNameResolver.get(dataUnit));
+        }
+        return instance;
+    }
+
     /**
      * Close must be called on returned class after usage.
      *
@@ -165,6 +190,64 @@ public class MetadataUtils {
                 dataUnit.getMetadataWriteGraphname(), symbolicName, false);
     }
 
+    /**
+     *
+     * Does not close given connection.
+     *
+     * @param dataUnit
+     * @param symbolicName
+     * @param connection
+     * @param buffered     If true then changes are collected in memory and written in a single transaction
+     *                     on {@link WritableMetadataUtilsInstance#flush()} or {@link WritableMetadataUtilsInstance#close()}.
+     * @return
+     * @throws DataUnitException
+     */
+    public static WritableMetadataUtilsInstance create(WritableMetadataDataUnit dataUnit, String symbolicName,
+            RepositoryConnection connection, boolean buffered) throws DataUnitException {
+        final WritableMetadataUtilsInstance instance = new WritableMetadataUtilsInstance(connection,
+                dataUnit.getMetadataGraphnames(),
+                dataUnit.getMetadataWriteGraphname(), symbolicName, false, buffered);
+        if (buffered) {
+            instance.setResolver(SymbolicNameResolver.get(dataUnit));
+        }
+        return instance;
+    }
+
+    /**
+     * Load all metadata from given data unit into memory. Use this to read metadata of many entries.
+     *
+     * @param dataUnit
+     * @return
+     * @throws DataUnitException
+     */
+    public static MetadataSnapshot createSnapshot(MetadataDataUnit dataUnit) throws DataUnitException {
+        final RepositoryConnection connection = dataUnit.getConnection();
+        try {
+            return new MetadataSnapshot(connection, dataUnit.getMetadataGraphnames());
+        } finally {
+            try {
+                connection.close();
+            } catch (RepositoryException ex) {
+                LOG.warn("Connection.close failed.", ex);
+            }
+        }
+    }
+
+    /**
+     * Load all metadata from given data unit into memory. Use this to read metadata of many entries.
+     *
+     * Does not close given connection.
+     *
+     * @param dataUnit
+     * @param connection
+     * @return
+     * @throws DataUnitException
+     */
+    public static MetadataSnapshot createSnapshot(MetadataDataUnit dataUnit, RepositoryConnection connection)
+            throws DataUnitException {
+        return new MetadataSnapshot(connection, dataUnit.getMetadataGraphnames());
+    }
+
     /**
      * Get a string stored under given predicate and symbolicName.
      * 
@@ -21,6 +21,7 @@ import java.util.List;
 import java.util.Set;
 
 import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Value;
 import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.query.*;
@@ -106,6 +107,27 @@ public class MetadataUtilsInstance<THIS extends MetadataUtilsInstance> implement
      */
     protected final String datasetFromClause;
 
+    /**
+     * Read graphs.
+     */
+    protected final Resource[] readGraphs;
+
+    /**
+     * If set then symbolic names are resolved by this resolver and values are read directly from the
+     * resolved subjects.
+     */
+    protected SymbolicNameResolver resolver = null;
+
+    /**
+     * True if {@link #dataset} is used, resolved once in constructor.
+     */
+    private final boolean useDataset;
+
+    /**
+     * Prepared {@link #SELECT_QUERY}, created on first use and reused for the lifetime of this instance.
+     */
+    private TupleQuery selectQuery = null;
+
     /**
      *
      * @param connection
@@ -119,8 +141,10 @@ public class MetadataUtilsInstance<THIS extends MetadataUtilsInstance> implement
         this.connection = connection;
         this.symbolicName = symbolicName;
         this.closeConnectionOnClose = closeConnectionOnClose;
+        this.useDataset = System.getProperty(ENV_PROP_VIRTUOSO) == null;
+        this.readGraphs = readGraph.toArray(new Resource[readGraph.size()]);
         // Add read graphs.
-        if (useDataset()) {
+        if (useDataset) {
             this.dataset = new SimpleDataset();
             for (IRI uri : readGraph) {
                 this.dataset.addDefaultGraph(uri);
@@ -165,6 +189,8 @@ public class MetadataUtilsInstance<THIS extends MetadataUtilsInstance> implement
         }
         this.connection = newConnection;
         this.closeConnectionOnClose = false;
+        // Prepared queries are bound to the old connection.
+        clearPreparedQueries();
     }
 
     /**
@@ -177,37 +203,35 @@ public class MetadataUtilsInstance<THIS extends MetadataUtilsInstance> implement
      * @throws DataUnitException
      */
     public Value getFirst(IRI predicate) throws DataUnitException {
-        try {
-            final TupleQueryResult result = executeSelectQuery(predicate);
+        try (MetadataValues values = getValues(predicate)) {
             // Return first result.
-            if (result.hasNext()) {
-                return result.next().getBinding(OBJECT_BINDING).getValue();
+            if (values.hasNext()) {
+                return values.next();
             } else {
                 // No value is presented.
                 return null;
             }
-        } catch (MalformedQueryException | QueryEvaluationException | RepositoryException ex) {
+        } catch (QueryEvaluationException | RepositoryException ex) {
             throw new DataUnitException("Failed to execute get-query.", ex);
         }
     }
 
     public Value get(IRI predicate) throws DataUnitException, DPUException {
-        try {
-            final TupleQueryResult result = executeSelectQuery(predicate);
+        try (MetadataValues values = getValues(predicate)) {
             // Return first result.
             final Value resultValue;
-            if (result.hasNext()) {
-                resultValue =  result.next().getBinding(OBJECT_BINDING).getValue();
+            if (values.hasNext()) {
+                resultValue = values.next();
             } else {
                 // No value is presented.
                 return null;
             }
-            if (result.hasNext()) {
+            if (values.hasNext()) {
                 // Second result .. 
                 throw new DPUException("More then one value found for predicate: " + predicate.stringValue());
             }
             return resultValue;
-        } catch (MalformedQueryException | QueryEvaluationException | RepositoryException ex) {
+        } catch (QueryEvaluationException | RepositoryException ex) {
             throw new DataUnitException("Failed to execute get-query.", ex);
         }        
     }
@@ -220,14 +244,34 @@ public class MetadataUtilsInstance<THIS extends MetadataUtilsInstance> implement
      * @throws DataUnitException
      */
     public List<Value> getAll(IRI predicate) throws DataUnitException {
-        try {
-            final TupleQueryResult result = executeSelectQuery(predicate);
+        try (MetadataValues values = getValues(predicate)) {
             // Dump result list.
             final List<Value> resultList = new LinkedList<>();
-            while (result.hasNext()) {
-                resultList.add(result.next().getBinding(OBJECT_BINDING).getValue());
+            while (values.hasNext()) {
+                resultList.add(values.next());
             }
             return resultList;
+        } catch (QueryEvaluationException | RepositoryException ex) {
+            throw new DataUnitException("Failed to execute get-query.", ex);
+        }
+    }
+
+    /**
+     * Get lazily evaluated values stored under given predicate. For metadata under current {@link #symbolicName}.
+     * Use this instead of {@link #getAll(IRI)} for predicates with many values.
+     *
+     * Returned object must be closed after usage.
+     *
+     * @param predicate
+     * @return
+     * @throws DataUnitException
+     */
+    public MetadataValues getValues(IRI predicate) throws DataUnitException {
+        if (resolver != null) {
+            return new MetadataValues(connection, resolver.resolve(connection, symbolicName), predicate, readGraphs);
+        }
+        try {
+            return new MetadataValues(executeSelectQuery(predicate), OBJECT_BINDING);
         } catch (MalformedQueryException | QueryEvaluationException | RepositoryException ex) {
             throw new DataUnitException("Failed to execute get-query.", ex);
         }
@@ -261,6 +305,19 @@ public class MetadataUtilsInstance<THIS extends MetadataUtilsInstance> implement
     }
 
 
+    /**
+     * Use given resolver to resolve symbolic names into subjects. Values are then read directly by
+     * {@link RepositoryConnection#getStatements(Resource, IRI, Value, boolean, Resource...)} instead of a query.
+     *
+     * @param resolver Resolver for the data unit of this instance, or null to use queries.
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public THIS setResolver(SymbolicNameResolver resolver) {
+        this.resolver = resolver;
+        return (THIS)this;
+    }
+
     @Override
     public void close() throws DataUnitException {
         if (closeConnectionOnClose) {
@@ -277,7 +334,14 @@ public class MetadataUtilsInstance<THIS extends MetadataUtilsInstance> implement
      * @return True if we should use DataSet class.
      */
     protected final boolean useDataset() {
-        return System.getProperty(ENV_PROP_VIRTUOSO) == null;
+        return useDataset;
+    }
+
+    /**
+     * Drop all prepared queries, so they are prepared again with current {@link #connection}.
+     */
+    protected void clearPreparedQueries() {
+        selectQuery = null;
     }
 
     /**
@@ -291,22 +355,20 @@ public class MetadataUtilsInstance<THIS extends MetadataUtilsInstance> implement
      */
     private TupleQueryResult executeSelectQuery(IRI predicate) throws RepositoryException, MalformedQueryException, QueryEvaluationException {
         final ValueFactory valueFactory = connection.getValueFactory();
-        // Prepare query. Add clause if dataset is not used.
-        final String query;
-        if (useDataset()) {
-            query = String.format(SELECT_QUERY, "");
-        } else {
-            query = String.format(SELECT_QUERY, datasetUsingClause);
-        }            
-        final TupleQuery tupleQuery = connection.prepareTupleQuery(QueryLanguage.SPARQL, query);            
-        tupleQuery.setBinding(SYMBOLIC_NAME_BINDING, valueFactory.createLiteral(symbolicName));
-        tupleQuery.setBinding(PREDICATE_BINDING, predicate);
-        // Use dataset if set.
-        if (useDataset()) {
-            tupleQuery.setDataset(dataset);
+        if (selectQuery == null) {
+            // Prepare query. Add clause if dataset is not used.
+            if (useDataset) {
+                selectQuery = connection.prepareTupleQuery(QueryLanguage.SPARQL, String.format(SELECT_QUERY, ""));
+                selectQuery.setDataset(dataset);
+            } else {
+                selectQuery = connection.prepareTupleQuery(QueryLanguage.SPARQL,
+                        String.format(SELECT_QUERY, datasetUsingClause));
+            }
         }
+        selectQuery.setBinding(SYMBOLIC_NAME_BINDING, valueFactory.createLiteral(symbolicName));
+        selectQuery.setBinding(PREDICATE_BINDING, predicate);
         // Evaluate and return tuple query result.
-        return tupleQuery.evaluate();
+        return selectQuery.evaluate();
     }
 
 }
@@ -0,0 +1,191 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dataunit.metadata;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.eclipse.rdf4j.repository.RepositoryResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lazily evaluated values of a single predicate, see {@link MetadataUtilsInstance#getValues(IRI)}.
+ *
+ * Values are read from the underlying result as they are requested, so the memory used does not depend
+ * on the number of values. Must be closed after usage to release the underlying result.
+ *
+ * Sample usage:
+ * <pre>
+ * {@code
+ * try (MetadataValues values = instance.getValues(predicate)) {
+ *     while (values.hasNext()) {
+ *         Value value = values.next();
+ *     }
+ * }
+ * }
+ * </pre>
+ *
+ * Iteration methods may throw {@link QueryEvaluationException} or {@link RepositoryException}.
+ */
+public class MetadataValues implements Iterator<Value>, AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MetadataValues.class);
+
+    /**
+     * Name of binding with value, used if reading from {@link #queryResult}.
+     */
+    private final String binding;
+
+    /**
+     * Query result to read from, null if values are read from resolved subjects.
+     */
+    private TupleQueryResult queryResult;
+
+    private final RepositoryConnection connection;
+
+    private final Iterator<Resource> subjects;
+
+    private final IRI predicate;
+
+    private final Resource[] graphs;
+
+    /**
+     * Result for current subject.
+     */
+    private RepositoryResult<Statement> statements = null;
+
+    private boolean closed = false;
+
+    /**
+     * Read values of given binding from query result.
+     *
+     * @param queryResult
+     * @param binding
+     */
+    MetadataValues(TupleQueryResult queryResult, String binding) {
+        this.queryResult = queryResult;
+        this.binding = binding;
+        this.connection = null;
+        this.subjects = null;
+        this.predicate = null;
+        this.graphs = null;
+    }
+
+    /**
+     * Read values of given predicate for all given subjects.
+     *
+     * @param connection
+     * @param subjects
+     * @param predicate
+     * @param graphs
+     */
+    MetadataValues(RepositoryConnection connection, List<Resource> subjects, IRI predicate, Resource[] graphs) {
+        this.queryResult = null;
+        this.binding = null;
+        this.connection = connection;
+        this.subjects = subjects.iterator();
+        this.predicate = predicate;
+        this.graphs = graphs;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) {
+            return false;
+        }
+        if (queryResult != null) {
+            return queryResult.hasNext();
+        }
+        while (statements == null || !statements.hasNext()) {
+            if (statements != null) {
+                statements.close();
+                statements = null;
+            }
+            if (graphs.length == 0 || !subjects.hasNext()) {
+                return false;
+            }
+            statements = connection.getStatements(subjects.next(), predicate, null, false, graphs);
+        }
+        return true;
+    }
+
+    @Override
+    public Value next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        if (queryResult != null) {
+            return queryResult.next().getBinding(binding).getValue();
+        } else {
+            return statements.next().getObject();
+        }
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Metadata values are read only.");
+    }
+
+    /**
+     * Returned stream closes this object when closed.
+     *
+     * @return Stream view of the values.
+     */
+    public Stream<Value> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+                Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        close();
+                    }
+                });
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (queryResult != null) {
+                queryResult.close();
+            }
+            if (statements != null) {
+                statements.close();
+            }
+        } catch (QueryEvaluationException | RepositoryException ex) {
+            LOG.warn("Error in close.", ex);
+        }
+    }
+
+}
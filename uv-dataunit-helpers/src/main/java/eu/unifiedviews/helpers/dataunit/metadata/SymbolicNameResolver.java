@@ -0,0 +1,192 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dataunit.metadata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.eclipse.rdf4j.repository.RepositoryResult;
+
+import eu.unifiedviews.dataunit.DataUnitException;
+import eu.unifiedviews.dataunit.MetadataDataUnit;
+
+/**
+ * Resolve symbolic name into the entry subject(s) in metadata graphs of a single {@link MetadataDataUnit}.
+ *
+ * Resolved subjects are cached (with LRU eviction), so the metadata can be accessed by direct
+ * {@code getStatements(subject, predicate, null, graphs)} calls instead of joining on the symbolic name
+ * in every query. Only successful resolutions are cached.
+ *
+ * A single instance is shared for each data unit, see {@link #get(MetadataDataUnit)}. Code that adds entries
+ * into data unit should call {@link #invalidate(MetadataDataUnit, String)}.
+ *
+ * Sample usage:
+ * <pre>
+ * {@code
+ * MetadataUtilsInstance instance = MetadataUtils.create(dataUnit);
+ * instance.setResolver(SymbolicNameResolver.get(dataUnit));
+ * }
+ * </pre>
+ */
+public class SymbolicNameResolver {
+
+    /**
+     * Default maximum number of cached symbolic names.
+     */
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    /**
+     * Shared resolvers for data units.
+     */
+    private static final Map<MetadataDataUnit, SymbolicNameResolver> RESOLVERS = new WeakHashMap<>();
+
+    /**
+     * Metadata graphs of the data unit.
+     */
+    private final Resource[] graphs;
+
+    /**
+     * Symbolic name -> subjects, in access order.
+     */
+    private final Map<String, List<Resource>> cache;
+
+    /**
+     *
+     * @param graphs   Metadata graphs.
+     * @param capacity Maximum number of cached symbolic names.
+     */
+    public SymbolicNameResolver(Set<IRI> graphs, final int capacity) {
+        this.graphs = graphs.toArray(new Resource[graphs.size()]);
+        this.cache = new LinkedHashMap<String, List<Resource>>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<Resource>> eldest) {
+                return size() > capacity;
+            }
+
+        };
+    }
+
+    /**
+     *
+     * @param dataUnit
+     * @return Shared resolver for given data unit.
+     * @throws DataUnitException
+     */
+    public static SymbolicNameResolver get(MetadataDataUnit dataUnit) throws DataUnitException {
+        synchronized (RESOLVERS) {
+            SymbolicNameResolver resolver = RESOLVERS.get(dataUnit);
+            if (resolver == null) {
+                resolver = new SymbolicNameResolver(dataUnit.getMetadataGraphnames(), DEFAULT_CAPACITY);
+                RESOLVERS.put(dataUnit, resolver);
+            }
+            return resolver;
+        }
+    }
+
+    /**
+     * Invalidate cached record for given symbolic name in shared resolver of given data unit. Should be called
+     * when a new entry is added into the data unit.
+     *
+     * @param dataUnit
+     * @param symbolicName
+     */
+    public static void invalidate(MetadataDataUnit dataUnit, String symbolicName) {
+        final SymbolicNameResolver resolver;
+        synchronized (RESOLVERS) {
+            resolver = RESOLVERS.get(dataUnit);
+        }
+        if (resolver != null) {
+            resolver.invalidate(symbolicName);
+        }
+    }
+
+    /**
+     * Resolve symbolic name into subjects. Given connection is not closed.
+     *
+     * @param connection
+     * @param symbolicName
+     * @return Subjects with given symbolic name, empty list if there is no such entry.
+     * @throws DataUnitException
+     */
+    public List<Resource> resolve(RepositoryConnection connection, String symbolicName) throws DataUnitException {
+        synchronized (cache) {
+            final List<Resource> cached = cache.get(symbolicName);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        if (graphs.length == 0) {
+            // Empty contexts would mean the whole repository.
+            return Collections.emptyList();
+        }
+        final List<Resource> subjects = new ArrayList<>(1);
+        try {
+            final RepositoryResult<Statement> result = connection.getStatements(null,
+                    MetadataVocabulary.UV_SYMBOLIC_NAME, connection.getValueFactory().createLiteral(symbolicName),
+                    false, graphs);
+            try {
+                while (result.hasNext()) {
+                    subjects.add(result.next().getSubject());
+                }
+            } finally {
+                result.close();
+            }
+        } catch (RepositoryException ex) {
+            throw new DataUnitException("Failed to resolve symbolic name: " + symbolicName, ex);
+        }
+        if (subjects.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final List<Resource> resolved = Collections.unmodifiableList(subjects);
+        synchronized (cache) {
+            cache.put(symbolicName, resolved);
+        }
+        return resolved;
+    }
+
+    /**
+     * Remove cached record for given symbolic name.
+     *
+     * @param symbolicName
+     */
+    public void invalidate(String symbolicName) {
+        synchronized (cache) {
+            cache.remove(symbolicName);
+        }
+    }
+
+    /**
+     * Remove all cached records.
+     */
+    public void invalidateAll() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+}
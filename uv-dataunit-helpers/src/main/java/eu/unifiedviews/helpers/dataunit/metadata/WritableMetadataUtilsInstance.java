@@ -17,12 +17,22 @@
 package eu.unifiedviews.helpers.dataunit.metadata;
 
 import eu.unifiedviews.dataunit.DataUnitException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.query.*;
 import org.eclipse.rdf4j.repository.RepositoryConnection;
 import org.eclipse.rdf4j.repository.RepositoryException;
+import org.eclipse.rdf4j.repository.RepositoryResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Manipulator for writing metadata.
@@ -36,10 +46,31 @@ import org.eclipse.rdf4j.repository.RepositoryException;
  * }
  * </pre>
  *
+ * In buffered mode (see {@link MetadataUtils#create(WritableMetadataDataUnit, boolean)}) the changes are only recorded
+ * and they are written in a single transaction on {@link #flush()} or {@link #close()}. Repeated set on the same
+ * symbolic name and predicate are collapsed into one. Pending changes are not visible to get methods and are not
+ * recorded into the change log until flushed.
+ *
  * @author Škoda Petr
  */
 public class WritableMetadataUtilsInstance extends MetadataUtilsInstance<WritableMetadataUtilsInstance> {
 
+    private static final Logger LOG = LoggerFactory.getLogger(WritableMetadataUtilsInstance.class);
+
+    /**
+     * Pending changes for a single symbolic name and predicate.
+     */
+    private static class PendingValues {
+
+        /**
+         * If true then the existing values are removed before the {@link #values} are added.
+         */
+        boolean replace = false;
+
+        final List<String> values = new LinkedList<>();
+
+    }
+
     /**
      * %s - with clause
      * %s - using clause
@@ -67,9 +98,51 @@ public class WritableMetadataUtilsInstance extends MetadataUtilsInstance<Writabl
      */
     private final String datasetWithClause;
 
+    /**
+     * Prepared {@link #INSERT_QUERY}, created on first use.
+     */
+    private Update insertUpdate = null;
+
+    /**
+     * Prepared {@link #UPDATE_QUERY}, created on first use.
+     */
+    private Update setUpdate = null;
+
+    /**
+     * Graph where the metadata are written.
+     */
+    private final IRI writeGraph;
+
+    /**
+     * Pending changes, symbolic name -> predicate -> values. Null if buffered mode is not used.
+     */
+    private final Map<String, Map<IRI, PendingValues>> pending;
+
+    /**
+     * If set then all changes are recorded into this log.
+     */
+    private MetadataChangeLog changeLog = null;
+
     WritableMetadataUtilsInstance(RepositoryConnection connection, Set<IRI> readGraphs, IRI writeGraph,
             String symbolicName, boolean closeConnectionOnClose) throws DataUnitException {
+        this(connection, readGraphs, writeGraph, symbolicName, closeConnectionOnClose, false);
+    }
+
+    /**
+     *
+     * @param connection
+     * @param readGraphs
+     * @param writeGraph
+     * @param symbolicName
+     * @param closeConnectionOnClose
+     * @param buffered               If true then changes are written only on {@link #flush()} or {@link #close()}.
+     * @throws DataUnitException
+     */
+    WritableMetadataUtilsInstance(RepositoryConnection connection, Set<IRI> readGraphs, IRI writeGraph,
+            String symbolicName, boolean closeConnectionOnClose, boolean buffered) throws DataUnitException {
         super(connection, readGraphs, symbolicName, closeConnectionOnClose);
+        this.writeGraph = writeGraph;
+        this.pending = buffered ? new LinkedHashMap<String, Map<IRI, PendingValues>>() : null;
         if (useDataset()) {
             this.dataset.setDefaultInsertGraph(writeGraph);
             this.dataset.addDefaultRemoveGraph(writeGraph);
@@ -93,25 +166,21 @@ public class WritableMetadataUtilsInstance extends MetadataUtilsInstance<Writabl
      * @throws DataUnitException
      */
     public WritableMetadataUtilsInstance add(IRI predicate, String value) throws DataUnitException {
+        if (pending != null) {
+            getPending(predicate).values.add(value);
+            return this;
+        }
         try {
-            final String query;
-            if (useDataset()) {
-                query = String.format(INSERT_QUERY, "", "");
-            } else {
-                query = String.format(INSERT_QUERY, datasetWithClause, datasetUsingClause);
+            if (insertUpdate == null) {
+                insertUpdate = prepareUpdate(INSERT_QUERY);
             }
-            final ValueFactory valueFactory = connection.getValueFactory();
-            final Update update = connection.prepareUpdate(QueryLanguage.SPARQL, query);
-            update.setBinding(SYMBOLIC_NAME_BINDING, valueFactory.createLiteral(symbolicName));
-            update.setBinding(PREDICATE_BINDING, predicate);
-            update.setBinding(OBJECT_BINDING, valueFactory.createLiteral(value));
-            if (useDataset()) {
-                update.setDataset(dataset);
-            }
-            update.execute();
+            executeUpdate(insertUpdate, predicate, value);
         } catch (MalformedQueryException | RepositoryException | UpdateExecutionException ex) {
             throw new DataUnitException("Failed to execute update.", ex);
         }
+        if (changeLog != null) {
+            changeLog.predicateAdded(symbolicName, predicate, value);
+        }
         return this;
     }
 
@@ -129,26 +198,224 @@ public class WritableMetadataUtilsInstance extends MetadataUtilsInstance<Writabl
      * @throws DataUnitException
      */
     public WritableMetadataUtilsInstance set(IRI predicate, String value) throws DataUnitException {
+        if (pending != null) {
+            final PendingValues pendingValues = getPending(predicate);
+            pendingValues.replace = true;
+            pendingValues.values.clear();
+            pendingValues.values.add(value);
+            return this;
+        }
         try {
-            final String query;
-            if (useDataset()) {
-                query = String.format(UPDATE_QUERY, "", "");
-            } else {
-                query = String.format(UPDATE_QUERY, datasetWithClause, datasetUsingClause);
-            }
-            final ValueFactory valueFactory = connection.getValueFactory();
-            final Update update = connection.prepareUpdate(QueryLanguage.SPARQL, query);
-            update.setBinding(SYMBOLIC_NAME_BINDING, valueFactory.createLiteral(symbolicName));
-            update.setBinding(PREDICATE_BINDING, predicate);
-            update.setBinding(OBJECT_BINDING, valueFactory.createLiteral(value));
-            if (useDataset()) {
-                update.setDataset(dataset);
+            if (setUpdate == null) {
+                setUpdate = prepareUpdate(UPDATE_QUERY);
             }
-            update.execute();
+            executeUpdate(setUpdate, predicate, value);
         } catch (MalformedQueryException | RepositoryException | UpdateExecutionException ex) {
             throw new DataUnitException("Failed to execute update.", ex);
         }
+        if (changeLog != null) {
+            changeLog.predicateSet(symbolicName, predicate, value);
+        }
         return this;
     }
 
+    /**
+     * Record all following changes into given log. The log is not closed by this instance. In buffered mode
+     * the changes are recorded on successful {@link #flush()} into the log set at that time.
+     *
+     * @param changeLog Log to use, or null to stop recording.
+     * @return
+     */
+    public WritableMetadataUtilsInstance setChangeLog(MetadataChangeLog changeLog) {
+        this.changeLog = changeLog;
+        return this;
+    }
+
+    /**
+     *
+     * @return True if changes are buffered and written on {@link #flush()} or {@link #close()}.
+     */
+    public boolean isBuffered() {
+        return pending != null;
+    }
+
+    /**
+     * Write all pending changes in a single transaction. Does nothing if buffered mode is not used.
+     *
+     * If the connection is already in an active transaction, then changes are only added into it and
+     * the transaction is not committed.
+     *
+     * @throws DataUnitException
+     */
+    public void flush() throws DataUnitException {
+        if (pending == null || pending.isEmpty()) {
+            return;
+        }
+        final ValueFactory valueFactory = connection.getValueFactory();
+        final boolean ownTransaction = !connection.isActive();
+        try {
+            if (ownTransaction) {
+                connection.begin();
+            }
+            for (Map.Entry<String, Map<IRI, PendingValues>> entry : pending.entrySet()) {
+                for (Resource subject : resolveSubjects(entry.getKey())) {
+                    for (Map.Entry<IRI, PendingValues> item : entry.getValue().entrySet()) {
+                        if (item.getValue().replace) {
+                            connection.remove(subject, item.getKey(), null, writeGraph);
+                        }
+                        for (String value : item.getValue().values) {
+                            connection.add(subject, item.getKey(), valueFactory.createLiteral(value), writeGraph);
+                        }
+                    }
+                }
+            }
+            if (ownTransaction) {
+                connection.commit();
+            }
+        } catch (RepositoryException ex) {
+            rollback(ownTransaction);
+            throw new DataUnitException("Failed to flush metadata.", ex);
+        } catch (DataUnitException ex) {
+            rollback(ownTransaction);
+            throw ex;
+        }
+        if (changeLog != null) {
+            recordPending();
+        }
+        pending.clear();
+    }
+
+    /**
+     * Record flushed {@link #pending} changes into {@link #changeLog}.
+     */
+    private void recordPending() {
+        for (Map.Entry<String, Map<IRI, PendingValues>> entry : pending.entrySet()) {
+            for (Map.Entry<IRI, PendingValues> item : entry.getValue().entrySet()) {
+                boolean replace = item.getValue().replace;
+                for (String value : item.getValue().values) {
+                    if (replace) {
+                        changeLog.predicateSet(entry.getKey(), item.getKey(), value);
+                        replace = false;
+                    } else {
+                        changeLog.predicateAdded(entry.getKey(), item.getKey(), value);
+                    }
+                }
+            }
+        }
+    }
+
+    private void rollback(boolean ownTransaction) {
+        if (!ownTransaction) {
+            return;
+        }
+        try {
+            connection.rollback();
+        } catch (RepositoryException ex) {
+            LOG.warn("Rollback failed.", ex);
+        }
+    }
+
+    /**
+     * Flush pending changes and close the instance.
+     *
+     * @throws DataUnitException
+     */
+    @Override
+    public void close() throws DataUnitException {
+        try {
+            flush();
+        } finally {
+            super.close();
+        }
+    }
+
+    @Override
+    protected void clearPreparedQueries() {
+        super.clearPreparedQueries();
+        insertUpdate = null;
+        setUpdate = null;
+    }
+
+    /**
+     *
+     * @param predicate
+     * @return Pending changes for current {@link #symbolicName} and given predicate.
+     */
+    private PendingValues getPending(IRI predicate) {
+        Map<IRI, PendingValues> predicates = pending.get(symbolicName);
+        if (predicates == null) {
+            predicates = new LinkedHashMap<>();
+            pending.put(symbolicName, predicates);
+        }
+        PendingValues pendingValues = predicates.get(predicate);
+        if (pendingValues == null) {
+            pendingValues = new PendingValues();
+            predicates.put(predicate, pendingValues);
+        }
+        return pendingValues;
+    }
+
+    /**
+     *
+     * @param name
+     * @return Subjects with given symbolic name in read graphs.
+     * @throws RepositoryException
+     */
+    private List<Resource> resolveSubjects(String name) throws RepositoryException, DataUnitException {
+        if (resolver != null) {
+            return resolver.resolve(connection, name);
+        }
+        final List<Resource> subjects = new ArrayList<>(1);
+        if (readGraphs.length == 0) {
+            return subjects;
+        }
+        final RepositoryResult<Statement> result = connection.getStatements(null,
+                MetadataVocabulary.UV_SYMBOLIC_NAME, connection.getValueFactory().createLiteral(name), false,
+                readGraphs);
+        try {
+            while (result.hasNext()) {
+                subjects.add(result.next().getSubject());
+            }
+        } finally {
+            result.close();
+        }
+        return subjects;
+    }
+
+    /**
+     * Prepare given update query with respect to used dataset mode.
+     *
+     * @param queryTemplate {@link #INSERT_QUERY} or {@link #UPDATE_QUERY}
+     * @return
+     * @throws RepositoryException
+     * @throws MalformedQueryException
+     */
+    private Update prepareUpdate(String queryTemplate) throws RepositoryException, MalformedQueryException {
+        final Update update;
+        if (useDataset()) {
+            update = connection.prepareUpdate(QueryLanguage.SPARQL, String.format(queryTemplate, "", ""));
+            update.setDataset(dataset);
+        } else {
+            update = connection.prepareUpdate(QueryLanguage.SPARQL,
+                    String.format(queryTemplate, datasetWithClause, datasetUsingClause));
+        }
+        return update;
+    }
+
+    /**
+     * Bind current {@link #symbolicName}, given predicate and value and execute the update.
+     *
+     * @param update
+     * @param predicate
+     * @param value
+     * @throws UpdateExecutionException
+     */
+    private void executeUpdate(Update update, IRI predicate, String value) throws UpdateExecutionException {
+        final ValueFactory valueFactory = connection.getValueFactory();
+        update.setBinding(SYMBOLIC_NAME_BINDING, valueFactory.createLiteral(symbolicName));
+        update.setBinding(PREDICATE_BINDING, predicate);
+        update.setBinding(OBJECT_BINDING, valueFactory.createLiteral(value));
+        update.execute();
+    }
+
 }
@@ -20,6 +20,7 @@ import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.query.Dataset;
@@ -29,6 +30,8 @@ import eu.unifiedviews.dataunit.DataUnitException;
 import eu.unifiedviews.dataunit.rdf.RDFDataUnit;
 import eu.unifiedviews.dataunit.rdf.WritableRDFDataUnit;
 import eu.unifiedviews.helpers.dataunit.dataset.DatasetBuilder;
+import eu.unifiedviews.helpers.dataunit.DataUnitUtils;
+import eu.unifiedviews.helpers.dataunit.EntryCache;
 import java.util.List;
 
 /**
@@ -125,6 +128,14 @@ public class RDFHelper {
         if (rdfDataUnit == null) {
             return new LinkedHashSet<>();
         }
+        final EntryCache cache = EntryCache.current();
+        if (cache != null) {
+            final Set<IRI> resultSet = new LinkedHashSet<>();
+            for (RDFDataUnit.Entry entry : cache.getEntries(rdfDataUnit, RDFDataUnit.Entry.class)) {
+                resultSet.add(entry.getDataGraphURI());
+            }
+            return resultSet;
+        }
         RDFDataUnit.Iteration iteration = rdfDataUnit.getIteration();
         Set<IRI> resultSet = new LinkedHashSet<>();
         try {
@@ -193,6 +204,9 @@ public class RDFHelper {
      * </p>
      * Beware that this method refuses to create dataset with empty defaultGraphs parameter. This is to prevent
      * bugs and errors, as with different storages the empty defaultGraphs may be interpreted in different ways.
+     * <p>
+     * If {@link EntryCache} is bound to current thread then the dataset is shared by all callers until an entry
+     * is added into the data unit, see {@link EntryCache#getDataset(RDFDataUnit)}. The dataset must not be modified.
      * 
      * @param rdfDataUnit
      *            data unit from which all RDF data graphs are obtained
@@ -201,6 +215,14 @@ public class RDFHelper {
      *             when rdfDataUnit does contain any graph or connection errors occur
      */
     public static Dataset getDatasetWithDefaultGraphs(RDFDataUnit rdfDataUnit) throws DataUnitException {
+        final EntryCache cache = EntryCache.current();
+        if (cache != null) {
+            final Dataset dataset = cache.getDataset(rdfDataUnit);
+            if (dataset.getDefaultGraphs().isEmpty()) {
+                throw new DataUnitException("Trying to build dataset from dataunit, which contains no data graphs");
+            }
+            return dataset;
+        }
         Set<IRI> graphsUriSet = RDFHelper.getGraphsURISet(rdfDataUnit);
         if (graphsUriSet.isEmpty()) {
             throw new DataUnitException("Trying to build dataset from dataunit, which contains no data graphs");
@@ -273,4 +295,14 @@ public class RDFHelper {
         return RdfDataUnitUtils.asGraphs(entries);
     }
 
+    /**
+     * Lazily evaluated stream of entries, entries are read as they are consumed. Returned stream must be closed.
+     *
+     * @param rdfDataUnit
+     * @return stream of entries
+     * @throws DataUnitException
+     */
+    public static Stream<RDFDataUnit.Entry> streamGraphs(RDFDataUnit rdfDataUnit) throws DataUnitException {
+        return DataUnitUtils.streamEntries(rdfDataUnit, RDFDataUnit.Entry.class);
+    }
 }
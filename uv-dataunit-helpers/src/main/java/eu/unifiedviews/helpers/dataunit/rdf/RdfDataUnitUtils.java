@@ -23,6 +23,7 @@ import org.eclipse.rdf4j.model.IRI;
 import eu.unifiedviews.dataunit.DataUnitException;
 import eu.unifiedviews.dataunit.rdf.RDFDataUnit;
 import eu.unifiedviews.dataunit.rdf.WritableRDFDataUnit;
+import eu.unifiedviews.helpers.dataunit.DataUnitUtils;
 
 /**
  * Utils for working with {@link RDFDataUnit}. DPU developer should NOT use this class directly - he should use {@link RDFHelper}.
@@ -72,6 +73,7 @@ public class RdfDataUnitUtils {
     public static InMemoryEntry addGraph(WritableRDFDataUnit dataUnit, String symbolicName)
             throws DataUnitException {
         final IRI uri = dataUnit.addNewDataGraph(symbolicName);
+        DataUnitUtils.entryAdded(dataUnit, symbolicName);
         return new InMemoryEntry(uri, symbolicName);
     }
 
@@ -87,6 +89,7 @@ public class RdfDataUnitUtils {
     public static InMemoryEntry addGraph(WritableRDFDataUnit dataUnit, String symbolicName, IRI uri)
             throws DataUnitException {
         dataUnit.addExistingDataGraph(symbolicName, uri);
+        DataUnitUtils.entryAdded(dataUnit, symbolicName);
         return new InMemoryEntry(uri, symbolicName);
     }
 
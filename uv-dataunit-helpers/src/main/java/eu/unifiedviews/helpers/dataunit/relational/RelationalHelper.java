@@ -20,9 +20,11 @@ import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import eu.unifiedviews.dataunit.DataUnitException;
 import eu.unifiedviews.dataunit.relational.RelationalDataUnit;
+import eu.unifiedviews.helpers.dataunit.DataUnitUtils;
 
 /**
  * Helper to make various tasks with {@link RelationalDataUnit} friendly.
@@ -80,4 +82,14 @@ public class RelationalHelper {
         return resultSet;
     }
 
+    /**
+     * Lazily evaluated stream of entries, entries are read as they are consumed. Returned stream must be closed.
+     *
+     * @param relationalDataUnit
+     * @return stream of entries
+     * @throws DataUnitException
+     */
+    public static Stream<RelationalDataUnit.Entry> streamTables(RelationalDataUnit relationalDataUnit) throws DataUnitException {
+        return DataUnitUtils.streamEntries(relationalDataUnit, RelationalDataUnit.Entry.class);
+    }
 }
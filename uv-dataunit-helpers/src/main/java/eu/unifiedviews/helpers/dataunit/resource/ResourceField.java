@@ -0,0 +1,244 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dataunit.resource;
+
+import java.text.ParseException;
+import java.util.Date;
+
+import eu.unifiedviews.helpers.dataunit.utils.ConvertUtils;
+
+/**
+ * Descriptor table of {@link Resource} properties, used to convert, merge and encode resources without
+ * property specific code. Order of constants is the order of keys in encoded maps.
+ */
+enum ResourceField {
+
+    CREATED("created", Type.DATE) {
+
+        @Override
+        Object get(Resource resource) {
+            return resource.getCreated();
+        }
+
+        @Override
+        void set(Resource resource, Object value) {
+            resource.setCreated((Date) value);
+        }
+    },
+    DESCRIPTION("description", Type.STRING) {
+
+        @Override
+        Object get(Resource resource) {
+            return resource.getDescription();
+        }
+
+        @Override
+        void set(Resource resource, Object value) {
+            resource.setDescription((String) value);
+        }
+    },
+    FORMAT("format", Type.STRING) {
+
+        @Override
+        Object get(Resource resource) {
+            return resource.getFormat();
+        }
+
+        @Override
+        void set(Resource resource, Object value) {
+            resource.setFormat((String) value);
+        }
+    },
+    HASH("hash", Type.STRING) {
+
+        @Override
+        Object get(Resource resource) {
+            return resource.getHash();
+        }
+
+        @Override
+        void set(Resource resource, Object value) {
+            resource.setHash((String) value);
+        }
+    },
+    LAST_MODIFIED("last_modified", Type.DATE) {
+
+        @Override
+        Object get(Resource resource) {
+            return resource.getLast_modified();
+        }
+
+        @Override
+        void set(Resource resource, Object value) {
+            resource.setLast_modified((Date) value);
+        }
+    },
+    MIMETYPE("mimetype", Type.STRING) {
+
+        @Override
+        Object get(Resource resource) {
+            return resource.getMimetype();
+        }
+
+        @Override
+        void set(Resource resource, Object value) {
+            resource.setMimetype((String) value);
+        }
+    },
+    MIMETYPE_INNER("mimetype_inner", Type.STRING) {
+
+        @Override
+        Object get(Resource resource) {
+            return resource.getMimetype_inner();
+        }
+
+        @Override
+        void set(Resource resource, Object value) {
+            resource.setMimetype_inner((String) value);
+        }
+    },
+    NAME("name", Type.STRING) {
+
+        @Override
+        Object get(Resource resource) {
+            return resource.getName();
+        }
+
+        @Override
+        void set(Resource resource, Object value) {
+            resource.setName((String) value);
+        }
+    },
+    RESOURCE_TYPE("resource_type", Type.STRING) {
+
+        @Override
+        Object get(Resource resource) {
+            return resource.getResource_type();
+        }
+
+        @Override
+        void set(Resource resource, Object value) {
+            resource.setResource_type((String) value);
+        }
+    },
+    SIZE("size", Type.LONG) {
+
+        @Override
+        Object get(Resource resource) {
+            return resource.getSize();
+        }
+
+        @Override
+        void set(Resource resource, Object value) {
+            resource.setSize((Long) value);
+        }
+    },
+    URL("url", Type.STRING) {
+
+        @Override
+        Object get(Resource resource) {
+            return resource.getUrl();
+        }
+
+        @Override
+        void set(Resource resource, Object value) {
+            resource.setUrl((String) value);
+        }
+    },
+    ID("id", Type.STRING) {
+
+        @Override
+        Object get(Resource resource) {
+            return resource.getId();
+        }
+
+        @Override
+        void set(Resource resource, Object value) {
+            resource.setId((String) value);
+        }
+    };
+
+    /**
+     * Type of property value, provides conversion from and to string.
+     */
+    enum Type {
+
+        STRING {
+
+            @Override
+            String encode(Object value) {
+                return (String) value;
+            }
+
+            @Override
+            Object decode(String value) {
+                return value;
+            }
+        },
+        DATE {
+
+            @Override
+            String encode(Object value) {
+                return ConvertUtils.dateToString((Date) value);
+            }
+
+            @Override
+            Object decode(String value) throws ParseException {
+                return ConvertUtils.stringToDate(value);
+            }
+        },
+        LONG {
+
+            @Override
+            String encode(Object value) {
+                return String.valueOf(value);
+            }
+
+            @Override
+            Object decode(String value) {
+                return Long.valueOf(value);
+            }
+        };
+
+        abstract String encode(Object value);
+
+        abstract Object decode(String value) throws ParseException;
+
+    }
+
+    /**
+     * All fields, so {@link #values()} does not need to copy the array on every use.
+     */
+    static final ResourceField[] FIELDS = values();
+
+    /**
+     * Key used in encoded map.
+     */
+    final String key;
+
+    final Type type;
+
+    ResourceField(String key, Type type) {
+        this.key = key;
+        this.type = type;
+    }
+
+    abstract Object get(Resource resource);
+
+    abstract void set(Resource resource, Object value);
+
+}
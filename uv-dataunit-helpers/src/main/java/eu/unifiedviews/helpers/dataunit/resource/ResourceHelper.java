@@ -59,6 +59,15 @@ public interface ResourceHelper extends AutoCloseable {
      */
     void setResource(String symbolicName, Resource resource) throws DataUnitException;
 
+    /**
+     * Write pending changes. Used by helpers that cache resources, others write changes immediately and
+     * do nothing here.
+     *
+     * @throws DataUnitException
+     */
+    default void flush() throws DataUnitException {
+    }
+
     @Override
     public void close();
 }
@@ -17,13 +17,18 @@
 package eu.unifiedviews.helpers.dataunit.resource;
 
 import java.text.ParseException;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
 import eu.unifiedviews.dataunit.DataUnitException;
 import eu.unifiedviews.dataunit.MetadataDataUnit;
 import eu.unifiedviews.dataunit.WritableMetadataDataUnit;
 import eu.unifiedviews.helpers.dataunit.map.MapHelper;
 import eu.unifiedviews.helpers.dataunit.map.MapHelpers;
+import eu.unifiedviews.helpers.dataunit.metadata.MetadataSnapshot;
+import eu.unifiedviews.helpers.dataunit.metadata.MetadataUtils;
 
 /**
  * Static helper nutshell for {@link ResourceHelper}
@@ -71,6 +76,30 @@ public class ResourceHelpers {
         return selfie.new WritableMapHelperImpl(dataUnit);
     }
 
+    /**
+     * Create read-write {@link ResourceHelper} using {@link WritableMetadataDataUnit} that caches resources.
+     * Resources are loaded on first access, returned instances are cached and changes made by
+     * {@link ResourceHelper#setResource(String, Resource)} are written together in a single transaction on
+     * {@link ResourceHelper#flush()} or {@link ResourceHelper#close()}. If the write on close fails then
+     * {@link IllegalStateException} is thrown, call {@link ResourceHelper#flush()} before close to handle
+     * the failure as {@link DataUnitException}.
+     * @param dataUnit data unit to work with
+     * @return instance of {@link ResourceHelper}, don't forget to close it after using it
+     */
+    public static ResourceHelper createCached(WritableMetadataDataUnit dataUnit) {
+        return selfie.new CachedResourceHelperImpl(dataUnit);
+    }
+
+    /**
+     * Create read-only {@link ResourceHelper} over given {@link MetadataSnapshot}, no connection to the storage is used.
+     * Method {@link ResourceHelper#setResource(String, Resource)} is unsupported in this instance.
+     * @param snapshot snapshot of metadata, see {@link MetadataUtils#createSnapshot(MetadataDataUnit)}
+     * @return instance of {@link ResourceHelper}
+     */
+    public static ResourceHelper create(MetadataSnapshot snapshot) {
+        return selfie.new ResourceHelperImpl(MapHelpers.create(snapshot));
+    }
+
     /**
      * Just do the job, get Resource from given symbolicName.
      * Opens and closes connection to storage each time it is called.
@@ -120,6 +149,10 @@ public class ResourceHelpers {
             this.mapHelper = MapHelpers.create(dataUnit);
         }
 
+        public ResourceHelperImpl(MapHelper mapHelper) {
+            this.mapHelper = mapHelper;
+        }
+
         @Override
         public Resource getResource(String symbolicName) throws DataUnitException {
             Resource resource;
@@ -173,4 +206,79 @@ public class ResourceHelpers {
             mapHelper.close();
         }
     }
+
+    private class CachedResourceHelperImpl implements ResourceHelper {
+        private MapHelper mapHelper;
+
+        /**
+         * Loaded resources.
+         */
+        private final Map<String, Resource> resources = new LinkedHashMap<>();
+
+        /**
+         * Symbolic names of resources that need to be written.
+         */
+        private final Set<String> dirty = new LinkedHashSet<>();
+
+        public CachedResourceHelperImpl(WritableMetadataDataUnit dataUnit) {
+            this.mapHelper = MapHelpers.create(dataUnit);
+        }
+
+        @Override
+        public Resource getResource(String symbolicName) throws DataUnitException {
+            Resource resource = resources.get(symbolicName);
+            if (resource != null) {
+                return resource;
+            }
+            try {
+                resource = ResourceConverter.resourceFromMap(mapHelper.getMap(symbolicName, ResourceHelper.RESOURCE_STORAGE_MAP_NAME));
+                resource.setExtras(ResourceConverter.extrasFromMap(mapHelper.getMap(symbolicName, ResourceHelper.EXTRAS_STORAGE_MAP_NAME)));
+            } catch (ParseException ex) {
+                throw new DataUnitException("Invalid format", ex);
+            }
+            resources.put(symbolicName, resource);
+            return resource;
+        }
+
+        @Override
+        public void setResource(String symbolicName, Resource resource) throws DataUnitException {
+            resources.put(symbolicName, resource);
+            dirty.add(symbolicName);
+        }
+
+        @Override
+        public void flush() throws DataUnitException {
+            if (dirty.isEmpty()) {
+                return;
+            }
+            final Map<String, Map<String, String>> resourceMaps = new LinkedHashMap<>();
+            final Map<String, Map<String, String>> extrasMaps = new LinkedHashMap<>();
+            for (String symbolicName : dirty) {
+                final Resource resource = resources.get(symbolicName);
+                resourceMaps.put(symbolicName, ResourceConverter.resourceToMap(resource));
+                extrasMaps.put(symbolicName, ResourceConverter.extrasToMap(resource.getExtras()));
+            }
+            final Map<String, Map<String, Map<String, String>>> maps = new LinkedHashMap<>();
+            maps.put(ResourceHelper.RESOURCE_STORAGE_MAP_NAME, resourceMaps);
+            maps.put(ResourceHelper.EXTRAS_STORAGE_MAP_NAME, extrasMaps);
+            mapHelper.putMaps(maps);
+            dirty.clear();
+        }
+
+        /**
+         * Write pending changes and release the helper.
+         *
+         * @throws IllegalStateException If pending changes can't be written.
+         */
+        @Override
+        public void close() {
+            try {
+                flush();
+            } catch (DataUnitException ex) {
+                throw new IllegalStateException("Failed to write " + dirty.size() + " resources on close.", ex);
+            } finally {
+                mapHelper.close();
+            }
+        }
+    }
 }
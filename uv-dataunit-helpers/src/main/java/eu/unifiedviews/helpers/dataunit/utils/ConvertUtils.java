@@ -16,32 +16,105 @@
  */
 package eu.unifiedviews.helpers.dataunit.utils;
 
-import java.text.DateFormat;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
 import java.util.Date;
 
 public class ConvertUtils {
     private static final String DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss";
 
+    /**
+     * Immutable and thread-safe, so a single instance is shared. Parsing is lenient as with the default
+     * {@link java.text.SimpleDateFormat}: number of digits in fields may vary and out of range values roll
+     * over, e.g. month 13 is January of the next year.
+     */
+    private static final DateTimeFormatter DATE_FORMATTER = new DateTimeFormatterBuilder()
+            .parseLenient()
+            .appendPattern(DATE_FORMAT)
+            .toFormatter()
+            .withResolverStyle(ResolverStyle.LENIENT);
+
     public static String dateToString(Date date) {
-        DateFormat df = new SimpleDateFormat(DATE_FORMAT);
         if (date != null) {
-            return df.format(date);
+            return DATE_FORMATTER.format(LocalDateTime.ofInstant(
+                    Instant.ofEpochMilli(date.getTime()), ZoneId.systemDefault()));
         } else {
             return null;
         }
     }
 
     public static Date stringToDate(String strDate) throws ParseException {
-        DateFormat df = new SimpleDateFormat(DATE_FORMAT);
         Date result = null;
         if (!isBlank(strDate)) {
-            result = df.parse(strDate);
+            try {
+                // Trailing text is ignored, same as with DateFormat.parse.
+                final LocalDateTime dateTime = LocalDateTime.from(
+                        DATE_FORMATTER.parse(strDate, new ParsePosition(0)));
+                result = Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+            } catch (DateTimeException ex) {
+                final int errorOffset = ex instanceof DateTimeParseException
+                        ? ((DateTimeParseException) ex).getErrorIndex() : 0;
+                final ParseException parseException = new ParseException(ex.getMessage(), errorOffset);
+                parseException.initCause(ex);
+                throw parseException;
+            }
         }
         return result;
     }
 
+    /**
+     * Convert given string into a SPARQL string literal, i.e. double quoted string with all characters escaped as
+     * required by the SPARQL grammar (ECHAR).
+     *
+     * @param value
+     * @return SPARQL string literal.
+     */
+    public static String toSparqlLiteral(String value) {
+        final StringBuilder builder = new StringBuilder(value.length() + 2);
+        builder.append('"');
+        for (int i = 0; i < value.length(); ++i) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\'':
+                    builder.append("\\'");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                case '\b':
+                    builder.append("\\b");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\f':
+                    builder.append("\\f");
+                    break;
+                default:
+                    builder.append(c);
+            }
+        }
+        builder.append('"');
+        return builder.toString();
+    }
+
     public static boolean isBlank(CharSequence cs) {
         int strLen;
         if (cs == null || (strLen = cs.length()) == 0) {
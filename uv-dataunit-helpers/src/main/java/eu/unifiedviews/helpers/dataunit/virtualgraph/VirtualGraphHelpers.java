@@ -24,6 +24,8 @@ import eu.unifiedviews.dataunit.DataUnitException;
 import eu.unifiedviews.dataunit.MetadataDataUnit;
 import eu.unifiedviews.dataunit.WritableMetadataDataUnit;
 import eu.unifiedviews.dpu.DPUException;
+import eu.unifiedviews.helpers.dataunit.metadata.MetadataIndex;
+import eu.unifiedviews.helpers.dataunit.metadata.MetadataSnapshot;
 import eu.unifiedviews.helpers.dataunit.metadata.MetadataUtils;
 import eu.unifiedviews.helpers.dataunit.metadata.MetadataUtilsInstance;
 import eu.unifiedviews.helpers.dataunit.metadata.WritableMetadataUtilsInstance;
@@ -75,6 +77,28 @@ public class VirtualGraphHelpers {
         return selfie.new VirtualGraphHelperImpl(writableMetadataDataUnit);
     }
 
+    /**
+     * Create read-only {@link VirtualGraphHelper} over given {@link MetadataSnapshot}, no connection to
+     * the storage is used. Returned helper instance method {@link VirtualGraphHelper#setVirtualGraph(String, String)}
+     * is unsupported (throws {@link UnsupportedOperationException}).
+     * @param snapshot snapshot of metadata, see {@link MetadataUtils#createSnapshot(MetadataDataUnit)}
+     * @return helper
+     */
+    public static VirtualGraphHelper create(MetadataSnapshot snapshot) {
+        return selfie.new SnapshotVirtualGraphHelperImpl(snapshot);
+    }
+
+    /**
+     * Load virtual graphs of all entries in given data unit by a single query.
+     * Index provides also reverse lookup from value to symbolic names.
+     * @param metadataDataUnit data unit to work with
+     * @return index of virtual graphs
+     * @throws DataUnitException
+     */
+    public static MetadataIndex createIndex(MetadataDataUnit metadataDataUnit) throws DataUnitException {
+        return MetadataIndex.create(metadataDataUnit, RdfVocabulary.UV_VIRTUAL_URI);
+    }
+
     /**
      * Just do the job, get virtualGraph from given symbolicName.
      * Opens and closes connection to storage each time it is called.
@@ -188,4 +212,38 @@ public class VirtualGraphHelpers {
             }
         }
     }
+
+    private class SnapshotVirtualGraphHelperImpl implements VirtualGraphHelper {
+
+        private final MetadataSnapshot snapshot;
+
+        public SnapshotVirtualGraphHelperImpl(MetadataSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public String getVirtualGraph(String symbolicName) throws DataUnitException {
+            final Value value;
+            try {
+                value = snapshot.get(symbolicName, RdfVocabulary.UV_VIRTUAL_URI);
+            } catch (DPUException ex) {
+                throw new DataUnitException(ex);
+            }
+            if (value == null) {
+                return null;
+            } else {
+                return value.stringValue();
+            }
+        }
+
+        @Override
+        public void setVirtualGraph(String symbolicName, String virtualGraph) throws DataUnitException {
+            throw new UnsupportedOperationException("Cannot set virtual graph into read only snapshot");
+        }
+
+        @Override
+        public void close() {
+            // Nothing to close.
+        }
+    }
 }
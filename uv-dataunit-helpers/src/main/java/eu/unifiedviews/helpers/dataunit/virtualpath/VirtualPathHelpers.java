@@ -25,6 +25,8 @@ import eu.unifiedviews.dataunit.MetadataDataUnit;
 import eu.unifiedviews.dataunit.WritableMetadataDataUnit;
 import eu.unifiedviews.dpu.DPUException;
 import eu.unifiedviews.helpers.dataunit.files.FilesVocabulary;
+import eu.unifiedviews.helpers.dataunit.metadata.MetadataIndex;
+import eu.unifiedviews.helpers.dataunit.metadata.MetadataSnapshot;
 import eu.unifiedviews.helpers.dataunit.metadata.MetadataUtils;
 import eu.unifiedviews.helpers.dataunit.metadata.MetadataUtilsInstance;
 import eu.unifiedviews.helpers.dataunit.metadata.WritableMetadataUtilsInstance;
@@ -77,6 +79,39 @@ public class VirtualPathHelpers {
         return selfie.new VirtualPathHelperImpl(writableMetadataDataUnit);
     }
 
+    /**
+     * Create read-only {@link VirtualPathHelper} over given {@link MetadataSnapshot}, no connection to
+     * the storage is used. Returned helper instance method {@link VirtualPathHelper#setVirtualPath(String, String)}
+     * is unsupported (throws {@link UnsupportedOperationException}).
+     * @param snapshot snapshot of metadata, see {@link MetadataUtils#createSnapshot(MetadataDataUnit)}
+     * @return helper
+     */
+    public static VirtualPathHelper create(MetadataSnapshot snapshot) {
+        return selfie.new SnapshotVirtualPathHelperImpl(snapshot);
+    }
+
+    /**
+     * Load virtual paths of all entries in given data unit by a single query.
+     * Index provides also reverse lookup from value to symbolic names.
+     * @param metadataDataUnit data unit to work with
+     * @return index of virtual paths
+     * @throws DataUnitException
+     */
+    public static MetadataIndex createIndex(MetadataDataUnit metadataDataUnit) throws DataUnitException {
+        return MetadataIndex.create(metadataDataUnit, FilesVocabulary.UV_VIRTUAL_PATH);
+    }
+
+    /**
+     * Load virtual paths of all entries in given data unit and arrange them into a directory tree,
+     * see {@link VirtualPathTree}.
+     * @param metadataDataUnit data unit to work with
+     * @return tree of virtual paths
+     * @throws DataUnitException
+     */
+    public static VirtualPathTree createTree(MetadataDataUnit metadataDataUnit) throws DataUnitException {
+        return VirtualPathTree.create(createIndex(metadataDataUnit));
+    }
+
     /**
      * Just do the job, get virtualPath from given symbolicName.
      * Opens and closes connection to storage each time it is called.
@@ -188,4 +223,38 @@ public class VirtualPathHelpers {
             }
         }
     }
+
+    private class SnapshotVirtualPathHelperImpl implements VirtualPathHelper {
+
+        private final MetadataSnapshot snapshot;
+
+        public SnapshotVirtualPathHelperImpl(MetadataSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public String getVirtualPath(String symbolicName) throws DataUnitException {
+            final Value value;
+            try {
+                value = snapshot.get(symbolicName, FilesVocabulary.UV_VIRTUAL_PATH);
+            } catch (DPUException ex) {
+                throw new DataUnitException(ex);
+            }
+            if (value == null) {
+                return null;
+            } else {
+                return value.stringValue();
+            }
+        }
+
+        @Override
+        public void setVirtualPath(String symbolicName, String virtualPath) throws DataUnitException {
+            throw new UnsupportedOperationException("Cannot set virtual path into read only snapshot");
+        }
+
+        @Override
+        public void close() {
+            // Nothing to close.
+        }
+    }
 }
@@ -0,0 +1,398 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dataunit.virtualpath;
+
+import java.nio.file.FileSystems;
+import java.nio.file.InvalidPathException;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import eu.unifiedviews.dataunit.MetadataDataUnit;
+import eu.unifiedviews.helpers.dataunit.metadata.MetadataIndex;
+
+/**
+ * Read-only tree of virtual paths in a data unit. Virtual paths are split by '/' into directories,
+ * every node holds number of entries in its subtree, so counts and prefix queries do not need to scan
+ * all entries. Nodes store only their name, paths are derived from the parent chain.
+ *
+ * Sample usage:
+ * <pre>
+ * {@code
+ * VirtualPathTree tree = VirtualPathHelpers.createTree(filesDataUnit);
+ * List<String> symbolicNames = tree.getSymbolicNames("dataset/2024");
+ * List<String> csvFiles = tree.match("dataset/20??/*.csv");
+ * // One subtree per worker.
+ * for (VirtualPathTree.Node node : tree.getNode("dataset").getChildren()) {
+ *     ...
+ * }
+ * }
+ * </pre>
+ *
+ * Leading, trailing and repeated '/' are ignored, so "/dataset/2024/" and "dataset/2024" denote the same
+ * directory. The tree does not reflect later changes in the data unit.
+ */
+public class VirtualPathTree {
+
+    /**
+     * Characters with special meaning in glob, see {@link java.nio.file.FileSystem#getPathMatcher(String)}.
+     */
+    private static final String GLOB_SPECIAL_CHARACTERS = "*?[{\\";
+
+    /**
+     * Node of the tree, represents a directory or a file (or both if entries share the path prefix).
+     */
+    public static class Node {
+
+        private final String name;
+
+        /**
+         * Null for root.
+         */
+        private final Node parent;
+
+        /**
+         * Sorted by name.
+         */
+        private final ArrayList<Node> children = new ArrayList<>(0);
+
+        /**
+         * Entries with exactly this virtual path.
+         */
+        private final ArrayList<String> symbolicNames = new ArrayList<>(0);
+
+        /**
+         * Number of entries in this subtree.
+         */
+        private int count = 0;
+
+        Node(String name, Node parent) {
+            this.name = name;
+            this.parent = parent;
+        }
+
+        /**
+         *
+         * @return Last segment of the virtual path, empty string for root.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         *
+         * @return Virtual path of this node, empty string for root.
+         */
+        public String getPath() {
+            if (parent == null) {
+                return "";
+            }
+            final StringBuilder builder = new StringBuilder(name);
+            for (Node node = parent; node.parent != null; node = node.parent) {
+                builder.insert(0, '/').insert(0, node.name);
+            }
+            return builder.toString();
+        }
+
+        /**
+         *
+         * @return Read-only list of child nodes sorted by name.
+         */
+        public List<Node> getChildren() {
+            return Collections.unmodifiableList(children);
+        }
+
+        /**
+         *
+         * @param name
+         * @return Child of given name or null.
+         */
+        public Node getChild(String name) {
+            final int index = indexOf(name);
+            return index < 0 ? null : children.get(index);
+        }
+
+        /**
+         *
+         * @return Read-only list of symbolic names with exactly the virtual path of this node.
+         */
+        public List<String> getSymbolicNames() {
+            return Collections.unmodifiableList(symbolicNames);
+        }
+
+        /**
+         *
+         * @return Number of entries in this subtree, including this node.
+         */
+        public int getCount() {
+            return count;
+        }
+
+        Node getOrCreateChild(String childName) {
+            final int index = indexOf(childName);
+            if (index >= 0) {
+                return children.get(index);
+            }
+            final Node child = new Node(childName, this);
+            children.add(-index - 1, child);
+            return child;
+        }
+
+        /**
+         *
+         * @param childName
+         * @return Index of child with given name, or (-(insertion point) - 1) as {@link Collections#binarySearch}.
+         */
+        private int indexOf(String childName) {
+            int low = 0;
+            int high = children.size() - 1;
+            while (low <= high) {
+                final int middle = (low + high) >>> 1;
+                final int compare = children.get(middle).name.compareTo(childName);
+                if (compare < 0) {
+                    low = middle + 1;
+                } else if (compare > 0) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -(low + 1);
+        }
+
+        void collect(List<String> output) {
+            output.addAll(symbolicNames);
+            for (Node child : children) {
+                child.collect(output);
+            }
+        }
+
+        void trim() {
+            children.trimToSize();
+            symbolicNames.trimToSize();
+            for (Node child : children) {
+                child.trim();
+            }
+        }
+
+    }
+
+    private final Node root = new Node("", null);
+
+    VirtualPathTree() {
+    }
+
+    /**
+     * Build tree from given index of virtual paths.
+     *
+     * @param index See {@link VirtualPathHelpers#createIndex(MetadataDataUnit)}.
+     * @return
+     */
+    public static VirtualPathTree create(MetadataIndex index) {
+        final VirtualPathTree tree = new VirtualPathTree();
+        for (Map.Entry<String, String> entry : index.asMap().entrySet()) {
+            tree.add(entry.getKey(), entry.getValue());
+        }
+        tree.root.trim();
+        return tree;
+    }
+
+    /**
+     *
+     * @return Root node, represents empty virtual path.
+     */
+    public Node getRoot() {
+        return root;
+    }
+
+    /**
+     *
+     * @param path
+     * @return Node for given virtual path or null if there is no entry under this path.
+     */
+    public Node getNode(String path) {
+        Node node = root;
+        for (String segment : split(path)) {
+            node = node.getChild(segment);
+            if (node == null) {
+                return null;
+            }
+        }
+        return node;
+    }
+
+    /**
+     *
+     * @param path
+     * @return Number of entries with given virtual path or under it.
+     */
+    public int getCount(String path) {
+        final Node node = getNode(path);
+        return node == null ? 0 : node.getCount();
+    }
+
+    /**
+     *
+     * @param path
+     * @return Symbolic names of entries with given virtual path or under it.
+     */
+    public List<String> getSymbolicNames(String path) {
+        final Node node = getNode(path);
+        if (node == null) {
+            return Collections.emptyList();
+        }
+        final List<String> result = new ArrayList<>(node.getCount());
+        node.collect(result);
+        return result;
+    }
+
+    /**
+     * Return symbolic names of entries whose virtual path matches given glob. The glob syntax is the one of
+     * {@link java.nio.file.FileSystem#getPathMatcher(String)} as used by
+     * {@link eu.unifiedviews.helpers.dataunit.files.DirectoryIngestHelper}: '*' matches any characters except '/',
+     * '**' matches any characters including '/', so "**.xml" matches XML files in all directories and "**&#47;b"
+     * does not match top-level "b". Directories are matched one by one while the glob can not cross directory
+     * boundary, only subtrees that can match are visited.
+     *
+     * @param glob
+     * @return
+     */
+    public List<String> match(String glob) {
+        final List<String> segments = split(glob);
+        final PathMatcher[] matchers = new PathMatcher[segments.size()];
+        for (int i = 0; i < matchers.length; ++i) {
+            final String segment = segments.get(i);
+            if (segment.contains("**") || segment.indexOf('{') != -1) {
+                // May match more directories, the rest is matched by the whole glob.
+                break;
+            }
+            if (hasSpecialCharacter(segment)) {
+                matchers[i] = FileSystems.getDefault().getPathMatcher("glob:" + segment);
+            }
+        }
+        final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + join(segments));
+        final List<String> result = new ArrayList<>();
+        match(root, segments, matchers, 0, matcher, result);
+        return result;
+    }
+
+    void add(String symbolicName, String path) {
+        Node node = root;
+        ++node.count;
+        for (String segment : split(path)) {
+            node = node.getOrCreateChild(segment);
+            ++node.count;
+        }
+        node.symbolicNames.add(symbolicName);
+    }
+
+    /**
+     *
+     * @param node
+     * @param segments
+     * @param matchers Matchers for segments with special characters, null for literal segments.
+     * @param index Index of segment to match against children of given node.
+     * @param matcher Matcher for the whole glob, used from the first segment that may match more directories.
+     * @param output
+     */
+    private static void match(Node node, List<String> segments, PathMatcher[] matchers, int index,
+            PathMatcher matcher, List<String> output) {
+        if (index == segments.size()) {
+            output.addAll(node.symbolicNames);
+            return;
+        }
+        final String segment = segments.get(index);
+        if (matchers[index] != null) {
+            for (Node child : node.children) {
+                if (matches(matchers[index], child.name)) {
+                    match(child, segments, matchers, index + 1, matcher, output);
+                }
+            }
+        } else if (hasSpecialCharacter(segment)) {
+            collect(node, node.getPath(), matcher, output);
+        } else {
+            final Node child = node.getChild(segment);
+            if (child != null) {
+                match(child, segments, matchers, index + 1, matcher, output);
+            }
+        }
+    }
+
+    /**
+     * Add symbolic names from given subtree whose path matches given matcher.
+     *
+     * @param node
+     * @param path Path of the node.
+     * @param matcher
+     * @param output
+     */
+    private static void collect(Node node, String path, PathMatcher matcher, List<String> output) {
+        if (!node.symbolicNames.isEmpty() && matches(matcher, path)) {
+            output.addAll(node.symbolicNames);
+        }
+        for (Node child : node.children) {
+            collect(child, path.isEmpty() ? child.name : path + "/" + child.name, matcher, output);
+        }
+    }
+
+    private static boolean matches(PathMatcher matcher, String path) {
+        try {
+            return matcher.matches(Paths.get(path));
+        } catch (InvalidPathException ex) {
+            // Virtual path is not a valid path on this platform, so it can not match.
+            return false;
+        }
+    }
+
+    private static boolean hasSpecialCharacter(String segment) {
+        for (int i = 0; i < segment.length(); ++i) {
+            if (GLOB_SPECIAL_CHARACTERS.indexOf(segment.charAt(i)) != -1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String join(List<String> segments) {
+        final StringBuilder builder = new StringBuilder();
+        for (String segment : segments) {
+            if (builder.length() > 0) {
+                builder.append('/');
+            }
+            builder.append(segment);
+        }
+        return builder.toString();
+    }
+
+    private static List<String> split(String path) {
+        final List<String> segments = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= path.length(); ++i) {
+            if (i == path.length() || path.charAt(i) == '/') {
+                if (start < i) {
+                    segments.add(path.substring(start, i));
+                }
+                start = i + 1;
+            }
+        }
+        return segments;
+    }
+
+}
@@ -0,0 +1,177 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dataunit;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.query.Dataset;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.sail.memory.MemoryStore;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.unifiedviews.dataunit.DataUnitException;
+import eu.unifiedviews.dataunit.files.FilesDataUnit;
+import eu.unifiedviews.helpers.dataunit.files.FilesDataUnitUtils;
+import eu.unifiedviews.helpers.dataunit.rdf.RDFHelper;
+import eu.unifiedviews.helpers.dataunit.rdf.RdfDataUnitUtils;
+
+public class EntryCacheTest {
+
+    /**
+     * Read-only view of a data unit, counts loads of entries.
+     */
+    private static class ReadOnlyView implements FilesDataUnit {
+
+        private final FilesDataUnit dataUnit;
+
+        private int loadCounter = 0;
+
+        ReadOnlyView(FilesDataUnit dataUnit) {
+            this.dataUnit = dataUnit;
+        }
+
+        @Override
+        public FilesDataUnit.Iteration getIteration() throws DataUnitException {
+            ++loadCounter;
+            onLoad();
+            return dataUnit.getIteration();
+        }
+
+        @Override
+        public RepositoryConnection getConnection() throws DataUnitException {
+            return dataUnit.getConnection();
+        }
+
+        @Override
+        public Set<IRI> getMetadataGraphnames() throws DataUnitException {
+            return dataUnit.getMetadataGraphnames();
+        }
+
+        protected void onLoad() {
+        }
+
+    }
+
+    private SailRepository repository;
+
+    private InMemoryFilesDataUnit dataUnit;
+
+    private EntryCache cache;
+
+    @Before
+    public void before() throws DataUnitException {
+        repository = new SailRepository(new MemoryStore());
+        repository.initialize();
+        dataUnit = new InMemoryFilesDataUnit(repository, "cache", new File("."));
+        dataUnit.addExistingFile("first", "file:/first");
+        cache = new EntryCache();
+    }
+
+    @After
+    public void after() {
+        EntryCache.unbind();
+        repository.shutDown();
+    }
+
+    @Test
+    public void readOnlyEntriesAreCached() throws DataUnitException {
+        final ReadOnlyView view = new ReadOnlyView(dataUnit);
+        final List<FilesDataUnit.Entry> entries = cache.getEntries(view, FilesDataUnit.Entry.class);
+        Assert.assertEquals(1, entries.size());
+        Assert.assertSame(entries, cache.getEntries(view, FilesDataUnit.Entry.class));
+        Assert.assertEquals(1, view.loadCounter);
+    }
+
+    @Test
+    public void invalidateReloadsEntries() throws DataUnitException {
+        final ReadOnlyView view = new ReadOnlyView(dataUnit);
+        Assert.assertEquals(1, cache.getEntries(view, FilesDataUnit.Entry.class).size());
+        dataUnit.addExistingFile("second", "file:/second");
+        EntryCache.invalidate(view);
+        Assert.assertEquals(2, cache.getEntries(view, FilesDataUnit.Entry.class).size());
+        Assert.assertEquals(2, view.loadCounter);
+    }
+
+    @Test
+    public void invalidateDuringLoadIsNotLost() throws DataUnitException {
+        final ReadOnlyView view = new ReadOnlyView(dataUnit) {
+
+            @Override
+            protected void onLoad() {
+                // Simulate invalidation from other thread while entries are being loaded.
+                cache.remove(this);
+            }
+
+        };
+        cache.getEntries(view, FilesDataUnit.Entry.class);
+        cache.getEntries(view, FilesDataUnit.Entry.class);
+        Assert.assertEquals(2, view.loadCounter);
+    }
+
+    @Test
+    public void writableEntriesAreCachedUntilInvalidated() throws DataUnitException {
+        final List<FilesDataUnit.Entry> entries = cache.getEntries(dataUnit, FilesDataUnit.Entry.class);
+        Assert.assertEquals(1, entries.size());
+        Assert.assertSame(entries, cache.getEntries(dataUnit, FilesDataUnit.Entry.class));
+        dataUnit.addExistingFile("second", "file:/second");
+        EntryCache.invalidate(dataUnit);
+        Assert.assertEquals(2, cache.getEntries(dataUnit, FilesDataUnit.Entry.class).size());
+    }
+
+    @Test
+    public void helpersInvalidateWritableEntries() throws DataUnitException {
+        Assert.assertEquals(1, cache.getEntries(dataUnit, FilesDataUnit.Entry.class).size());
+        FilesDataUnitUtils.addFile(dataUnit, new File("second"), "second");
+        Assert.assertEquals(2, cache.getEntries(dataUnit, FilesDataUnit.Entry.class).size());
+    }
+
+    @Test
+    public void datasetIsSharedUntilInvalidated() throws DataUnitException {
+        final InMemoryRdfDataUnit rdfDataUnit = new InMemoryRdfDataUnit(repository, "rdf");
+        final IRI first = RdfDataUnitUtils.addGraph(rdfDataUnit, "first").getDataGraphURI();
+        EntryCache.bind(cache);
+        final Dataset dataset = RDFHelper.getDatasetWithDefaultGraphs(rdfDataUnit);
+        Assert.assertEquals(Collections.singleton(first), dataset.getDefaultGraphs());
+        Assert.assertSame(dataset, RDFHelper.getDatasetWithDefaultGraphs(rdfDataUnit));
+        // Helper invalidates the cache.
+        final IRI second = RdfDataUnitUtils.addGraph(rdfDataUnit, "second").getDataGraphURI();
+        final Dataset updated = RDFHelper.getDatasetWithDefaultGraphs(rdfDataUnit);
+        Assert.assertEquals(new HashSet<>(Arrays.asList(first, second)), updated.getDefaultGraphs());
+        Assert.assertSame(updated, cache.getDataset(rdfDataUnit));
+    }
+
+    @Test
+    public void boundCacheReturnsModifiableList() throws DataUnitException {
+        final ReadOnlyView view = new ReadOnlyView(dataUnit);
+        EntryCache.bind(cache);
+        final List<FilesDataUnit.Entry> entries = DataUnitUtils.getEntries(view, FilesDataUnit.Entry.class);
+        entries.clear();
+        Assert.assertEquals(1, DataUnitUtils.getEntries(view, FilesDataUnit.Entry.class).size());
+        Assert.assertEquals(1, view.loadCounter);
+    }
+
+}
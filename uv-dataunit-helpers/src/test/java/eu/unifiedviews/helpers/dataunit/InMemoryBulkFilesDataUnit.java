@@ -0,0 +1,99 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dataunit;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+
+import eu.unifiedviews.dataunit.DataUnitException;
+import eu.unifiedviews.dataunit.files.BulkWritableFilesDataUnit;
+
+/**
+ * {@link InMemoryFilesDataUnit} that adds many files in a single transaction.
+ */
+public class InMemoryBulkFilesDataUnit extends InMemoryFilesDataUnit implements BulkWritableFilesDataUnit {
+
+    /**
+     * Number of calls of bulk methods.
+     */
+    private int bulkCalls = 0;
+
+    public InMemoryBulkFilesDataUnit(Repository repository, String name, File directory) {
+        super(repository, name, directory);
+    }
+
+    @Override
+    public void addExistingFiles(Map<String, String> existingFileURIStrings) throws DataUnitException {
+        ++bulkCalls;
+        try (RepositoryConnection connection = getConnection()) {
+            connection.begin();
+            try {
+                for (Map.Entry<String, String> item : existingFileURIStrings.entrySet()) {
+                    addEntry(connection, item.getKey(), valueFactory.createLiteral(item.getValue()));
+                }
+                connection.commit();
+            } finally {
+                if (connection.isActive()) {
+                    connection.rollback();
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<String> addNewFiles(List<String> symbolicNames) throws DataUnitException {
+        ++bulkCalls;
+        final List<File> files = new ArrayList<>(symbolicNames.size());
+        try (RepositoryConnection connection = getConnection()) {
+            connection.begin();
+            try {
+                for (String symbolicName : symbolicNames) {
+                    final File file = createNewFile();
+                    files.add(file);
+                    addEntry(connection, symbolicName, valueFactory.createLiteral(file.toURI().toString()));
+                }
+                connection.commit();
+            } finally {
+                if (connection.isActive()) {
+                    connection.rollback();
+                    for (File file : files) {
+                        file.delete();
+                    }
+                }
+            }
+        }
+        final List<String> result = new ArrayList<>(files.size());
+        for (File file : files) {
+            result.add(file.toURI().toString());
+        }
+        return result;
+    }
+
+    /**
+     *
+     * @return Number of calls of bulk methods.
+     */
+    public int getBulkCalls() {
+        return bulkCalls;
+    }
+
+}
@@ -0,0 +1,115 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dataunit;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.repository.Repository;
+
+import eu.unifiedviews.dataunit.DataUnitException;
+import eu.unifiedviews.dataunit.files.FilesDataUnit;
+import eu.unifiedviews.dataunit.files.WritableFilesDataUnit;
+import eu.unifiedviews.helpers.dataunit.files.FilesDataUnitUtils;
+
+/**
+ * {@link WritableFilesDataUnit} backed by a repository, used in tests. New files are created in given
+ * directory. Symbolic names must be unique.
+ */
+public class InMemoryFilesDataUnit extends InMemoryMetadataDataUnit implements WritableFilesDataUnit {
+
+    private static class Iteration extends ListIteration<FilesDataUnit.Entry> implements FilesDataUnit.Iteration {
+
+        Iteration(List<FilesDataUnit.Entry> entries) {
+            super(entries);
+        }
+
+    }
+
+    private final IRI predicate;
+
+    private final File directory;
+
+    public InMemoryFilesDataUnit(Repository repository, String name, File directory) {
+        super(repository, name);
+        this.predicate = valueFactory.createIRI(FilesDataUnit.PREDICATE_FILE_URI);
+        this.directory = directory;
+    }
+
+    @Override
+    protected IRI getEntryPredicate() {
+        return predicate;
+    }
+
+    @Override
+    public FilesDataUnit.Iteration getIteration() throws DataUnitException {
+        final List<FilesDataUnit.Entry> entries = new ArrayList<>();
+        for (EntryData data : loadEntries()) {
+            entries.add(new FilesDataUnitUtils.InMemoryEntry(
+                    data.value == null ? null : data.value.stringValue(), data.symbolicName));
+        }
+        return new Iteration(entries);
+    }
+
+    @Override
+    public String getBaseFileURIString() throws DataUnitException {
+        return directory.toURI().toString();
+    }
+
+    @Override
+    public void addExistingFile(String symbolicName, String existingFileURIString) throws DataUnitException {
+        addEntry(symbolicName, valueFactory.createLiteral(existingFileURIString));
+    }
+
+    @Override
+    public String addNewFile(String symbolicName) throws DataUnitException {
+        final File file = createNewFile();
+        try {
+            addEntry(symbolicName, valueFactory.createLiteral(file.toURI().toString()));
+        } catch (DataUnitException ex) {
+            file.delete();
+            throw ex;
+        }
+        return file.toURI().toString();
+    }
+
+    /**
+     *
+     * @return New empty file in the directory.
+     * @throws DataUnitException
+     */
+    protected File createNewFile() throws DataUnitException {
+        final File file = new File(directory, createIri("").getLocalName());
+        try {
+            if (!file.createNewFile()) {
+                throw new DataUnitException("File already exists: " + file);
+            }
+        } catch (IOException ex) {
+            throw new DataUnitException("Can't create file: " + file, ex);
+        }
+        return file;
+    }
+
+    @Override
+    public void updateExistingFileURI(String symbolicName, String newFileURIString) throws DataUnitException {
+        throw new UnsupportedOperationException();
+    }
+
+}
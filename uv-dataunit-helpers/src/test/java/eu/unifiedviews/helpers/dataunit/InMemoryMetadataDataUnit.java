@@ -0,0 +1,198 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dataunit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryLanguage;
+import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+
+import eu.unifiedviews.dataunit.DataUnitException;
+import eu.unifiedviews.dataunit.MetadataDataUnit;
+import eu.unifiedviews.dataunit.WritableMetadataDataUnit;
+import eu.unifiedviews.helpers.dataunit.metadata.MetadataVocabulary;
+
+/**
+ * Data unit backed by a repository, used in tests. Every entry is stored in a single metadata graph
+ * as a subject with symbolic name and optionally a value of {@link #getEntryPredicate()}.
+ */
+public abstract class InMemoryMetadataDataUnit implements WritableMetadataDataUnit {
+
+    /**
+     * Loaded entry.
+     */
+    protected static class EntryData {
+
+        protected final String symbolicName;
+
+        protected final Value value;
+
+        EntryData(String symbolicName, Value value) {
+            this.symbolicName = symbolicName;
+            this.value = value;
+        }
+
+    }
+
+    protected final Repository repository;
+
+    protected final ValueFactory valueFactory;
+
+    protected final String baseUri;
+
+    private final IRI metadataGraph;
+
+    private int counter = 0;
+
+    protected InMemoryMetadataDataUnit(Repository repository, String name) {
+        this.repository = repository;
+        this.valueFactory = repository.getValueFactory();
+        this.baseUri = "http://localhost/test/" + name + "/";
+        this.metadataGraph = valueFactory.createIRI(baseUri + "metadata");
+    }
+
+    /**
+     *
+     * @return Predicate with the entry value, like data graph or file URI.
+     */
+    protected abstract IRI getEntryPredicate();
+
+    @Override
+    public RepositoryConnection getConnection() throws DataUnitException {
+        return repository.getConnection();
+    }
+
+    @Override
+    public Set<IRI> getMetadataGraphnames() throws DataUnitException {
+        return Collections.singleton(metadataGraph);
+    }
+
+    @Override
+    public IRI getMetadataWriteGraphname() throws DataUnitException {
+        return metadataGraph;
+    }
+
+    @Override
+    public void addEntry(String symbolicName) throws DataUnitException {
+        addEntry(symbolicName, null);
+    }
+
+    /**
+     * Add entry with given value of {@link #getEntryPredicate()}.
+     *
+     * @param symbolicName
+     * @param value Can be null.
+     * @throws DataUnitException If the symbolic name is already used.
+     */
+    protected void addEntry(String symbolicName, Value value) throws DataUnitException {
+        try (RepositoryConnection connection = repository.getConnection()) {
+            addEntry(connection, symbolicName, value);
+        }
+    }
+
+    /**
+     * Add entry with given value of {@link #getEntryPredicate()} using given connection.
+     *
+     * @param connection
+     * @param symbolicName
+     * @param value Can be null.
+     * @throws DataUnitException If the symbolic name is already used.
+     */
+    protected void addEntry(RepositoryConnection connection, String symbolicName, Value value)
+            throws DataUnitException {
+        final Literal name = valueFactory.createLiteral(symbolicName);
+        if (connection.hasStatement(null, MetadataVocabulary.UV_SYMBOLIC_NAME, name, false, metadataGraph)) {
+            throw new DataUnitException("Symbolic name is already used: " + symbolicName);
+        }
+        final IRI subject = createIri("entry/");
+        connection.add(subject, MetadataVocabulary.UV_SYMBOLIC_NAME, name, metadataGraph);
+        if (value != null) {
+            connection.add(subject, getEntryPredicate(), value, metadataGraph);
+        }
+    }
+
+    /**
+     *
+     * @param prefix
+     * @return New unique IRI.
+     */
+    protected synchronized IRI createIri(String prefix) {
+        return valueFactory.createIRI(baseUri + prefix + (counter++));
+    }
+
+    /**
+     *
+     * @return All entries in the data unit.
+     */
+    protected List<EntryData> loadEntries() {
+        final List<EntryData> result = new ArrayList<>();
+        try (RepositoryConnection connection = repository.getConnection()) {
+            final TupleQuery query = connection.prepareTupleQuery(QueryLanguage.SPARQL,
+                    "SELECT ?symbolicName ?value WHERE { GRAPH <" + metadataGraph + "> { "
+                    + "?s <" + MetadataVocabulary.UV_SYMBOLIC_NAME + "> ?symbolicName . "
+                    + "OPTIONAL { ?s <" + getEntryPredicate() + "> ?value } } }");
+            try (TupleQueryResult queryResult = query.evaluate()) {
+                while (queryResult.hasNext()) {
+                    final BindingSet bindings = queryResult.next();
+                    result.add(new EntryData(bindings.getValue("symbolicName").stringValue(),
+                            bindings.getValue("value")));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Iteration over entries loaded in advance.
+     *
+     * @param <E>
+     */
+    protected static class ListIteration<E extends MetadataDataUnit.Entry> {
+
+        private final Iterator<E> iterator;
+
+        protected ListIteration(List<E> entries) {
+            this.iterator = entries.iterator();
+        }
+
+        public boolean hasNext() throws DataUnitException {
+            return iterator.hasNext();
+        }
+
+        public E next() throws DataUnitException {
+            return iterator.next();
+        }
+
+        public void close() throws DataUnitException {
+            // No operation here.
+        }
+
+    }
+
+}
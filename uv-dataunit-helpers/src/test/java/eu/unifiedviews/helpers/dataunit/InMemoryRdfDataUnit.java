@@ -0,0 +1,86 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dataunit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.repository.Repository;
+
+import eu.unifiedviews.dataunit.DataUnitException;
+import eu.unifiedviews.dataunit.rdf.RDFDataUnit;
+import eu.unifiedviews.dataunit.rdf.WritableRDFDataUnit;
+import eu.unifiedviews.helpers.dataunit.rdf.RdfDataUnitUtils;
+
+/**
+ * {@link WritableRDFDataUnit} backed by a repository, used in tests.
+ */
+public class InMemoryRdfDataUnit extends InMemoryMetadataDataUnit implements WritableRDFDataUnit {
+
+    private static class Iteration extends ListIteration<RDFDataUnit.Entry> implements RDFDataUnit.Iteration {
+
+        Iteration(List<RDFDataUnit.Entry> entries) {
+            super(entries);
+        }
+
+    }
+
+    private final IRI predicate;
+
+    public InMemoryRdfDataUnit(Repository repository, String name) {
+        super(repository, name);
+        this.predicate = valueFactory.createIRI(RDFDataUnit.PREDICATE_DATAGRAPH_URI);
+    }
+
+    @Override
+    protected IRI getEntryPredicate() {
+        return predicate;
+    }
+
+    @Override
+    public RDFDataUnit.Iteration getIteration() throws DataUnitException {
+        final List<RDFDataUnit.Entry> entries = new ArrayList<>();
+        for (EntryData data : loadEntries()) {
+            entries.add(new RdfDataUnitUtils.InMemoryEntry((IRI) data.value, data.symbolicName));
+        }
+        return new Iteration(entries);
+    }
+
+    @Override
+    public IRI getBaseDataGraphURI() throws DataUnitException {
+        return valueFactory.createIRI(baseUri + "graph");
+    }
+
+    @Override
+    public void addExistingDataGraph(String symbolicName, IRI existingDataGraphURI) throws DataUnitException {
+        addEntry(symbolicName, existingDataGraphURI);
+    }
+
+    @Override
+    public IRI addNewDataGraph(String symbolicName) throws DataUnitException {
+        final IRI graph = createIri("graph/");
+        addEntry(symbolicName, graph);
+        return graph;
+    }
+
+    @Override
+    public void updateExistingDataGraph(String symbolicName, IRI newDataGraphURI) throws DataUnitException {
+        throw new UnsupportedOperationException();
+    }
+
+}
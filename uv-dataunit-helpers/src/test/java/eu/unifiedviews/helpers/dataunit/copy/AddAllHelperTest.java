@@ -0,0 +1,206 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dataunit.copy;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.query.MalformedQueryException;
+import org.eclipse.rdf4j.query.QueryLanguage;
+import org.eclipse.rdf4j.query.Update;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.eclipse.rdf4j.repository.base.RepositoryConnectionWrapper;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.sail.memory.MemoryStore;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.unifiedviews.dataunit.DataUnitException;
+import eu.unifiedviews.dataunit.rdf.RDFDataUnit;
+import eu.unifiedviews.helpers.dataunit.DataUnitUtils;
+import eu.unifiedviews.helpers.dataunit.InMemoryRdfDataUnit;
+import eu.unifiedviews.helpers.dataunit.rdf.RDFHelper;
+
+public class AddAllHelperTest {
+
+    /**
+     * Data unit that fails to merge given source graph.
+     */
+    private static class FailingDataUnit extends InMemoryRdfDataUnit {
+
+        private final IRI failingGraph;
+
+        FailingDataUnit(Repository repository, String name, IRI failingGraph) {
+            super(repository, name);
+            this.failingGraph = failingGraph;
+        }
+
+        @Override
+        public RepositoryConnection getConnection() throws DataUnitException {
+            return new RepositoryConnectionWrapper(repository, super.getConnection()) {
+
+                @Override
+                public Update prepareUpdate(QueryLanguage ql, String update, String baseURI)
+                        throws MalformedQueryException, RepositoryException {
+                    if (update.contains("<" + failingGraph.stringValue() + ">")) {
+                        throw new RepositoryException("Merge failed.");
+                    }
+                    return super.prepareUpdate(ql, update, baseURI);
+                }
+
+            };
+        }
+
+    }
+
+    /**
+     * Data unit that ignores interruption and delays every merge.
+     */
+    private static class SlowDataUnit extends InMemoryRdfDataUnit {
+
+        private final AtomicInteger finished = new AtomicInteger(0);
+
+        SlowDataUnit(Repository repository, String name) {
+            super(repository, name);
+        }
+
+        @Override
+        public RepositoryConnection getConnection() throws DataUnitException {
+            return new RepositoryConnectionWrapper(repository, super.getConnection()) {
+
+                @Override
+                public Update prepareUpdate(QueryLanguage ql, String update, String baseURI)
+                        throws MalformedQueryException, RepositoryException {
+                    final long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+                    long remaining;
+                    while ((remaining = end - System.nanoTime()) > 0) {
+                        try {
+                            TimeUnit.NANOSECONDS.sleep(remaining);
+                        } catch (InterruptedException ex) {
+                            // Ignored as by a long running update.
+                        }
+                    }
+                    finished.incrementAndGet();
+                    return super.prepareUpdate(ql, update, baseURI);
+                }
+
+            };
+        }
+
+    }
+
+    private SailRepository repository;
+
+    private InMemoryRdfDataUnit source;
+
+    private IRI firstGraph;
+
+    private IRI secondGraph;
+
+    @Before
+    public void before() throws DataUnitException {
+        repository = new SailRepository(new MemoryStore());
+        repository.initialize();
+        source = new InMemoryRdfDataUnit(repository, "source");
+        firstGraph = addGraph("first", 3);
+        secondGraph = addGraph("second", 2);
+    }
+
+    @After
+    public void after() {
+        repository.shutDown();
+    }
+
+    @Test
+    public void merge() throws DataUnitException {
+        final InMemoryRdfDataUnit destination = new InMemoryRdfDataUnit(repository, "destination");
+        AddAllHelper.merge(source, destination, new AddAllHelper.Options().setParallelism(2));
+        Assert.assertEquals(1, DataUnitUtils.getEntries(destination, RDFDataUnit.Entry.class).size());
+        final IRI graph = RDFHelper.getGraphsURIArray(destination)[0];
+        try (RepositoryConnection connection = repository.getConnection()) {
+            Assert.assertEquals(5, connection.size(graph));
+        }
+    }
+
+    @Test
+    public void failedMergeLeavesDestinationUnchanged() throws DataUnitException {
+        final InMemoryRdfDataUnit destination = new FailingDataUnit(repository, "destination", secondGraph);
+        long before;
+        try (RepositoryConnection connection = repository.getConnection()) {
+            before = connection.size();
+        }
+        try {
+            AddAllHelper.merge(source, destination, new AddAllHelper.Options().setParallelism(2));
+            Assert.fail("Merge should fail.");
+        } catch (DataUnitException ex) {
+            // Expected.
+        }
+        Assert.assertTrue(DataUnitUtils.getEntries(destination, RDFDataUnit.Entry.class).isEmpty());
+        try (RepositoryConnection connection = repository.getConnection()) {
+            // Data merged from the first graph are removed.
+            Assert.assertEquals(before, connection.size());
+        }
+    }
+
+    @Test
+    public void interruptedMergeWaitsForRunningMerges() throws InterruptedException {
+        final SlowDataUnit destination = new SlowDataUnit(repository, "destination");
+        final Thread caller = Thread.currentThread();
+        final Thread interrupter = new Thread() {
+
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                caller.interrupt();
+            }
+        };
+        interrupter.start();
+        try {
+            AddAllHelper.merge(source, destination, new AddAllHelper.Options().setParallelism(2));
+            Assert.fail("Merge should be interrupted.");
+        } catch (DataUnitException ex) {
+            // Expected.
+        } finally {
+            interrupter.join();
+            Assert.assertTrue("Interrupted flag must be restored.", Thread.interrupted());
+        }
+        Assert.assertEquals(2, destination.finished.get());
+    }
+
+    private IRI addGraph(String symbolicName, int size) throws DataUnitException {
+        final IRI graph = source.addNewDataGraph(symbolicName);
+        try (RepositoryConnection connection = repository.getConnection()) {
+            final ValueFactory valueFactory = connection.getValueFactory();
+            for (int i = 0; i < size; ++i) {
+                connection.add(valueFactory.createIRI(graph.stringValue() + "/s" + i),
+                        valueFactory.createIRI("http://localhost/test/p"), valueFactory.createLiteral(i), graph);
+            }
+        }
+        return graph;
+    }
+
+}
@@ -0,0 +1,156 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dataunit.copy;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.sail.memory.MemoryStore;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.unifiedviews.dataunit.DataUnitException;
+import eu.unifiedviews.dataunit.MetadataDataUnit;
+import eu.unifiedviews.helpers.dataunit.InMemoryFilesDataUnit;
+import eu.unifiedviews.helpers.dataunit.ThroughputTests;
+import eu.unifiedviews.helpers.dataunit.files.FilesVocabulary;
+import eu.unifiedviews.helpers.dataunit.metadata.MetadataVocabulary;
+
+/**
+ * Throughput of {@link CopyHelper} on an in-memory repository. Copies metadata of 10k and 100k entries
+ * one by one, in VALUES batches and all at once. The one by one copy is measured on a sample of entries
+ * only.
+ *
+ * Excluded from the default test run, use {@code mvn test -Pthroughput}.
+ */
+@Category(ThroughputTests.class)
+public class CopyHelperThroughputTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CopyHelperThroughputTest.class);
+
+    /**
+     * Number of entries copied one by one.
+     */
+    private static final int SINGLE_SAMPLE = 1000;
+
+    private SailRepository repository;
+
+    @Before
+    public void before() {
+        repository = new SailRepository(new MemoryStore());
+        repository.initialize();
+    }
+
+    @After
+    public void after() {
+        repository.shutDown();
+    }
+
+    @Test
+    public void copy10k() throws DataUnitException {
+        measure(10000);
+    }
+
+    @Test
+    public void copy100k() throws DataUnitException {
+        measure(100000);
+    }
+
+    private void measure(int size) throws DataUnitException {
+        final InMemoryFilesDataUnit source = new InMemoryFilesDataUnit(repository, "source-" + size, new File("."));
+        final List<String> symbolicNames = populate(source, size);
+
+        final InMemoryFilesDataUnit single = new InMemoryFilesDataUnit(repository, "single-" + size, new File("."));
+        long start = System.nanoTime();
+        try (CopyHelper helper = CopyHelpers.create(source, single)) {
+            for (String symbolicName : symbolicNames.subList(0, SINGLE_SAMPLE)) {
+                helper.copyMetadata(symbolicName);
+            }
+        }
+        final long singleTime = System.nanoTime() - start;
+        Assert.assertEquals(SINGLE_SAMPLE * 2, countStatements(single));
+
+        final InMemoryFilesDataUnit batch = new InMemoryFilesDataUnit(repository, "batch-" + size, new File("."));
+        start = System.nanoTime();
+        try (CopyHelper helper = CopyHelpers.create(source, batch)) {
+            helper.copyMetadata(symbolicNames);
+        }
+        final long batchTime = System.nanoTime() - start;
+        Assert.assertEquals(size * 2, countStatements(batch));
+
+        final InMemoryFilesDataUnit all = new InMemoryFilesDataUnit(repository, "all-" + size, new File("."));
+        start = System.nanoTime();
+        try (CopyHelper helper = CopyHelpers.create(source, all)) {
+            helper.copyAllMetadata();
+        }
+        final long allTime = System.nanoTime() - start;
+        Assert.assertEquals(size * 2, countStatements(all));
+
+        LOG.info("{} entries, one by one: {} entries/s", size, rate(SINGLE_SAMPLE, singleTime));
+        LOG.info("{} entries, VALUES batches: {} entries/s", size, rate(size, batchTime));
+        LOG.info("{} entries, copy all: {} entries/s", size, rate(size, allTime));
+    }
+
+    /**
+     * Add given number of entries, each with a symbolic name and a virtual path.
+     *
+     * @param dataUnit
+     * @param size
+     * @return Symbolic names of added entries.
+     * @throws DataUnitException
+     */
+    private List<String> populate(MetadataDataUnit dataUnit, int size) throws DataUnitException {
+        final List<String> symbolicNames = new ArrayList<>(size);
+        final IRI graph = dataUnit.getMetadataGraphnames().iterator().next();
+        try (RepositoryConnection connection = dataUnit.getConnection()) {
+            final ValueFactory valueFactory = connection.getValueFactory();
+            connection.begin();
+            for (int i = 0; i < size; ++i) {
+                final String symbolicName = "entry-" + i;
+                final IRI entry = valueFactory.createIRI(graph.stringValue() + "/entry/" + i);
+                connection.add(entry, MetadataVocabulary.UV_SYMBOLIC_NAME,
+                        valueFactory.createLiteral(symbolicName), graph);
+                connection.add(entry, FilesVocabulary.UV_VIRTUAL_PATH,
+                        valueFactory.createLiteral("dir/" + symbolicName), graph);
+                symbolicNames.add(symbolicName);
+            }
+            connection.commit();
+        }
+        return symbolicNames;
+    }
+
+    private long countStatements(MetadataDataUnit dataUnit) throws DataUnitException {
+        try (RepositoryConnection connection = dataUnit.getConnection()) {
+            return connection.size(dataUnit.getMetadataGraphnames().iterator().next());
+        }
+    }
+
+    private static long rate(int count, long nanos) {
+        return Math.round(count / (nanos / 1e9));
+    }
+
+}
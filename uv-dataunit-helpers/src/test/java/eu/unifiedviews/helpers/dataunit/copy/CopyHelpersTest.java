@@ -0,0 +1,202 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dataunit.copy;
+
+import org.eclipse.rdf4j.model.BNode;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryResult;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.sail.memory.MemoryStore;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.unifiedviews.dataunit.DataUnitException;
+import eu.unifiedviews.helpers.dataunit.InMemoryRdfDataUnit;
+import eu.unifiedviews.helpers.dataunit.metadata.MetadataVocabulary;
+
+/**
+ * Tests of statement by statement copy, see {@link CopyHelpers#create(eu.unifiedviews.dataunit.MetadataDataUnit,
+ * eu.unifiedviews.dataunit.WritableMetadataDataUnit, int)}.
+ */
+public class CopyHelpersTest {
+
+    private SailRepository repository;
+
+    private ValueFactory valueFactory;
+
+    private InMemoryRdfDataUnit source;
+
+    private InMemoryRdfDataUnit destination;
+
+    private IRI next;
+
+    private IRI label;
+
+    @Before
+    public void before() {
+        repository = new SailRepository(new MemoryStore());
+        repository.initialize();
+        valueFactory = repository.getValueFactory();
+        source = new InMemoryRdfDataUnit(repository, "source");
+        destination = new InMemoryRdfDataUnit(repository, "destination");
+        next = valueFactory.createIRI("http://localhost/test/next");
+        label = valueFactory.createIRI("http://localhost/test/label");
+    }
+
+    @After
+    public void after() {
+        repository.shutDown();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void depthZeroIsRejected() {
+        CopyHelpers.create(source, destination, 0);
+    }
+
+    @Test
+    public void depthOneCopiesOnlyEntry() throws DataUnitException {
+        final IRI entry = addEntry("a");
+        final IRI child = iri("child");
+        add(entry, next, child);
+        add(child, label, valueFactory.createLiteral("child"));
+        copy("a", 1);
+        Assert.assertEquals(2, countCopied());
+        Assert.assertTrue(isCopied(entry, next, child));
+        Assert.assertFalse(isCopied(child, label, null));
+    }
+
+    @Test
+    public void depthLimitsChain() throws DataUnitException {
+        // entry -> 1 -> 2 -> 3 -> 4
+        Resource previous = addEntry("a");
+        for (int i = 1; i <= 4; ++i) {
+            final IRI node = iri("node-" + i);
+            add(previous, next, node);
+            previous = node;
+        }
+        add(previous, label, valueFactory.createLiteral("last"));
+        copy("a", 3);
+        // Statements of the entry, node-1 and node-2.
+        Assert.assertEquals(4, countCopied());
+        Assert.assertTrue(isCopied(iri("node-2"), next, iri("node-3")));
+        Assert.assertFalse(isCopied(iri("node-3"), next, null));
+    }
+
+    @Test
+    public void cycleIsCopiedOnce() throws DataUnitException {
+        final IRI entry = addEntry("a");
+        final IRI other = iri("other");
+        add(entry, next, other);
+        add(other, next, entry);
+        add(other, next, other);
+        copy("a", 10);
+        Assert.assertEquals(4, countCopied());
+        Assert.assertTrue(isCopied(other, next, entry));
+        Assert.assertTrue(isCopied(other, next, other));
+    }
+
+    @Test
+    public void nestedBlankNodesAreCopied() throws DataUnitException {
+        final IRI entry = addEntry("a");
+        final BNode outer = valueFactory.createBNode();
+        final BNode inner = valueFactory.createBNode();
+        add(entry, next, outer);
+        add(outer, next, inner);
+        add(inner, label, valueFactory.createLiteral("inner"));
+        copy("a", 3);
+        Assert.assertEquals(4, countCopied());
+        Assert.assertTrue(isCopied(outer, next, inner));
+        Assert.assertTrue(isCopied(inner, label, valueFactory.createLiteral("inner")));
+    }
+
+    @Test
+    public void copyAllCopiesEveryEntryOnce() throws DataUnitException {
+        final IRI first = addEntry("a");
+        final IRI second = addEntry("b");
+        final IRI shared = iri("shared");
+        add(first, next, shared);
+        add(second, next, shared);
+        add(shared, label, valueFactory.createLiteral("shared"));
+        final CopyHelper helper = CopyHelpers.create(source, destination, 2);
+        try {
+            helper.copyAllMetadata();
+        } finally {
+            helper.close();
+        }
+        Assert.assertEquals(5, countCopied());
+    }
+
+    private IRI iri(String name) {
+        return valueFactory.createIRI("http://localhost/test/node/" + name);
+    }
+
+    /**
+     * Add entry with given symbolic name into the source metadata graph.
+     *
+     * @param symbolicName
+     * @return Entry subject.
+     */
+    private IRI addEntry(String symbolicName) throws DataUnitException {
+        final IRI entry = iri("entry-" + symbolicName);
+        add(entry, MetadataVocabulary.UV_SYMBOLIC_NAME, valueFactory.createLiteral(symbolicName));
+        return entry;
+    }
+
+    private void add(Resource subject, IRI predicate, Value object) throws DataUnitException {
+        try (RepositoryConnection connection = repository.getConnection()) {
+            connection.add(subject, predicate, object, source.getMetadataWriteGraphname());
+        }
+    }
+
+    private void copy(String symbolicName, int depth) throws DataUnitException {
+        final CopyHelper helper = CopyHelpers.create(source, destination, depth);
+        try {
+            helper.copyMetadata(symbolicName);
+        } finally {
+            helper.close();
+        }
+    }
+
+    private long countCopied() throws DataUnitException {
+        long counter = 0;
+        try (RepositoryConnection connection = repository.getConnection()) {
+            final RepositoryResult<Statement> result = connection.getStatements(null, null, null, false,
+                    destination.getMetadataWriteGraphname());
+            while (result.hasNext()) {
+                result.next();
+                ++counter;
+            }
+            result.close();
+        }
+        return counter;
+    }
+
+    private boolean isCopied(Resource subject, IRI predicate, Value object) throws DataUnitException {
+        try (RepositoryConnection connection = repository.getConnection()) {
+            return connection.hasStatement(subject, predicate, object, false,
+                    destination.getMetadataWriteGraphname());
+        }
+    }
+
+}
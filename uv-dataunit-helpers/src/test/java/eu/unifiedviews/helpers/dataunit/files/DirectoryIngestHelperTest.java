@@ -0,0 +1,131 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dataunit.files;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.sail.memory.MemoryStore;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import eu.unifiedviews.dataunit.DataUnitException;
+import eu.unifiedviews.dataunit.files.FilesDataUnit;
+import eu.unifiedviews.helpers.dataunit.DataUnitUtils;
+import eu.unifiedviews.helpers.dataunit.InMemoryFilesDataUnit;
+
+public class DirectoryIngestHelperTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private SailRepository repository;
+
+    private InMemoryFilesDataUnit dataUnit;
+
+    @Before
+    public void before() throws IOException {
+        repository = new SailRepository(new MemoryStore());
+        repository.initialize();
+        dataUnit = new InMemoryFilesDataUnit(repository, "files", folder.newFolder("output"));
+    }
+
+    @After
+    public void after() {
+        repository.shutDown();
+    }
+
+    @Test
+    public void ingestWithSmallQueue() throws Exception {
+        final File root = createTree();
+        // Queue is smaller then number of files, so walking threads must wait for registration.
+        final DirectoryIngestHelper.Metrics metrics = DirectoryIngestHelper.ingest(dataUnit, root, null, 4, 3);
+        Assert.assertEquals(30, metrics.getFiles());
+        final Set<String> names = getSymbolicNames();
+        Assert.assertEquals(30, names.size());
+        Assert.assertTrue(names.contains("dir-2/file-9.xml"));
+        Assert.assertTrue(names.contains("dir-0/file-0.txt"));
+    }
+
+    @Test
+    public void ingestWithGlob() throws Exception {
+        final File root = createTree();
+        DirectoryIngestHelper.ingest(dataUnit, root, "**.xml", 2, 4);
+        final Set<String> names = getSymbolicNames();
+        Assert.assertEquals(15, names.size());
+        for (String name : names) {
+            Assert.assertTrue(name.endsWith(".xml"));
+        }
+    }
+
+    @Test
+    public void linkedDirectoryIsSkipped() throws Exception {
+        final File root = createTree();
+        final File target = new File(root, "dir-0");
+        try {
+            Files.createSymbolicLink(new File(root, "link-dir").toPath(), target.toPath());
+            Files.createSymbolicLink(new File(root, "link-file.xml").toPath(),
+                    new File(target, "file-1.xml").toPath());
+        } catch (UnsupportedOperationException | IOException ex) {
+            Assume.assumeNoException(ex);
+        }
+        final DirectoryIngestHelper.Metrics metrics = DirectoryIngestHelper.ingest(dataUnit, root, null, 2, 4);
+        Assert.assertEquals(31, metrics.getFiles());
+        final Set<String> names = getSymbolicNames();
+        Assert.assertTrue(names.contains("link-file.xml"));
+        Assert.assertFalse(names.contains("link-dir"));
+        for (String name : names) {
+            Assert.assertFalse(name.startsWith("link-dir/"));
+        }
+    }
+
+    /**
+     * Create three directories with ten files each, odd files have xml extension.
+     *
+     * @return Root directory.
+     * @throws IOException
+     */
+    private File createTree() throws IOException {
+        final File root = folder.newFolder("input");
+        for (int i = 0; i < 3; ++i) {
+            final File directory = new File(root, "dir-" + i);
+            directory.mkdir();
+            for (int j = 0; j < 10; ++j) {
+                new File(directory, "file-" + j + (j % 2 == 0 ? ".txt" : ".xml")).createNewFile();
+            }
+        }
+        return root;
+    }
+
+    private Set<String> getSymbolicNames() throws DataUnitException {
+        final Set<String> result = new HashSet<>();
+        for (FilesDataUnit.Entry entry : DataUnitUtils.getEntries(dataUnit, FilesDataUnit.Entry.class)) {
+            result.add(entry.getSymbolicName());
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,177 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dataunit.files;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.sail.memory.MemoryStore;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import eu.unifiedviews.dataunit.DataUnitException;
+import eu.unifiedviews.dataunit.files.FilesDataUnit;
+import eu.unifiedviews.helpers.dataunit.DataUnitUtils;
+import eu.unifiedviews.helpers.dataunit.InMemoryBulkFilesDataUnit;
+import eu.unifiedviews.helpers.dataunit.InMemoryFilesDataUnit;
+import eu.unifiedviews.helpers.dataunit.metadata.MetadataUtils;
+
+public class FilesDataUnitUtilsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private SailRepository repository;
+
+    @Before
+    public void before() {
+        repository = new SailRepository(new MemoryStore());
+        repository.initialize();
+    }
+
+    @After
+    public void after() {
+        repository.shutDown();
+    }
+
+    @Test
+    public void addFiles() throws Exception {
+        final InMemoryFilesDataUnit dataUnit = new InMemoryFilesDataUnit(repository, "files", folder.getRoot());
+        checkAddFiles(dataUnit);
+    }
+
+    @Test
+    public void addFilesInBulk() throws Exception {
+        final InMemoryBulkFilesDataUnit dataUnit = new InMemoryBulkFilesDataUnit(repository, "files",
+                folder.getRoot());
+        checkAddFiles(dataUnit);
+        Assert.assertEquals(1, dataUnit.getBulkCalls());
+    }
+
+    @Test
+    public void createFiles() throws Exception {
+        final InMemoryFilesDataUnit dataUnit = new InMemoryFilesDataUnit(repository, "files", folder.getRoot());
+        checkCreateFiles(dataUnit);
+    }
+
+    @Test
+    public void createFilesInBulk() throws Exception {
+        final InMemoryBulkFilesDataUnit dataUnit = new InMemoryBulkFilesDataUnit(repository, "files",
+                folder.getRoot());
+        checkCreateFiles(dataUnit);
+        Assert.assertEquals(1, dataUnit.getBulkCalls());
+    }
+
+    @Test
+    public void failedAddKeepsPreviousFiles() throws Exception {
+        final InMemoryFilesDataUnit dataUnit = new InMemoryFilesDataUnit(repository, "files", folder.getRoot());
+        dataUnit.addExistingFile("b.txt", folder.newFile("existing").toURI().toString());
+        final Map<String, File> files = new LinkedHashMap<>();
+        files.put("a.txt", folder.newFile("a.txt"));
+        files.put("b.txt", folder.newFile("b.txt"));
+        try {
+            FilesDataUnitUtils.addFiles(dataUnit, files);
+            Assert.fail("Add should fail.");
+        } catch (DataUnitException ex) {
+            // Expected.
+        }
+        // Files are added one by one, so the first one stays but without metadata.
+        Assert.assertEquals(Arrays.asList("a.txt", "b.txt"), symbolicNames(dataUnit));
+        Assert.assertNull(MetadataUtils.getFirst(dataUnit, "a.txt", FilesVocabulary.UV_VIRTUAL_PATH));
+    }
+
+    @Test
+    public void failedBulkAddAddsNothing() throws Exception {
+        final InMemoryBulkFilesDataUnit dataUnit = new InMemoryBulkFilesDataUnit(repository, "files",
+                folder.getRoot());
+        dataUnit.addExistingFile("b.txt", folder.newFile("existing").toURI().toString());
+        final Map<String, File> files = new LinkedHashMap<>();
+        files.put("a.txt", folder.newFile("a.txt"));
+        files.put("b.txt", folder.newFile("b.txt"));
+        try {
+            FilesDataUnitUtils.addFiles(dataUnit, files);
+            Assert.fail("Add should fail.");
+        } catch (DataUnitException ex) {
+            // Expected.
+        }
+        Assert.assertEquals(Arrays.asList("b.txt"), symbolicNames(dataUnit));
+    }
+
+    @Test
+    public void failedBulkCreateAddsNothing() throws Exception {
+        final InMemoryBulkFilesDataUnit dataUnit = new InMemoryBulkFilesDataUnit(repository, "files",
+                folder.getRoot());
+        dataUnit.addExistingFile("b.txt", "http://localhost/remote/b.txt");
+        try {
+            FilesDataUnitUtils.createFiles(dataUnit, Arrays.asList("a.txt", "b.txt"));
+            Assert.fail("Create should fail.");
+        } catch (DataUnitException ex) {
+            // Expected.
+        }
+        Assert.assertEquals(Arrays.asList("b.txt"), symbolicNames(dataUnit));
+        Assert.assertEquals(0, folder.getRoot().list().length);
+    }
+
+    private void checkAddFiles(InMemoryFilesDataUnit dataUnit) throws Exception {
+        final Map<String, File> files = new LinkedHashMap<>();
+        files.put("a.txt", folder.newFile("a.txt"));
+        files.put("dir/b.txt", folder.newFile("b.txt"));
+        final List<FilesDataUnit.Entry> added = FilesDataUnitUtils.addFiles(dataUnit, files);
+        Assert.assertEquals(2, added.size());
+
+        final List<FilesDataUnit.Entry> entries = DataUnitUtils.getEntries(dataUnit, FilesDataUnit.Entry.class);
+        Assert.assertEquals(2, entries.size());
+        for (FilesDataUnit.Entry entry : entries) {
+            Assert.assertEquals(files.get(entry.getSymbolicName()), FilesDataUnitUtils.asFile(entry));
+            Assert.assertEquals(entry.getSymbolicName(), MetadataUtils.getFirst(dataUnit, entry,
+                    FilesVocabulary.UV_VIRTUAL_PATH));
+        }
+    }
+
+    private void checkCreateFiles(InMemoryFilesDataUnit dataUnit) throws Exception {
+        final List<FilesDataUnit.Entry> created = FilesDataUnitUtils.createFiles(dataUnit,
+                Arrays.asList("a.txt", "b.txt"));
+        Assert.assertEquals(2, created.size());
+        Assert.assertEquals("a.txt", created.get(0).getSymbolicName());
+        for (FilesDataUnit.Entry entry : created) {
+            Assert.assertTrue(FilesDataUnitUtils.asFile(entry).exists());
+            Assert.assertEquals(entry.getSymbolicName(), MetadataUtils.getFirst(dataUnit, entry,
+                    FilesVocabulary.UV_VIRTUAL_PATH));
+        }
+        Assert.assertEquals(2, DataUnitUtils.getEntries(dataUnit, FilesDataUnit.Entry.class).size());
+    }
+
+    private static List<String> symbolicNames(InMemoryFilesDataUnit dataUnit) throws DataUnitException {
+        final List<String> result = new ArrayList<>();
+        for (FilesDataUnit.Entry entry : DataUnitUtils.getEntries(dataUnit, FilesDataUnit.Entry.class)) {
+            result.add(entry.getSymbolicName());
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+}
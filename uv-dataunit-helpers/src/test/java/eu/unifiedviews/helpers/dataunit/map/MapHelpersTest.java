@@ -0,0 +1,93 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dataunit.map;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.sail.memory.MemoryStore;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.unifiedviews.helpers.dataunit.InMemoryRdfDataUnit;
+
+public class MapHelpersTest {
+
+    private static final String MAP_NAME = "map";
+
+    private SailRepository repository;
+
+    private InMemoryRdfDataUnit dataUnit;
+
+    @Before
+    public void before() throws Exception {
+        repository = new SailRepository(new MemoryStore());
+        repository.initialize();
+        dataUnit = new InMemoryRdfDataUnit(repository, "rdf");
+    }
+
+    @After
+    public void after() {
+        repository.shutDown();
+    }
+
+    @Test
+    public void getMapsReturnsOnlyRequestedEntries() throws Exception {
+        for (String symbolicName : Arrays.asList("a", "b", "with \"quote\"")) {
+            dataUnit.addNewDataGraph(symbolicName);
+            MapHelpers.putMap(dataUnit, symbolicName, MAP_NAME, Collections.singletonMap("name", symbolicName));
+        }
+        dataUnit.addNewDataGraph("no-map");
+
+        final Map<String, Map<String, String>> maps = MapHelpers.getMaps(dataUnit,
+                Arrays.asList("with \"quote\"", "no-map", "missing", "a"), MAP_NAME);
+
+        Assert.assertEquals(Arrays.asList("with \"quote\"", "no-map", "missing", "a"),
+                new ArrayList<>(maps.keySet()));
+        Assert.assertEquals(Collections.singletonMap("name", "with \"quote\""), maps.get("with \"quote\""));
+        Assert.assertEquals(Collections.singletonMap("name", "a"), maps.get("a"));
+        Assert.assertTrue(maps.get("no-map").isEmpty());
+        Assert.assertTrue(maps.get("missing").isEmpty());
+    }
+
+    @Test
+    public void getMapsSpansMultipleBatches() throws Exception {
+        // One more than a single VALUES batch.
+        final int size = 1001;
+        final List<String> symbolicNames = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            final String symbolicName = "entry-" + i;
+            dataUnit.addNewDataGraph(symbolicName);
+            MapHelpers.putMap(dataUnit, symbolicName, MAP_NAME, Collections.singletonMap("index", "" + i));
+            symbolicNames.add(symbolicName);
+        }
+
+        final Map<String, Map<String, String>> maps = MapHelpers.getMaps(dataUnit, symbolicNames, MAP_NAME);
+
+        Assert.assertEquals(size, maps.size());
+        for (int i = 0; i < size; ++i) {
+            Assert.assertEquals(Collections.singletonMap("index", "" + i), maps.get("entry-" + i));
+        }
+    }
+
+}
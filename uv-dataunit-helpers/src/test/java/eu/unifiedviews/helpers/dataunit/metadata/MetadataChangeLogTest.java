@@ -0,0 +1,248 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dataunit.metadata;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.eclipse.rdf4j.repository.base.RepositoryConnectionWrapper;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.sail.memory.MemoryStore;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.unifiedviews.dataunit.DataUnitException;
+import eu.unifiedviews.dataunit.MetadataDataUnit;
+import eu.unifiedviews.helpers.dataunit.InMemoryFilesDataUnit;
+import eu.unifiedviews.helpers.dataunit.files.FilesDataUnitUtils;
+import eu.unifiedviews.helpers.dataunit.files.FilesVocabulary;
+
+public class MetadataChangeLogTest {
+
+    private SailRepository repository;
+
+    private InMemoryFilesDataUnit first;
+
+    private InMemoryFilesDataUnit second;
+
+    @Before
+    public void before() {
+        repository = new SailRepository(new MemoryStore());
+        repository.initialize();
+        first = new InMemoryFilesDataUnit(repository, "first", new File("."));
+        second = new InMemoryFilesDataUnit(repository, "second", new File("."));
+    }
+
+    @After
+    public void after() {
+        repository.shutDown();
+    }
+
+    @Test
+    public void entryAddedByHelperIsRecorded() throws DataUnitException {
+        try (MetadataChangeLog changeLog = MetadataChangeLog.create(first)) {
+            FilesDataUnitUtils.addFile(first, new File("a.txt"), "a.txt");
+        }
+        // Log is closed, so following entry is not recorded.
+        FilesDataUnitUtils.addFile(first, new File("b.txt"), "b.txt");
+
+        final List<MetadataChangeLog.Change> changes = MetadataChangeLog.readSince(first,
+                new HashMap<IRI, Long>());
+        Assert.assertEquals(1, changes.size());
+        Assert.assertEquals(MetadataChangeLog.ChangeType.ENTRY_ADDED, changes.get(0).getType());
+        Assert.assertEquals("a.txt", changes.get(0).getSymbolicName());
+        Assert.assertEquals(first.getMetadataWriteGraphname(), changes.get(0).getGraph());
+    }
+
+    @Test
+    public void sequenceContinuesInWriteGraph() throws DataUnitException {
+        try (MetadataChangeLog changeLog = MetadataChangeLog.create(first)) {
+            Assert.assertEquals(1, changeLog.entryAdded("a"));
+        }
+        try (MetadataChangeLog changeLog = MetadataChangeLog.create(second)) {
+            Assert.assertEquals(1, changeLog.entryAdded("b"));
+        }
+        try (MetadataChangeLog changeLog = MetadataChangeLog.create(first)) {
+            Assert.assertEquals(2, changeLog.predicateSet("a", FilesVocabulary.UV_VIRTUAL_PATH, "a"));
+        }
+    }
+
+    @Test
+    public void onlyOneLogIsOpen() throws DataUnitException {
+        try (MetadataChangeLog changeLog = MetadataChangeLog.create(first)) {
+            try {
+                MetadataChangeLog.create(first);
+                Assert.fail("Second log must not be opened.");
+            } catch (DataUnitException ex) {
+                // Expected.
+            }
+            // Other data units are not affected.
+            MetadataChangeLog.create(second).close();
+        }
+        // Log can be opened again once closed.
+        MetadataChangeLog.create(first).close();
+    }
+
+    @Test
+    public void logIsStoredOutsideOfMetadataGraph() throws DataUnitException {
+        try (MetadataChangeLog changeLog = MetadataChangeLog.create(first)) {
+            changeLog.entryAdded("a");
+        }
+        final IRI metadataGraph = first.getMetadataWriteGraphname();
+        try (RepositoryConnection connection = repository.getConnection()) {
+            Assert.assertEquals(0, connection.size(metadataGraph));
+            Assert.assertTrue(connection.size(MetadataChangeLog.getLogGraph(metadataGraph)) > 0);
+        }
+        Assert.assertEquals(1, MetadataChangeLog.readSince(first, new HashMap<IRI, Long>()).size());
+    }
+
+    @Test
+    public void mergedGraphsUseOwnCheckpoints() throws DataUnitException {
+        try (MetadataChangeLog changeLog = MetadataChangeLog.create(first)) {
+            changeLog.entryAdded("a");
+        }
+        try (MetadataChangeLog changeLog = MetadataChangeLog.create(second)) {
+            changeLog.entryAdded("b");
+        }
+        final MetadataDataUnit merged = merge(first, second);
+        final Map<IRI, Long> checkpoints = MetadataChangeLog.getLastCheckpoints(merged);
+        Assert.assertEquals(2, checkpoints.size());
+        Assert.assertEquals(2, MetadataChangeLog.readSince(merged, new HashMap<IRI, Long>()).size());
+        Assert.assertTrue(MetadataChangeLog.readSince(merged, checkpoints).isEmpty());
+
+        // Only second upstream data unit has a new change with the same sequence number as the first had.
+        try (MetadataChangeLog changeLog = MetadataChangeLog.create(second)) {
+            changeLog.entryAdded("c");
+        }
+        final List<MetadataChangeLog.Change> changes = MetadataChangeLog.readSince(merged, checkpoints);
+        Assert.assertEquals(1, changes.size());
+        Assert.assertEquals("c", changes.get(0).getSymbolicName());
+        Assert.assertEquals(2, changes.get(0).getSequence());
+        Assert.assertEquals(second.getMetadataWriteGraphname(), changes.get(0).getGraph());
+    }
+
+    @Test
+    public void bufferedChangesAreRecordedOnFlush() throws DataUnitException {
+        FilesDataUnitUtils.addFile(first, new File("a.txt"), "a.txt");
+        try (MetadataChangeLog changeLog = MetadataChangeLog.create(first)) {
+            final WritableMetadataUtilsInstance instance = MetadataUtils.create(first, true);
+            instance.setChangeLog(changeLog).setEntry("a.txt");
+            instance.set(FilesVocabulary.UV_VIRTUAL_PATH, "x");
+            instance.set(FilesVocabulary.UV_VIRTUAL_PATH, "a/a.txt");
+            instance.add(FilesVocabulary.UV_VIRTUAL_PATH, "b/a.txt");
+            changeLog.flush();
+            Assert.assertTrue(MetadataChangeLog.readSince(first, new HashMap<IRI, Long>()).isEmpty());
+            instance.close();
+        }
+        // Repeated set is collapsed as it is in the written metadata.
+        final List<MetadataChangeLog.Change> changes = MetadataChangeLog.readSince(first,
+                new HashMap<IRI, Long>());
+        Assert.assertEquals(2, changes.size());
+        Assert.assertEquals(MetadataChangeLog.ChangeType.PREDICATE_SET, changes.get(0).getType());
+        Assert.assertEquals("a/a.txt", changes.get(0).getValue());
+        Assert.assertEquals(MetadataChangeLog.ChangeType.PREDICATE_ADDED, changes.get(1).getType());
+        Assert.assertEquals("b/a.txt", changes.get(1).getValue());
+    }
+
+    @Test
+    public void failedFlushIsNotRecorded() throws DataUnitException {
+        final boolean[] failWrite = {false};
+        final InMemoryFilesDataUnit dataUnit = new InMemoryFilesDataUnit(repository, "failing", new File(".")) {
+
+            @Override
+            public RepositoryConnection getConnection() throws DataUnitException {
+                return new RepositoryConnectionWrapper(repository, super.getConnection()) {
+
+                    @Override
+                    public void add(Resource subject, IRI predicate, Value object, Resource... contexts) {
+                        if (failWrite[0]) {
+                            throw new RepositoryException("Write failed.");
+                        }
+                        super.add(subject, predicate, object, contexts);
+                    }
+
+                };
+            }
+
+        };
+        FilesDataUnitUtils.addFile(dataUnit, new File("a.txt"), "a.txt");
+        try (MetadataChangeLog changeLog = MetadataChangeLog.create(dataUnit)) {
+            final WritableMetadataUtilsInstance instance = MetadataUtils.create(dataUnit, true);
+            instance.setChangeLog(changeLog).setEntry("a.txt");
+            instance.set(FilesVocabulary.UV_VIRTUAL_PATH, "a/a.txt");
+            failWrite[0] = true;
+            try {
+                instance.flush();
+                Assert.fail("Flush must fail.");
+            } catch (DataUnitException ex) {
+                // Expected.
+            } finally {
+                failWrite[0] = false;
+            }
+            changeLog.flush();
+            Assert.assertTrue(MetadataChangeLog.readSince(dataUnit, new HashMap<IRI, Long>()).isEmpty());
+            // Changes are kept, so they are written and recorded once by the next flush.
+            instance.close();
+        }
+        final List<MetadataChangeLog.Change> changes = MetadataChangeLog.readSince(dataUnit,
+                new HashMap<IRI, Long>());
+        Assert.assertEquals(1, changes.size());
+        Assert.assertEquals("a/a.txt", changes.get(0).getValue());
+    }
+
+    /**
+     *
+     * @param dataUnits
+     * @return Read-only data unit with metadata graphs of all given data units.
+     */
+    private MetadataDataUnit merge(final MetadataDataUnit... dataUnits) {
+        return new MetadataDataUnit() {
+
+            @Override
+            public RepositoryConnection getConnection() throws DataUnitException {
+                return repository.getConnection();
+            }
+
+            @Override
+            public Set<IRI> getMetadataGraphnames() throws DataUnitException {
+                final Set<IRI> result = new HashSet<>();
+                for (MetadataDataUnit dataUnit : dataUnits) {
+                    result.addAll(dataUnit.getMetadataGraphnames());
+                }
+                return result;
+            }
+
+            @Override
+            public MetadataDataUnit.Iteration getIteration() throws DataUnitException {
+                throw new UnsupportedOperationException();
+            }
+
+        };
+    }
+
+}
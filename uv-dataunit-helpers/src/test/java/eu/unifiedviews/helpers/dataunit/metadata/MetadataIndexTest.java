@@ -0,0 +1,112 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dataunit.metadata;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.sail.memory.MemoryStore;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.unifiedviews.dataunit.DataUnitException;
+import eu.unifiedviews.helpers.dataunit.InMemoryRdfDataUnit;
+import eu.unifiedviews.helpers.dataunit.files.FilesVocabulary;
+
+public class MetadataIndexTest {
+
+    private SailRepository repository;
+
+    private InMemoryRdfDataUnit dataUnit;
+
+    @Before
+    public void before() {
+        repository = new SailRepository(new MemoryStore());
+        repository.initialize();
+        dataUnit = new InMemoryRdfDataUnit(repository, "rdf");
+    }
+
+    @After
+    public void after() {
+        repository.shutDown();
+    }
+
+    @Test
+    public void duplicateKeys() throws DataUnitException {
+        // "b" has two values, "a" and "c" share the same value.
+        addEntry("c", "shared");
+        addEntry("b", "first", "second");
+        addEntry("a", "shared");
+        addEntry("d", "own");
+
+        final MetadataIndex index = MetadataIndex.create(dataUnit, FilesVocabulary.UV_VIRTUAL_PATH);
+
+        // Forward direction, each symbolic name is present once.
+        Assert.assertEquals(4, index.size());
+        Assert.assertTrue(Arrays.asList("first", "second").contains(index.get("b")));
+        Assert.assertEquals("shared", index.get("a"));
+        Assert.assertNull(index.get("missing"));
+        final Map<String, String> forward = index.asMap();
+        Assert.assertEquals(4, forward.size());
+        Assert.assertEquals(4, forward.entrySet().size());
+        Assert.assertEquals(Arrays.asList("a", "b", "c", "d"), new ArrayList<>(forward.keySet()));
+        Assert.assertTrue(forward.containsKey("b"));
+        Assert.assertFalse(forward.containsKey("missing"));
+
+        // Reverse direction, each value is present once.
+        Assert.assertEquals(Arrays.asList("a", "c"), index.getSymbolicNames("shared"));
+        Assert.assertEquals(Collections.singletonList("b"), index.getSymbolicNames("second"));
+        Assert.assertTrue(index.getSymbolicNames("missing").isEmpty());
+        Assert.assertTrue(Arrays.asList("a", "c").contains(index.getSymbolicName("shared")));
+        final Map<String, String> reverse = index.asReverseMap();
+        Assert.assertEquals(4, reverse.size());
+        Assert.assertEquals(Arrays.asList("first", "own", "second", "shared"), new ArrayList<>(reverse.keySet()));
+    }
+
+    @Test
+    public void empty() throws DataUnitException {
+        final MetadataIndex index = MetadataIndex.create(dataUnit, FilesVocabulary.UV_VIRTUAL_PATH);
+        Assert.assertEquals(0, index.size());
+        Assert.assertTrue(index.asMap().isEmpty());
+        Assert.assertFalse(index.asReverseMap().entrySet().iterator().hasNext());
+        Assert.assertNull(index.getSymbolicName("any"));
+    }
+
+    private void addEntry(String symbolicName, String... virtualPaths) throws DataUnitException {
+        final IRI graph = dataUnit.getMetadataWriteGraphname();
+        try (RepositoryConnection connection = dataUnit.getConnection()) {
+            final ValueFactory valueFactory = connection.getValueFactory();
+            final IRI entry = valueFactory.createIRI(graph.stringValue() + "/entry/" + symbolicName);
+            connection.add(entry, MetadataVocabulary.UV_SYMBOLIC_NAME, valueFactory.createLiteral(symbolicName),
+                    graph);
+            for (String virtualPath : virtualPaths) {
+                connection.add(entry, FilesVocabulary.UV_VIRTUAL_PATH, valueFactory.createLiteral(virtualPath),
+                        graph);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,120 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dataunit.metadata;
+
+import java.io.File;
+
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.sail.memory.MemoryStore;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.unifiedviews.dataunit.DataUnitException;
+import eu.unifiedviews.helpers.dataunit.InMemoryFilesDataUnit;
+import eu.unifiedviews.helpers.dataunit.files.FilesVocabulary;
+
+/**
+ * Micro-benchmark of {@link MetadataUtilsInstance#getFirst(org.eclipse.rdf4j.model.IRI)} on an in-memory
+ * repository. Compares a new instance for every call, which prepares the query on every call, with a single
+ * reused instance, which prepares the query only once.
+ */
+public class MetadataUtilsInstanceBenchmarkTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MetadataUtilsInstanceBenchmarkTest.class);
+
+    private static final int ENTRIES = 500;
+
+    private static final int ROUNDS = 4;
+
+    private SailRepository repository;
+
+    private InMemoryFilesDataUnit dataUnit;
+
+    @Before
+    public void before() throws DataUnitException {
+        repository = new SailRepository(new MemoryStore());
+        repository.initialize();
+        dataUnit = new InMemoryFilesDataUnit(repository, "benchmark", new File("."));
+        try (WritableMetadataUtilsInstance instance = MetadataUtils.create(dataUnit)) {
+            for (int i = 0; i < ENTRIES; ++i) {
+                dataUnit.addExistingFile(symbolicName(i), "file:/" + i);
+                instance.setEntry(symbolicName(i)).set(FilesVocabulary.UV_VIRTUAL_PATH, path(i));
+            }
+        }
+    }
+
+    @After
+    public void after() {
+        repository.shutDown();
+    }
+
+    @Test
+    public void preparedQueryReuse() throws DataUnitException {
+        long perCall = 0;
+        long reused = 0;
+        // First round is a warm up.
+        for (int round = 0; round < ROUNDS; ++round) {
+            final long perCallTime = runPerCall();
+            final long reusedTime = runReused();
+            if (round > 0) {
+                perCall += perCallTime;
+                reused += reusedTime;
+            }
+        }
+        final int calls = ENTRIES * (ROUNDS - 1);
+        LOG.info("getFirst, new instance per call: {} us/call", perCall / 1000 / calls);
+        LOG.info("getFirst, reused instance:       {} us/call", reused / 1000 / calls);
+    }
+
+    private long runPerCall() throws DataUnitException {
+        final long start = System.nanoTime();
+        try (RepositoryConnection connection = dataUnit.getConnection()) {
+            for (int i = 0; i < ENTRIES; ++i) {
+                try (MetadataUtilsInstance instance = MetadataUtils.create(dataUnit, symbolicName(i), connection)) {
+                    Assert.assertEquals(path(i), instance.getFirst(FilesVocabulary.UV_VIRTUAL_PATH).stringValue());
+                }
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private long runReused() throws DataUnitException {
+        final long start = System.nanoTime();
+        try (RepositoryConnection connection = dataUnit.getConnection();
+                MetadataUtilsInstance instance = MetadataUtils.create(dataUnit, (String) null, connection)) {
+            for (int i = 0; i < ENTRIES; ++i) {
+                instance.setEntry(symbolicName(i));
+                Assert.assertEquals(path(i), instance.getFirst(FilesVocabulary.UV_VIRTUAL_PATH).stringValue());
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static String symbolicName(int index) {
+        return "entry-" + index;
+    }
+
+    private static String path(int index) {
+        return "dir/file-" + index + ".txt";
+    }
+
+}
@@ -0,0 +1,157 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dataunit.resource;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.sail.memory.MemoryStore;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.unifiedviews.dataunit.DataUnitException;
+import eu.unifiedviews.helpers.dataunit.InMemoryRdfDataUnit;
+import eu.unifiedviews.helpers.dataunit.ThroughputTests;
+
+/**
+ * Throughput of {@link ResourceConverter} alone and of storing and loading resources through
+ * {@link ResourceHelpers} on an in-memory repository.
+ *
+ * Excluded from the default test run, use {@code mvn test -Pthroughput}.
+ */
+@Category(ThroughputTests.class)
+public class ResourceConversionThroughputTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ResourceConversionThroughputTest.class);
+
+    /**
+     * Number of resources converted to and from maps.
+     */
+    private static final int CONVERT_SIZE = 100000;
+
+    /**
+     * Number of resources stored into and loaded from the repository.
+     */
+    private static final int STORE_SIZE = 10000;
+
+    private SailRepository repository;
+
+    @Before
+    public void before() {
+        repository = new SailRepository(new MemoryStore());
+        repository.initialize();
+    }
+
+    @After
+    public void after() {
+        repository.shutDown();
+    }
+
+    @Test
+    public void convert() throws ParseException {
+        final List<Resource> resources = createResources(CONVERT_SIZE);
+        final List<Map<String, String>> maps = new ArrayList<>(CONVERT_SIZE);
+        long start = System.nanoTime();
+        for (Resource resource : resources) {
+            maps.add(ResourceConverter.resourceToMap(resource));
+        }
+        final long toMapTime = System.nanoTime() - start;
+
+        final List<Resource> converted = new ArrayList<>(CONVERT_SIZE);
+        start = System.nanoTime();
+        for (Map<String, String> map : maps) {
+            converted.add(ResourceConverter.resourceFromMap(map));
+        }
+        final long fromMapTime = System.nanoTime() - start;
+
+        // Extras are converted separately.
+        for (int i = 0; i < CONVERT_SIZE; i += 1000) {
+            Assert.assertEquals(maps.get(i), ResourceConverter.resourceToMap(converted.get(i)));
+        }
+        LOG.info("{} resources, to map: {} resources/s", CONVERT_SIZE, rate(CONVERT_SIZE, toMapTime));
+        LOG.info("{} resources, from map: {} resources/s", CONVERT_SIZE, rate(CONVERT_SIZE, fromMapTime));
+    }
+
+    @Test
+    public void storeAndLoad() throws DataUnitException {
+        final InMemoryRdfDataUnit dataUnit = new InMemoryRdfDataUnit(repository, "rdf");
+        final List<Resource> resources = createResources(STORE_SIZE);
+        for (int i = 0; i < STORE_SIZE; ++i) {
+            dataUnit.addNewDataGraph("entry-" + i);
+        }
+
+        long start = System.nanoTime();
+        try (ResourceHelper helper = ResourceHelpers.createCached(dataUnit)) {
+            for (int i = 0; i < STORE_SIZE; ++i) {
+                helper.setResource("entry-" + i, resources.get(i));
+            }
+            helper.flush();
+        }
+        final long storeTime = System.nanoTime() - start;
+
+        final List<Resource> loaded = new ArrayList<>(STORE_SIZE);
+        start = System.nanoTime();
+        try (ResourceHelper helper = ResourceHelpers.create(dataUnit)) {
+            for (int i = 0; i < STORE_SIZE; ++i) {
+                loaded.add(helper.getResource("entry-" + i));
+            }
+        }
+        final long loadTime = System.nanoTime() - start;
+
+        for (int i = 0; i < STORE_SIZE; i += 100) {
+            assertEquals(resources.get(i), loaded.get(i));
+        }
+        LOG.info("{} resources, store: {} resources/s", STORE_SIZE, rate(STORE_SIZE, storeTime));
+        LOG.info("{} resources, load: {} resources/s", STORE_SIZE, rate(STORE_SIZE, loadTime));
+    }
+
+    private static List<Resource> createResources(int size) {
+        final List<Resource> resources = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            final Resource resource = new Resource();
+            resource.setName("name-" + i);
+            resource.setDescription("description of " + i);
+            resource.setMimetype("text/plain");
+            resource.setSize((long) i);
+            // Dates are stored with a precision of seconds.
+            resource.setCreated(new Date(1500000000000L + i * 1000L));
+            resource.setLast_modified(new Date(1500000000000L + i * 2000L));
+            resource.getExtras().getMap().put("source", "source-" + i);
+            resources.add(resource);
+        }
+        return resources;
+    }
+
+    private static void assertEquals(Resource expected, Resource actual) {
+        Assert.assertEquals(ResourceConverter.resourceToMap(expected), ResourceConverter.resourceToMap(actual));
+        Assert.assertEquals(expected.getExtras().getMap(), actual.getExtras().getMap());
+    }
+
+    private static long rate(int count, long nanos) {
+        return Math.round(count / (nanos / 1e9));
+    }
+
+}
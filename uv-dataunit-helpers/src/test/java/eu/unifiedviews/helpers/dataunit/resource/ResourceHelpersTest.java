@@ -0,0 +1,128 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dataunit.resource;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.eclipse.rdf4j.repository.base.RepositoryConnectionWrapper;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.sail.memory.MemoryStore;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.unifiedviews.dataunit.DataUnitException;
+import eu.unifiedviews.helpers.dataunit.InMemoryRdfDataUnit;
+
+public class ResourceHelpersTest {
+
+    private SailRepository repository;
+
+    @Before
+    public void before() {
+        repository = new SailRepository(new MemoryStore());
+        repository.initialize();
+    }
+
+    @After
+    public void after() {
+        repository.shutDown();
+    }
+
+    @Test
+    public void cachedResourcesAreWrittenOnFlush() throws Exception {
+        final InMemoryRdfDataUnit dataUnit = new InMemoryRdfDataUnit(repository, "rdf");
+        dataUnit.addNewDataGraph("a");
+        final ResourceHelper helper = ResourceHelpers.createCached(dataUnit);
+        try {
+            helper.setResource("a", createResource("name-a"));
+            Assert.assertNull(ResourceHelpers.getResource(dataUnit, "a").getName());
+            helper.flush();
+        } finally {
+            helper.close();
+        }
+        final Resource resource = ResourceHelpers.getResource(dataUnit, "a");
+        Assert.assertEquals("name-a", resource.getName());
+        Assert.assertEquals("value", resource.getExtras().getMap().get("source"));
+    }
+
+    @Test
+    public void cachedResourcesAreWrittenOnClose() throws Exception {
+        final InMemoryRdfDataUnit dataUnit = new InMemoryRdfDataUnit(repository, "rdf");
+        dataUnit.addNewDataGraph("a");
+        try (ResourceHelper helper = ResourceHelpers.createCached(dataUnit)) {
+            helper.setResource("a", createResource("name-a"));
+        }
+        Assert.assertEquals("name-a", ResourceHelpers.getResource(dataUnit, "a").getName());
+    }
+
+    @Test
+    public void failedFlushWritesNothingAndCloseFails() throws Exception {
+        final InMemoryRdfDataUnit dataUnit = new InMemoryRdfDataUnit(repository, "rdf") {
+
+            @Override
+            public RepositoryConnection getConnection() throws DataUnitException {
+                return new RepositoryConnectionWrapper(repository, super.getConnection()) {
+
+                    @Override
+                    public void add(org.eclipse.rdf4j.model.Resource subject, IRI predicate, Value object,
+                            org.eclipse.rdf4j.model.Resource... contexts) throws RepositoryException {
+                        // Fail on the extras map, after the resource map is written.
+                        if (ResourceHelper.EXTRAS_STORAGE_MAP_NAME.equals(object.stringValue())) {
+                            throw new RepositoryException("Connection lost.");
+                        }
+                        super.add(subject, predicate, object, contexts);
+                    }
+
+                };
+            }
+
+        };
+        dataUnit.addNewDataGraph("a");
+        final ResourceHelper helper = ResourceHelpers.createCached(dataUnit);
+        try {
+            helper.setResource("a", createResource("name-a"));
+            try {
+                helper.flush();
+                Assert.fail("Flush should fail.");
+            } catch (DataUnitException ex) {
+                // Expected.
+            }
+        } finally {
+            try {
+                helper.close();
+                Assert.fail("Close should fail.");
+            } catch (IllegalStateException ex) {
+                // Expected, changes are not dropped silently.
+            }
+        }
+        Assert.assertNull(ResourceHelpers.getResource(dataUnit, "a").getName());
+    }
+
+    private static Resource createResource(String name) {
+        final Resource resource = new Resource();
+        resource.setName(name);
+        final Extras extras = new Extras();
+        extras.getMap().put("source", "value");
+        resource.setExtras(extras);
+        return resource;
+    }
+
+}
@@ -0,0 +1,75 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dataunit.utils;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import org.eclipse.rdf4j.query.parser.sparql.SPARQLUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConvertUtilsTest {
+
+    @Test
+    public void dateRoundTrip() throws ParseException {
+        // Milliseconds are not stored.
+        final Date date = new Date(1500000000000L);
+        final String value = ConvertUtils.dateToString(date);
+        Assert.assertEquals(date, ConvertUtils.stringToDate(value));
+        Assert.assertEquals(value, ConvertUtils.dateToString(ConvertUtils.stringToDate(value)));
+    }
+
+    @Test
+    public void sqlDateRoundTrip() throws ParseException {
+        final java.sql.Date date = new java.sql.Date(1500000000000L);
+        final String value = ConvertUtils.dateToString(date);
+        Assert.assertEquals(date.getTime(), ConvertUtils.stringToDate(value).getTime());
+    }
+
+    @Test
+    public void nullAndBlank() throws ParseException {
+        Assert.assertNull(ConvertUtils.dateToString(null));
+        Assert.assertNull(ConvertUtils.stringToDate(null));
+        Assert.assertNull(ConvertUtils.stringToDate(" "));
+    }
+
+    @Test
+    public void parseIsLenientAsSimpleDateFormat() throws ParseException {
+        final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
+        for (String value : new String[]{"2017-07-14T02:40:00", "2017-7-4T2:4:0", "2017-13-01T00:00:00",
+            "2017-02-30T25:61:61", "2017-07-14T02:40:00.123Z"}) {
+            Assert.assertEquals(value, format.parse(value), ConvertUtils.stringToDate(value));
+        }
+    }
+
+    @Test(expected = ParseException.class)
+    public void invalidDate() throws ParseException {
+        ConvertUtils.stringToDate("14.07.2017");
+    }
+
+    @Test
+    public void sparqlLiteralEscapesAllCharacters() {
+        final String value = "a\\b\"c'd\te\bf\ng\rh\fi \u00e9";
+        final String literal = ConvertUtils.toSparqlLiteral(value);
+        Assert.assertEquals("\"a\\\\b\\\"c\\'d\\te\\bf\\ng\\rh\\fi \u00e9\"", literal);
+        final String body = literal.substring(1, literal.length() - 1);
+        Assert.assertEquals(value, SPARQLUtil.decodeString(body));
+    }
+
+}
@@ -0,0 +1,120 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dataunit.virtualpath;
+
+import java.nio.file.FileSystems;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class VirtualPathTreeTest {
+
+    private VirtualPathTree tree;
+
+    @Before
+    public void before() {
+        tree = new VirtualPathTree();
+        tree.add("aab", "a/a/b");
+        tree.add("ab", "/a/b/");
+        tree.add("b", "b");
+        tree.add("csv-2023", "data/2023/x.csv");
+        tree.add("txt-2023", "data/2023/x.txt");
+        tree.add("csv-2024", "data/2024/y.csv");
+        tree.add("csv-other", "data/other/z.csv");
+    }
+
+    @Test
+    public void nodes() {
+        Assert.assertEquals(7, tree.getRoot().getCount());
+        Assert.assertEquals(4, tree.getCount("data"));
+        Assert.assertEquals(2, tree.getCount("/data//2023/"));
+        Assert.assertEquals(0, tree.getCount("missing"));
+        Assert.assertEquals(Arrays.asList("csv-2023", "txt-2023"), tree.getSymbolicNames("data/2023"));
+        Assert.assertEquals("data/2023", tree.getNode("data/2023").getPath());
+    }
+
+    @Test
+    public void glob() {
+        Assert.assertEquals(Arrays.asList("csv-2023", "csv-2024"), sorted(tree.match("data/20??/*.csv")));
+        Assert.assertEquals(Arrays.asList("csv-2023", "txt-2023"), sorted(tree.match("data/2023/x.*")));
+        Assert.assertEquals(Collections.singletonList("b"), sorted(tree.match("b")));
+        Assert.assertTrue(tree.match("data/20?/*").isEmpty());
+    }
+
+    @Test
+    public void anyDirectories() {
+        Assert.assertEquals(Arrays.asList("csv-2023", "csv-2024", "csv-other"), sorted(tree.match("**/*.csv")));
+        Assert.assertEquals(Arrays.asList("csv-2023", "csv-2024", "csv-other"), sorted(tree.match("**.csv")));
+        Assert.assertEquals(Arrays.asList("csv-2023", "csv-2024", "csv-other"), sorted(tree.match("data/**.csv")));
+        // "**/" requires at least one directory.
+        Assert.assertEquals(Arrays.asList("aab", "ab"), sorted(tree.match("**/b")));
+        Assert.assertEquals(7, tree.match("**").size());
+    }
+
+    @Test
+    public void groupsAndRanges() {
+        Assert.assertEquals(Arrays.asList("csv-2023", "txt-2023"), sorted(tree.match("data/2023/x.{csv,txt}")));
+        Assert.assertEquals(Arrays.asList("ab", "csv-2024"), sorted(tree.match("{a/b,data/2024/*}")));
+        Assert.assertEquals(Arrays.asList("csv-2023", "csv-2024"), sorted(tree.match("data/*/[xy].csv")));
+    }
+
+    /**
+     * Tree must give the same result as {@link PathMatcher} used by DirectoryIngestHelper.
+     */
+    @Test
+    public void sameAsPathMatcher() {
+        final String[] paths = {"a/a/b", "a/b", "b", "data/2023/x.csv", "data/2023/x.txt", "data/2024/y.csv",
+            "data/other/z.csv"};
+        final String[] symbolicNames = {"aab", "ab", "b", "csv-2023", "txt-2023", "csv-2024", "csv-other"};
+        for (String glob : new String[]{"*", "*/*", "**", "**/*", "a/**", "**/a/**/b", "**b", "data/*/*.csv",
+            "data/**/x.*", "d*/2*/**", "{a,b}", "{a,data}/**", "data/20[0-9][3]/*", "?/?", "**/other/*"}) {
+            final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+            final List<String> expected = new ArrayList<>();
+            for (int i = 0; i < paths.length; ++i) {
+                if (matcher.matches(Paths.get(paths[i]))) {
+                    expected.add(symbolicNames[i]);
+                }
+            }
+            Assert.assertEquals(glob, sorted(expected), sorted(tree.match(glob)));
+        }
+    }
+
+    @Test
+    public void pathIsDerivedFromParents() {
+        Assert.assertEquals("", tree.getRoot().getPath());
+        Assert.assertEquals("a", tree.getNode("a").getPath());
+        Assert.assertEquals("a/a/b", tree.getNode("/a/a/b").getPath());
+        Assert.assertEquals("b", tree.getNode("a/a/b").getName());
+    }
+
+    /**
+     * Match returns entries in order of traversal, duplicities are kept.
+     */
+    private static List<String> sorted(List<String> symbolicNames) {
+        final List<String> result = new ArrayList<>(symbolicNames);
+        Collections.sort(result);
+        return result;
+    }
+
+}
@@ -30,6 +30,7 @@ import org.slf4j.LoggerFactory;
 
 import eu.unifiedviews.dpu.config.vaadin.AbstractConfigDialog;
 import eu.unifiedviews.dpu.config.vaadin.ConfigDialogProvider;
+import eu.unifiedviews.helpers.dataunit.EntryCache;
 import eu.unifiedviews.helpers.dpu.config.ConfigException;
 import eu.unifiedviews.helpers.dpu.config.ConfigHistory;
 import eu.unifiedviews.helpers.dpu.config.MasterConfigObject;
@@ -98,6 +99,17 @@ public abstract class AbstractDpu<CONFIG> implements DPU, DPUConfigurable,
 
     @Override
     public void execute(DPUContext context) throws DPUException {
+        // Entries of input data units are shared by DPU and extensions during the execution.
+        EntryCache.bind(this.masterContext.getEntryCache());
+        try {
+            executeInner(context);
+        } finally {
+            EntryCache.unbind();
+            this.masterContext.getEntryCache().clear();
+        }
+    }
+
+    private void executeInner(DPUContext context) throws DPUException {
         // Set master configuration and initialize ConfigTransformer -> initialize addons.
         this.masterContext.init(configAsString, context);
         // ConfigTransformer are ready from setConfiguration method -> get DPU configuration.
@@ -0,0 +1,371 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dpu.exec;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.unifiedviews.dataunit.DataUnitException;
+import eu.unifiedviews.dataunit.MetadataDataUnit;
+import eu.unifiedviews.dpu.DPUContext;
+import eu.unifiedviews.dpu.DPUException;
+import eu.unifiedviews.helpers.dataunit.DataUnitUtils;
+import eu.unifiedviews.helpers.dataunit.EntryCache;
+import eu.unifiedviews.helpers.dataunit.EntryIterationException;
+import eu.unifiedviews.helpers.dataunit.EntrySpliterator;
+import eu.unifiedviews.helpers.dpu.extension.faulttolerance.FaultTolerance;
+
+/**
+ * Process entries of a data unit in parallel. Entries are read on the calling thread and handed over to
+ * a bounded pool of workers, each worker uses its own {@link RepositoryConnection} for all entries it
+ * process.
+ *
+ * Sample usage:
+ * <pre>
+ * {@code
+ * EntryProcessor.forEachParallel(ctx, inFilesData, FilesDataUnit.Entry.class, 8,
+ *      new EntryProcessor.EntryAction<FilesDataUnit.Entry>() {
+ *
+ *          public void action(FilesDataUnit.Entry entry, RepositoryConnection connection) throws Exception {
+ *              // Process single entry.
+ *          }
+ *      });
+ * }
+ * </pre>
+ *
+ * If {@link FaultTolerance} is used then each entry is processed as a single fault tolerant operation, so
+ * the action can be executed more then once for the same entry. In case of failure the worker's connection
+ * is closed and a new one is used for the next attempt. Entries are read as a stream also with
+ * {@link FaultTolerance}, if reading fails then the iteration is opened again and entries that were already
+ * submitted are skipped.
+ */
+public class EntryProcessor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EntryProcessor.class);
+
+    /**
+     * Number of entries that can wait in queue per single worker.
+     */
+    private static final int QUEUE_SIZE_PER_WORKER = 4;
+
+    /**
+     * Time in milliseconds for which workers and reader wait on queue before checking for cancel or failure.
+     */
+    private static final long POLL_TIMEOUT = 100;
+
+    /**
+     * Interface to wrap user code executed for every entry.
+     *
+     * @param <E> Type of entry.
+     */
+    public interface EntryAction<E> {
+
+        /**
+         * Put your code inside this method. Method is called from multiple threads at the same time and
+         * if {@link FaultTolerance} is used it can be executed more then once for the same entry!
+         *
+         * @param entry      Entry to process.
+         * @param connection Connection into the processed data unit owned by the calling worker, do not close it.
+         * @throws Exception
+         */
+        void action(E entry, RepositoryConnection connection) throws Exception;
+
+    }
+
+    private EntryProcessor() {
+
+    }
+
+    /**
+     * Process entries in parallel, {@link FaultTolerance} is used if presented in given context.
+     *
+     * @param <T>
+     * @param <E>
+     * @param ctx
+     * @param dataUnit
+     * @param entryClass
+     * @param parallelism Number of workers, if less then one number of available processors is used.
+     * @param action
+     * @throws DPUException First failure of any worker, or if the execution was cancelled.
+     */
+    public static <T extends MetadataDataUnit, E extends T.Entry> void forEachParallel(UserExecContext ctx,
+            T dataUnit, Class<E> entryClass, int parallelism, EntryAction<E> action) throws DPUException {
+        final ExecContext<?> execContext = ctx.getExecMasterContext();
+        forEachParallel(execContext.getDpuContext(), execContext.getInstance(FaultTolerance.class), dataUnit,
+                entryClass, parallelism, action);
+    }
+
+    /**
+     * Process entries in parallel.
+     *
+     * @param <T>
+     * @param <E>
+     * @param dpuContext     Used to check for cancellation.
+     * @param faultTolerance Can be null.
+     * @param dataUnit
+     * @param entryClass
+     * @param parallelism    Number of workers, if less then one number of available processors is used.
+     * @param action
+     * @throws DPUException First failure of any worker, or if the execution was cancelled.
+     */
+    public static <T extends MetadataDataUnit, E extends T.Entry> void forEachParallel(DPUContext dpuContext,
+            FaultTolerance faultTolerance, final T dataUnit, final Class<E> entryClass, int parallelism,
+            EntryAction<E> action) throws DPUException {
+        if (parallelism < 1) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        final Execution<E> execution = new Execution<>(dpuContext, faultTolerance, dataUnit, action,
+                parallelism * QUEUE_SIZE_PER_WORKER);
+        // Start workers.
+        final ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        final List<Future<?>> futures = new ArrayList<>(parallelism);
+        try {
+            for (int i = 0; i < parallelism; ++i) {
+                futures.add(executor.submit(execution.new Worker()));
+            }
+            // Read entries on this thread.
+            if (faultTolerance == null) {
+                try (EntrySpliterator<E> spliterator = DataUnitUtils.spliterator(dataUnit, entryClass)) {
+                    execution.submitAll(Spliterators.iterator(spliterator), 0);
+                } catch (DataUnitException | EntryIterationException ex) {
+                    execution.fail(new DPUException("Can't read entries.", ex));
+                }
+            } else {
+                try {
+                    faultTolerance.execute(new FaultTolerance.Action() {
+
+                        @Override
+                        public void action() throws Exception {
+                            // Skip entries submitted by the failed attempts.
+                            final long skip = execution.submitted;
+                            try (EntrySpliterator<E> spliterator = DataUnitUtils.spliterator(dataUnit,
+                                    entryClass)) {
+                                execution.submitAll(Spliterators.iterator(spliterator), skip);
+                            }
+                        }
+                    });
+                } catch (DPUException ex) {
+                    execution.fail(ex);
+                }
+            }
+            execution.readDone = true;
+            // Wait for workers.
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException ex) {
+                    execution.fail(new DPUException("Worker failed.", ex.getCause()));
+                }
+            }
+        } catch (InterruptedException ex) {
+            execution.fail(new DPUException("Interrupted while waiting for workers.", ex));
+            Thread.currentThread().interrupt();
+        } finally {
+            execution.readDone = true;
+            executor.shutdownNow();
+        }
+        // Report result.
+        if (execution.failure.get() != null) {
+            throw execution.failure.get();
+        }
+        if (dpuContext.canceled()) {
+            throw new DPUException("Interrupted before all entries were processed.");
+        }
+        LOG.debug("{} entries processed by {} workers.", execution.submitted, parallelism);
+    }
+
+    /**
+     * Shared state of a single {@link #forEachParallel} call.
+     *
+     * @param <E>
+     */
+    private static class Execution<E extends MetadataDataUnit.Entry> {
+
+        private final DPUContext dpuContext;
+
+        private final FaultTolerance faultTolerance;
+
+        private final MetadataDataUnit dataUnit;
+
+        private final EntryAction<E> action;
+
+        private final BlockingQueue<E> queue;
+
+        /**
+         * Cache of the calling thread, shared with workers.
+         */
+        private final EntryCache entryCache = EntryCache.current();
+
+        /**
+         * First failure, once set all workers terminate.
+         */
+        private final AtomicReference<DPUException> failure = new AtomicReference<>();
+
+        /**
+         * True if no more entries will be added into {@link #queue}.
+         */
+        private volatile boolean readDone = false;
+
+        private long submitted = 0;
+
+        Execution(DPUContext dpuContext, FaultTolerance faultTolerance, MetadataDataUnit dataUnit,
+                EntryAction<E> action, int queueSize) {
+            this.dpuContext = dpuContext;
+            this.faultTolerance = faultTolerance;
+            this.dataUnit = dataUnit;
+            this.action = action;
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+        }
+
+        /**
+         *
+         * @return True if workers should stop.
+         */
+        boolean shouldStop() {
+            return failure.get() != null || dpuContext.canceled();
+        }
+
+        /**
+         * Record failure, only the first one is kept.
+         *
+         * @param ex
+         */
+        void fail(DPUException ex) {
+            if (!failure.compareAndSet(null, ex)) {
+                LOG.debug("Additional failure ignored.", ex);
+            }
+        }
+
+        /**
+         * Put entries into queue, block if queue is full.
+         *
+         * @param entries
+         * @param skip    Number of entries to skip, as they were already submitted.
+         * @throws InterruptedException
+         */
+        void submitAll(Iterator<E> entries, long skip) throws InterruptedException {
+            for (long i = 0; i < skip && entries.hasNext(); ++i) {
+                entries.next();
+            }
+            while (entries.hasNext()) {
+                final E entry = entries.next();
+                while (!queue.offer(entry, POLL_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                    if (shouldStop()) {
+                        return;
+                    }
+                }
+                ++submitted;
+                if (shouldStop()) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Process entries from {@link #queue} until the queue is empty and all entries were read.
+         */
+        class Worker implements Runnable {
+
+            /**
+             * Connection used by this worker, null if no connection is opened.
+             */
+            private RepositoryConnection connection = null;
+
+            @Override
+            public void run() {
+                EntryCache.bind(entryCache);
+                try {
+                    while (!shouldStop()) {
+                        final E entry = queue.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                        if (entry != null) {
+                            process(entry);
+                        } else if (readDone && queue.isEmpty()) {
+                            return;
+                        }
+                    }
+                } catch (InterruptedException ex) {
+                    fail(new DPUException("Worker interrupted.", ex));
+                } catch (DPUException ex) {
+                    fail(ex);
+                } finally {
+                    closeConnection();
+                    EntryCache.unbind();
+                }
+            }
+
+            private void process(final E entry) throws DPUException {
+                if (faultTolerance == null) {
+                    try {
+                        action.action(entry, getConnection());
+                    } catch (Exception ex) {
+                        throw new DPUException("Can't process entry.", ex);
+                    }
+                } else {
+                    faultTolerance.execute(new FaultTolerance.Action() {
+
+                        @Override
+                        public void action() throws Exception {
+                            try {
+                                action.action(entry, getConnection());
+                            } catch (Exception ex) {
+                                // Use a new connection for next attempt.
+                                closeConnection();
+                                throw ex;
+                            }
+                        }
+                    });
+                }
+            }
+
+            private RepositoryConnection getConnection() throws DataUnitException {
+                if (connection == null) {
+                    connection = dataUnit.getConnection();
+                }
+                return connection;
+            }
+
+            private void closeConnection() {
+                if (connection != null) {
+                    try {
+                        connection.close();
+                    } catch (RepositoryException ex) {
+                        LOG.warn("Can't close connection.", ex);
+                    }
+                    connection = null;
+                }
+            }
+
+        }
+
+    }
+
+}
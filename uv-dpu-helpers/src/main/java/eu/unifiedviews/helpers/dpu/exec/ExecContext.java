@@ -16,6 +16,7 @@
  */
 package eu.unifiedviews.helpers.dpu.exec;
 
+import eu.unifiedviews.helpers.dataunit.EntryCache;
 import eu.unifiedviews.helpers.dpu.context.Context;
 import eu.unifiedviews.dpu.DPUContext;
 import eu.unifiedviews.dpu.DPUException;
@@ -43,6 +44,11 @@ public class ExecContext<CONFIG> extends Context<CONFIG> {
      */
     protected CONFIG dpuConfig = null;
 
+    /**
+     * Entries of data units shared for this execution.
+     */
+    protected final EntryCache entryCache = new EntryCache();
+
     /**
      * Cause given DPU initialization. Must not be called in constructor!
      * 
@@ -72,6 +78,10 @@ public class ExecContext<CONFIG> extends Context<CONFIG> {
         return dpu;
     }
 
+    public EntryCache getEntryCache() {
+        return entryCache;
+    }
+
     /**
      * Initialize context before first use.
      * 
@@ -20,6 +20,7 @@ import java.io.File;
 import java.util.List;
 
 import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Value;
 import eu.unifiedviews.helpers.dataunit.DataUnitUtils;
 import eu.unifiedviews.helpers.dataunit.files.FilesDataUnitUtils;
 import eu.unifiedviews.dataunit.MetadataDataUnit;
@@ -27,6 +28,7 @@ import eu.unifiedviews.dataunit.files.FilesDataUnit;
 import eu.unifiedviews.dataunit.rdf.RDFDataUnit;
 import eu.unifiedviews.dpu.DPUException;
 import eu.unifiedviews.helpers.dataunit.files.FilesVocabulary;
+import eu.unifiedviews.helpers.dataunit.metadata.MetadataSnapshot;
 import eu.unifiedviews.helpers.dataunit.metadata.MetadataUtils;
 import eu.unifiedviews.helpers.dataunit.rdf.RdfDataUnitUtils;
 
@@ -121,6 +123,50 @@ public class FaultToleranceUtils {
         });        
     }
 
+    /**
+     * Load all metadata from given data unit, see {@link MetadataSnapshot}.
+     *
+     * @param faultTolerance
+     * @param dataUnit
+     * @return Snapshot of metadata.
+     * @throws DPUException
+     */
+    public static MetadataSnapshot createSnapshot(FaultTolerance faultTolerance, final MetadataDataUnit dataUnit)
+            throws DPUException {
+        return faultTolerance.execute(new FaultTolerance.ActionReturn<MetadataSnapshot>() {
+
+            @Override
+            public MetadataSnapshot action() throws Exception {
+                return MetadataUtils.createSnapshot(dataUnit);
+            }
+        });
+    }
+
+    /**
+     * Read virtual path from given snapshot, no query is executed against the data unit.
+     *
+     * @param faultTolerance
+     * @param snapshot
+     * @param entry
+     * @return Virtual path.
+     * @throws DPUException
+     */
+    public static String getVirtualPath(FaultTolerance faultTolerance, final MetadataSnapshot snapshot,
+            final FilesDataUnit.Entry entry) throws DPUException {
+        return faultTolerance.execute(new FaultTolerance.ActionReturn<String>() {
+
+            @Override
+            public String action() throws Exception {
+                final Value value = snapshot.get(entry.getSymbolicName(), FilesVocabulary.UV_VIRTUAL_PATH);
+                if (value == null) {
+                    return null;
+                } else {
+                    return value.stringValue();
+                }
+            }
+        });
+    }
+
 
 
 }
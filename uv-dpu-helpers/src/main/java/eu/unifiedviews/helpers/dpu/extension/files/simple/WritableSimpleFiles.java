@@ -18,13 +18,22 @@ package eu.unifiedviews.helpers.dpu.extension.files.simple;
 
 import java.io.File;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import eu.unifiedviews.dataunit.DataUnitException;
+import eu.unifiedviews.dataunit.files.BulkWritableFilesDataUnit;
+import eu.unifiedviews.dataunit.files.FilesDataUnit;
 import eu.unifiedviews.dataunit.files.WritableFilesDataUnit;
 import eu.unifiedviews.dpu.DPUException;
+import eu.unifiedviews.helpers.dataunit.files.FilesDataUnitUtils;
 import eu.unifiedviews.helpers.dataunit.files.FilesVocabulary;
+import eu.unifiedviews.helpers.dataunit.DataUnitUtils;
 import eu.unifiedviews.helpers.dataunit.metadata.MetadataUtils;
 import eu.unifiedviews.helpers.dpu.context.Context;
 import eu.unifiedviews.helpers.dpu.exec.ExecContext;
@@ -54,6 +63,7 @@ public class WritableSimpleFiles extends SimpleFiles {
         if (faultTolerance == null) {
             try {
                 writableDataUnit.addExistingFile(fileName, file.toURI().toString());
+                DataUnitUtils.entryAdded(writableDataUnit, fileName);
                 // Add metadata - Virtual path.
                 MetadataUtils.set(writableDataUnit, fileName, FilesVocabulary.UV_VIRTUAL_PATH, fileName);
             } catch (DataUnitException ex) {
@@ -66,6 +76,7 @@ public class WritableSimpleFiles extends SimpleFiles {
                 @Override
                 public void action() throws Exception {
                     writableDataUnit.addExistingFile(fileName, file.toURI().toString());
+                    DataUnitUtils.entryAdded(writableDataUnit, fileName);
                 }
             });
             // Add metadata - Virtual path.
@@ -91,6 +102,7 @@ public class WritableSimpleFiles extends SimpleFiles {
         if (faultTolerance == null) {
             try {
                 result = new File(java.net.URI.create(writableDataUnit.addNewFile(fileName)));
+                DataUnitUtils.entryAdded(writableDataUnit, fileName);
                 // Add metadata - Virtual path.
                 MetadataUtils.set(writableDataUnit, fileName, FilesVocabulary.UV_VIRTUAL_PATH, fileName);
             } catch (DataUnitException ex) {
@@ -102,7 +114,9 @@ public class WritableSimpleFiles extends SimpleFiles {
 
                 @Override
                 public File action() throws Exception {
-                    return new File(java.net.URI.create(writableDataUnit.addNewFile(fileName)));
+                    final File file = new File(java.net.URI.create(writableDataUnit.addNewFile(fileName)));
+                    DataUnitUtils.entryAdded(writableDataUnit, fileName);
+                    return file;
                 }
             });
             // Add metadata - Virtual path.
@@ -117,6 +131,95 @@ public class WritableSimpleFiles extends SimpleFiles {
         return result;
     }
 
+    /**
+     * Add files. Files are registered first and then all virtual paths are written in a single transaction.
+     * If the data unit is {@link BulkWritableFilesDataUnit} then all files are registered in a single transaction,
+     * otherwise each file is registered separately. In both cases a failed attempt adds nothing and can be safely
+     * repeated.
+     *
+     * @param files File names mapped to files.
+     * @throws DPUException
+     */
+    public void addFiles(final Map<String, File> files) throws DPUException {
+        LOG.debug("adding {} files", files.size());
+        final List<Map<String, File>> batches = new ArrayList<>();
+        if (writableDataUnit instanceof BulkWritableFilesDataUnit) {
+            batches.add(files);
+        } else {
+            for (Map.Entry<String, File> item : files.entrySet()) {
+                batches.add(Collections.singletonMap(item.getKey(), item.getValue()));
+            }
+        }
+        final List<FilesDataUnit.Entry> entries = new ArrayList<>(files.size());
+        for (final Map<String, File> batch : batches) {
+            entries.addAll(execute(new FaultTolerance.ActionReturn<List<FilesDataUnit.Entry>>() {
+
+                @Override
+                public List<FilesDataUnit.Entry> action() throws Exception {
+                    return FilesDataUnitUtils.addExistingFiles(writableDataUnit, batch);
+                }
+            }, "Failed to add files."));
+        }
+        addVirtualPaths(entries);
+    }
+
+    /**
+     * Create new files. Files are registered first and then all virtual paths are written in a single
+     * transaction. If the data unit is {@link BulkWritableFilesDataUnit} then all files are registered in a single
+     * transaction, otherwise each file is registered separately. In both cases a failed attempt adds nothing and
+     * can be safely repeated.
+     *
+     * @param fileNames
+     * @return Created files in the order of given names.
+     * @throws DPUException
+     */
+    public List<File> createFiles(final List<String> fileNames) throws DPUException {
+        final List<List<String>> batches = new ArrayList<>();
+        if (writableDataUnit instanceof BulkWritableFilesDataUnit) {
+            batches.add(fileNames);
+        } else {
+            for (String fileName : fileNames) {
+                batches.add(Collections.singletonList(fileName));
+            }
+        }
+        final List<FilesDataUnit.Entry> entries = new ArrayList<>(fileNames.size());
+        for (final List<String> batch : batches) {
+            entries.addAll(execute(new FaultTolerance.ActionReturn<List<FilesDataUnit.Entry>>() {
+
+                @Override
+                public List<FilesDataUnit.Entry> action() throws Exception {
+                    return FilesDataUnitUtils.addNewFiles(writableDataUnit, batch);
+                }
+            }, "Failed to add files."));
+        }
+        addVirtualPaths(entries);
+        final List<File> result = new ArrayList<>(entries.size());
+        try {
+            for (FilesDataUnit.Entry entry : entries) {
+                result.add(FilesDataUnitUtils.asFile(entry));
+            }
+        } catch (DataUnitException ex) {
+            throw new DPUException("Failed to add files.", ex);
+        }
+        return result;
+    }
+
+    /**
+     * Add virtual paths to given entries in a single transaction.
+     *
+     * @param entries
+     * @throws DPUException
+     */
+    private void addVirtualPaths(final List<FilesDataUnit.Entry> entries) throws DPUException {
+        execute(new FaultTolerance.Action() {
+
+            @Override
+            public void action() throws Exception {
+                FilesDataUnitUtils.addVirtualPaths(writableDataUnit, entries);
+            }
+        }, "Failed to add metadata.");
+    }
+
     @Override
     public void preInit(String param) throws DPUException {
         super.preInit(param);
@@ -131,6 +234,47 @@ public class WritableSimpleFiles extends SimpleFiles {
         }
     }
 
+    /**
+     * Execute given action, with {@link FaultTolerance} if available.
+     *
+     * @param action
+     * @param failMessage Used if {@link FaultTolerance} is not available.
+     * @throws DPUException
+     */
+    private void execute(FaultTolerance.Action action, String failMessage) throws DPUException {
+        if (faultTolerance == null) {
+            try {
+                action.action();
+            } catch (Exception ex) {
+                throw new DPUException(failMessage, ex);
+            }
+        } else {
+            faultTolerance.execute(action);
+        }
+    }
+
+    /**
+     * Execute given action, with {@link FaultTolerance} if available.
+     *
+     * @param <TYPE>
+     * @param action
+     * @param failMessage Used if {@link FaultTolerance} is not available.
+     * @return
+     * @throws DPUException
+     */
+    private <TYPE> TYPE execute(FaultTolerance.ActionReturn<TYPE> action, String failMessage)
+            throws DPUException {
+        if (faultTolerance == null) {
+            try {
+                return action.action();
+            } catch (Exception ex) {
+                throw new DPUException(failMessage, ex);
+            }
+        } else {
+            return faultTolerance.execute(action);
+        }
+    }
+
     private void afterInitExecution(ExecContext execContext) throws DPUException {
         // Get underliyng RDFDataUnit.
         final Object dpu = execContext.getDpu();
@@ -0,0 +1,227 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dpu.extension.rdf.simple;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.rdf4j.model.BNode;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Temporary file with statements that do not fit into the memory buffer of {@link WritableSimpleRdf}.
+ * Statements are appended to the file and then streamed into a repository connection. Contexts of the
+ * statements are not stored.
+ *
+ * Uses a simple length-prefixed binary format, as no binary RDF writer is available on the class path.
+ */
+final class StatementSpillFile {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StatementSpillFile.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final byte TYPE_IRI = 1;
+
+    private static final byte TYPE_BNODE = 2;
+
+    private static final byte TYPE_LITERAL = 3;
+
+    private static final byte TYPE_LANGUAGE_LITERAL = 4;
+
+    /**
+     * Estimated memory overhead of a statement object, without its values.
+     */
+    private static final long STATEMENT_OVERHEAD = 32;
+
+    /**
+     * Estimated memory overhead of a value and its string, without characters.
+     */
+    private static final long VALUE_OVERHEAD = 56;
+
+    private final File file;
+
+    private DataOutputStream output;
+
+    private long size = 0;
+
+    /**
+     *
+     * @param directory Directory to create the file in.
+     * @throws IOException
+     */
+    StatementSpillFile(File directory) throws IOException {
+        this.file = File.createTempFile("simple-rdf-", ".spill", directory);
+        this.output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+        LOG.debug("Spilling statements into: {}", file);
+    }
+
+    /**
+     *
+     * @param statement
+     * @return Estimated memory retained by given statement.
+     */
+    static long estimateSize(Statement statement) {
+        return STATEMENT_OVERHEAD + estimateSize(statement.getSubject())
+                + estimateSize(statement.getPredicate()) + estimateSize(statement.getObject());
+    }
+
+    private static long estimateSize(Value value) {
+        long result = VALUE_OVERHEAD + 2L * value.stringValue().length();
+        if (value instanceof Literal) {
+            // Datatype IRIs are usually shared, count only the language tag.
+            final Literal literal = (Literal) value;
+            if (literal.getLanguage().isPresent()) {
+                result += VALUE_OVERHEAD + 2L * literal.getLanguage().get().length();
+            }
+        }
+        return result;
+    }
+
+    void append(Statement statement) throws IOException {
+        if (output == null) {
+            // Statements have already been read, continue after them.
+            output = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(file, true), BUFFER_SIZE));
+        }
+        writeValue(statement.getSubject());
+        writeValue(statement.getPredicate());
+        writeValue(statement.getObject());
+        ++size;
+    }
+
+    /**
+     *
+     * @return Number of statements in the file.
+     */
+    long size() {
+        return size;
+    }
+
+    /**
+     * Read all statements from the file and add them into given connection. Can be called repeatedly.
+     *
+     * @param connection
+     * @param contexts
+     * @throws IOException
+     * @throws RepositoryException
+     */
+    void addTo(RepositoryConnection connection, Resource[] contexts) throws IOException {
+        if (output != null) {
+            output.close();
+            output = null;
+        }
+        final ValueFactory valueFactory = connection.getValueFactory();
+        try (DataInputStream input = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE))) {
+            for (long i = 0; i < size; ++i) {
+                final Resource subject = (Resource) readValue(input, valueFactory);
+                final IRI predicate = (IRI) readValue(input, valueFactory);
+                final Value object = readValue(input, valueFactory);
+                connection.add(subject, predicate, object, contexts);
+            }
+        }
+    }
+
+    /**
+     * Close and delete the file.
+     */
+    void delete() {
+        if (output != null) {
+            try {
+                output.close();
+            } catch (IOException ex) {
+                LOG.warn("Can't close spill file.", ex);
+            }
+            output = null;
+        }
+        if (!file.delete()) {
+            LOG.warn("Can't delete spill file: {}", file);
+        }
+    }
+
+    private void writeValue(Value value) throws IOException {
+        if (value instanceof IRI) {
+            output.writeByte(TYPE_IRI);
+            writeString(value.stringValue());
+        } else if (value instanceof BNode) {
+            output.writeByte(TYPE_BNODE);
+            writeString(((BNode) value).getID());
+        } else if (value instanceof Literal) {
+            final Literal literal = (Literal) value;
+            if (literal.getLanguage().isPresent()) {
+                output.writeByte(TYPE_LANGUAGE_LITERAL);
+                writeString(literal.getLabel());
+                writeString(literal.getLanguage().get());
+            } else {
+                output.writeByte(TYPE_LITERAL);
+                writeString(literal.getLabel());
+                writeString(literal.getDatatype().stringValue());
+            }
+        } else {
+            throw new IOException("Unsupported value type: " + value.getClass().getName());
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        // DataOutputStream.writeUTF is limited to 64KB.
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static Value readValue(DataInputStream input, ValueFactory valueFactory) throws IOException {
+        final byte type = input.readByte();
+        switch (type) {
+            case TYPE_IRI:
+                return valueFactory.createIRI(readString(input));
+            case TYPE_BNODE:
+                return valueFactory.createBNode(readString(input));
+            case TYPE_LITERAL:
+                final String label = readString(input);
+                return valueFactory.createLiteral(label, valueFactory.createIRI(readString(input)));
+            case TYPE_LANGUAGE_LITERAL:
+                final String languageLabel = readString(input);
+                return valueFactory.createLiteral(languageLabel, readString(input));
+            default:
+                throw new IOException("Corrupted spill file, unknown value type: " + type);
+        }
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        final byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
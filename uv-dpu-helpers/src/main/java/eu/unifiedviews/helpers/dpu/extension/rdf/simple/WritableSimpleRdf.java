@@ -16,10 +16,14 @@
  */
 package eu.unifiedviews.helpers.dpu.extension.rdf.simple;
 
+import java.io.IOException;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 import eu.unifiedviews.dataunit.rdf.WritableRDFDataUnit;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Statement;
@@ -28,6 +32,9 @@ import org.eclipse.rdf4j.model.Value;
 import org.eclipse.rdf4j.model.impl.StatementImpl;
 import org.eclipse.rdf4j.repository.RepositoryConnection;
 import org.eclipse.rdf4j.repository.RepositoryException;
+import org.eclipse.rdf4j.rio.RDFHandler;
+import org.eclipse.rdf4j.rio.RDFHandlerException;
+import org.eclipse.rdf4j.rio.helpers.AbstractRDFHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,7 +45,9 @@ import eu.unifiedviews.helpers.dpu.extension.faulttolerance.FaultTolerance;
 import eu.unifiedviews.helpers.dpu.ontology.EntityDescription;
 import eu.unifiedviews.dataunit.DataUnitException;
 import eu.unifiedviews.dataunit.rdf.RDFDataUnit;
+import eu.unifiedviews.dpu.DPUContext;
 import eu.unifiedviews.dpu.DPUException;
+import eu.unifiedviews.helpers.dataunit.DataUnitUtils;
 import eu.unifiedviews.helpers.dpu.extension.Extension;
 
 /**
@@ -57,7 +66,7 @@ public class WritableSimpleRdf extends SimpleRdf implements Extension.Executable
         public enum AddPolicy {
 
             /**
-             * Triples are added into repository immediately. For each addition new connection is created.
+             * Triples are added into repository immediately. For each addition new transaction is created.
              * This approach provide immediate reaction on possible problem (repository is offline) but in
              * case of saving greater number of triples can be computationally demanding.
              */
@@ -75,7 +84,13 @@ public class WritableSimpleRdf extends SimpleRdf implements Extension.Executable
              * {@link #add(org.openrdf.model.Resource, org.openrdf.model.URI, org.openrdf.model.Value)} does
              * not throw.
              */
-            ON_DEMAND
+            ON_DEMAND,
+            /**
+             * As {@link #BUFFERED} but full buffers are committed by a background thread, so new statements
+             * can be produced while the previous buffer is being stored. If the background commit fails,
+             * the failure is reported by the next add, flush or at the end of the execution.
+             */
+            ASYNC
         }
 
         public AddPolicy addPolicy = AddPolicy.BUFFERED;
@@ -85,6 +100,20 @@ public class WritableSimpleRdf extends SimpleRdf implements Extension.Executable
          */
         public Integer commitSize = 100000;
 
+        /**
+         * Number of full buffers that can wait for commit in case the {@link AddPolicy#ASYNC} is used. If
+         * reached, add blocks until a buffer is committed.
+         */
+        public Integer asyncQueueSize = 2;
+
+        /**
+         * Limit in bytes for estimated memory used by buffered statements. Statements over the limit are
+         * stored into a temporary file in the DPU working directory until the buffer is flushed. In case of
+         * {@link AddPolicy#ASYNC} the limit is shared by the current buffer and buffers waiting for commit.
+         * If null all statements are kept in memory.
+         */
+        public Long bufferByteLimit = null;
+
     }
 
     private static final Logger LOG = LoggerFactory.getLogger(WritableSimpleRdf.class);
@@ -105,6 +134,304 @@ public class WritableSimpleRdf extends SimpleRdf implements Extension.Executable
 
     protected Configuration configuration = new Configuration();
 
+    /**
+     * Estimated memory used by statements in {@link #writeBuffer}.
+     */
+    private long writeBufferBytes = 0;
+
+    /**
+     * Statements that did not fit into {@link #writeBuffer}, created on first use.
+     */
+    private StatementSpillFile spillFile = null;
+
+    private DPUContext dpuContext = null;
+
+    /**
+     * True if it was reported that {@link Configuration#bufferByteLimit} is ignored.
+     */
+    private boolean noWorkingDirReported = false;
+
+    /**
+     * Connection used to store buffered statements, kept open for the whole execution.
+     */
+    private final PersistentConnection connection = new PersistentConnection();
+
+    /**
+     * Background committer for {@link Configuration.AddPolicy#ASYNC}, created on first use.
+     */
+    private AsyncCommitter committer = null;
+
+    /**
+     * Connection that is kept open between flushes. The connection is released after a failure, so
+     * a retry from {@link FaultTolerance} opens a new one.
+     */
+    private class PersistentConnection {
+
+        private RepositoryConnection connection = null;
+
+        RepositoryConnection get() throws DataUnitException {
+            if (connection == null) {
+                connection = writableDataUnit.getConnection();
+            }
+            return connection;
+        }
+
+        void release() {
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (RepositoryException ex) {
+                    LOG.warn("Can't close connection.", ex);
+                }
+                connection = null;
+            }
+        }
+
+    }
+
+    /**
+     * Statements to store together with their write context.
+     */
+    private static class Batch {
+
+        private final List<Statement> statements;
+
+        /**
+         * Estimated memory used by {@link #statements}.
+         */
+        private final long bytes;
+
+        private final StatementSpillFile spillFile;
+
+        private final IRI[] contexts;
+
+        Batch(List<Statement> statements, long bytes, StatementSpillFile spillFile, IRI[] contexts) {
+            this.statements = statements;
+            this.bytes = bytes;
+            this.spillFile = spillFile;
+            this.contexts = contexts;
+        }
+
+    }
+
+    /**
+     * Commits batches in a background thread. After a failure the remaining batches are dropped, so the
+     * producer is never blocked by a full queue. Producer waits are timed, so a stopped committer thread or
+     * a cancelled execution is noticed.
+     */
+    private class AsyncCommitter implements Runnable {
+
+        /**
+         * How often a waiting producer checks the committer thread and cancellation.
+         */
+        private static final long CHECK_INTERVAL_MS = 500;
+
+        /**
+         * Signal the thread to stop.
+         */
+        private final Batch end = new Batch(null, 0, null, null);
+
+        private final BlockingQueue<Batch> queue;
+
+        private final Thread thread;
+
+        /**
+         * Connection used by the committer thread.
+         */
+        private final PersistentConnection connection = new PersistentConnection();
+
+        /**
+         * Number of submitted batches that have not been processed yet.
+         */
+        private int pending = 0;
+
+        /**
+         * Estimated memory used by submitted batches that have not been processed yet.
+         */
+        private long pendingBytes = 0;
+
+        private volatile Throwable failure = null;
+
+        AsyncCommitter(int queueSize) {
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+            this.thread = new Thread(this, "WritableSimpleRdf-committer");
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    final Batch batch;
+                    try {
+                        batch = queue.take();
+                    } catch (InterruptedException ex) {
+                        LOG.warn("Committer interrupted.", ex);
+                        return;
+                    }
+                    if (batch == end) {
+                        return;
+                    }
+                    try {
+                        if (failure == null) {
+                            commit(batch);
+                        }
+                    } catch (Throwable ex) {
+                        LOG.error("Asynchronous commit failed.", ex);
+                        failure = ex;
+                    } finally {
+                        if (batch.spillFile != null) {
+                            batch.spillFile.delete();
+                        }
+                        synchronized (this) {
+                            --pending;
+                            pendingBytes -= batch.bytes;
+                            notifyAll();
+                        }
+                    }
+                }
+            } catch (Throwable ex) {
+                LOG.error("Committer failed.", ex);
+                if (failure == null) {
+                    failure = ex;
+                }
+            } finally {
+                connection.release();
+            }
+        }
+
+        /**
+         * Add batch to the queue, block if the queue is full.
+         *
+         * @param batch
+         * @throws DPUException
+         */
+        void submit(Batch batch) throws DPUException {
+            checkRunning();
+            synchronized (this) {
+                ++pending;
+                pendingBytes += batch.bytes;
+            }
+            boolean queued = false;
+            try {
+                while (!queue.offer(batch, CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                    checkRunning();
+                }
+                queued = true;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new DPUException("Interrupted while waiting for commit.", ex);
+            } finally {
+                if (!queued) {
+                    synchronized (this) {
+                        --pending;
+                        pendingBytes -= batch.bytes;
+                        notifyAll();
+                    }
+                }
+            }
+        }
+
+        /**
+         * Wait until all submitted batches are processed.
+         *
+         * @throws DPUException
+         */
+        void await() throws DPUException {
+            synchronized (this) {
+                while (pending > 0) {
+                    checkRunning();
+                    try {
+                        wait(CHECK_INTERVAL_MS);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        throw new DPUException("Interrupted while waiting for commit.", ex);
+                    }
+                }
+            }
+            checkFailure();
+        }
+
+        /**
+         *
+         * @return Estimated memory used by batches waiting for commit.
+         */
+        synchronized long getPendingBytes() {
+            return pendingBytes;
+        }
+
+        void checkFailure() throws SimpleRdfException {
+            if (failure != null) {
+                throw new SimpleRdfException("Asynchronous commit failed.", failure);
+            }
+        }
+
+        /**
+         * Fail if the committer can no longer process submitted batches or the execution is cancelled.
+         *
+         * @throws DPUException
+         */
+        private void checkRunning() throws DPUException {
+            checkFailure();
+            if (!thread.isAlive()) {
+                throw new SimpleRdfException("Asynchronous committer is not running.");
+            }
+            if (isCanceled()) {
+                throw new DPUException("Execution cancelled while waiting for commit.");
+            }
+        }
+
+        private boolean isCanceled() {
+            return dpuContext != null && dpuContext.canceled();
+        }
+
+        /**
+         * Stop the thread once all submitted batches are processed. If the execution is cancelled the thread
+         * is interrupted and batches not yet committed are dropped.
+         */
+        void shutdown() {
+            try {
+                while (thread.isAlive() && !queue.offer(end, CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                    if (isCanceled()) {
+                        thread.interrupt();
+                    }
+                }
+                while (thread.isAlive()) {
+                    thread.join(CHECK_INTERVAL_MS);
+                    if (isCanceled()) {
+                        thread.interrupt();
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                LOG.warn("Interrupted while waiting for committer to stop.", ex);
+            }
+            // Batches left in the queue are never committed.
+            for (Batch batch : queue) {
+                if (batch.spillFile != null) {
+                    batch.spillFile.delete();
+                }
+            }
+            queue.clear();
+        }
+
+        private void commit(final Batch batch) throws DPUException {
+            if (faultTolerance == null) {
+                storeStatements(connection, batch.statements, batch.spillFile, batch.contexts);
+            } else {
+                faultTolerance.execute(new FaultTolerance.Action() {
+
+                    @Override
+                    public void action() throws Exception {
+                        storeStatements(connection, batch.statements, batch.spillFile, batch.contexts);
+                    }
+                });
+            }
+        }
+
+    }
+
     /**
      * Add triple into repository. Based on current {@link AddPolicy} can add triple in immediate or lazy way.
      * In the second case the {@link #flushBuffer()} method must be called in order to add triples into used
@@ -120,7 +447,22 @@ public class WritableSimpleRdf extends SimpleRdf implements Extension.Executable
      */
     public WritableSimpleRdf add(Resource s, IRI p, Value o) throws SimpleRdfException, DPUException {
         // Add to buffer.
-        writeBuffer.add(new StatementImpl(s, p, o));
+        bufferStatement(new StatementImpl(s, p, o));
+        applyFlushBufferPolicy();
+        return this;
+    }
+
+    /**
+     * Add statement into repository, see {@link #add(Resource, IRI, Value)}. Context of given statement is
+     * ignored, current write context is used instead.
+     *
+     * @param statement
+     * @return
+     * @throws SimpleRdfException
+     * @throws DPUException
+     */
+    public WritableSimpleRdf add(Statement statement) throws SimpleRdfException, DPUException {
+        bufferStatement(statement);
         applyFlushBufferPolicy();
         return this;
     }
@@ -132,11 +474,38 @@ public class WritableSimpleRdf extends SimpleRdf implements Extension.Executable
      * @throws DPUException
      */
     public WritableSimpleRdf add(List<Statement> statements) throws SimpleRdfException, DPUException {
-        writeBuffer.addAll(statements);
+        for (Statement statement : statements) {
+            bufferStatement(statement);
+        }
         applyFlushBufferPolicy();
         return this;
     }
 
+    /**
+     * Create {@link RDFHandler} that adds handled statements into this instance, so parser or construct
+     * output is written without collecting the statements first. Statements are stored according to current
+     * {@link AddPolicy}, so with {@link AddPolicy#BUFFERED} at most one buffer is kept in memory. Contexts
+     * of the statements are ignored, current write context is used instead.
+     *
+     * {@link RDFHandler#endRDF()} does not flush the buffer, call {@link #flushBuffer()} if needed.
+     *
+     * @return
+     */
+    public RDFHandler asRdfHandler() {
+        return new AbstractRDFHandler() {
+
+            @Override
+            public void handleStatement(Statement statement) throws RDFHandlerException {
+                try {
+                    add(statement);
+                } catch (DPUException ex) {
+                    throw new RDFHandlerException("Can't add statement.", ex);
+                }
+            }
+
+        };
+    }
+
     /**
      * Immediately store buffered triples into repository. The inner buffer is cleared only if all the triples
      * are added successfully. If throws exception then the state of repository is undefined.
@@ -146,9 +515,14 @@ public class WritableSimpleRdf extends SimpleRdf implements Extension.Executable
      * If throws, then the buffer remain unchanged so the function can be called again until it does not pass
      * or caller gives up.
      * 
+     * In case of {@link AddPolicy#ASYNC} waits for all buffers submitted to the background thread first.
+     *
      * @throws SimpleRdfException
      */
     public void flushBuffer() throws SimpleRdfException, DPUException {
+        if (committer != null) {
+            committer.await();
+        }
         if (faultTolerance == null) {
             flushBufferInner();
         } else {
@@ -169,39 +543,138 @@ public class WritableSimpleRdf extends SimpleRdf implements Extension.Executable
      * @throws DPUException
      */
     private void flushBufferInner() throws SimpleRdfException, DPUException {
-        if (writeBuffer.isEmpty()) {
+        if (writeBuffer.isEmpty() && spillFile == null) {
             // Nothing to save into repository.
             return;
         }
         if (writeContext.isEmpty()) {
             createDefaultWriteGraph();
         }
-        // Prepare write contexts.
-        final IRI[] contexts = writeContext.toArray(new IRI[0]);
-        // Get connection and add data.
-        RepositoryConnection connection = null;
+        storeStatements(connection, writeBuffer, spillFile, writeContext.toArray(new IRI[0]));
+        // Data sucesfully stored, clear the buffer.
+        writeBuffer.clear();
+        writeBufferBytes = 0;
+        discardSpillFile();
+    }
+
+    /**
+     * Add statement into {@link #writeBuffer} or into {@link #spillFile} if the buffer, together with
+     * buffers waiting for commit, is over {@link Configuration#bufferByteLimit}.
+     *
+     * @param statement
+     * @throws SimpleRdfException
+     */
+    private void bufferStatement(Statement statement) throws SimpleRdfException {
+        if (configuration.bufferByteLimit == null) {
+            writeBuffer.add(statement);
+            return;
+        }
+        if (dpuContext == null) {
+            if (!noWorkingDirReported) {
+                LOG.warn("No DPU context, so no working directory for spill files. The bufferByteLimit is "
+                        + "ignored and all statements are kept in memory.");
+                noWorkingDirReported = true;
+            }
+            writeBuffer.add(statement);
+            return;
+        }
+        final long statementSize = StatementSpillFile.estimateSize(statement);
+        final long queuedBytes = committer == null ? 0 : committer.getPendingBytes();
+        if (spillFile == null
+                && writeBufferBytes + queuedBytes + statementSize <= configuration.bufferByteLimit) {
+            writeBuffer.add(statement);
+            writeBufferBytes += statementSize;
+            return;
+        }
+        try {
+            if (spillFile == null) {
+                spillFile = new StatementSpillFile(dpuContext.getWorkingDir());
+            }
+            spillFile.append(statement);
+        } catch (IOException ex) {
+            throw new SimpleRdfException("Can't write statement into spill file.", ex);
+        }
+    }
+
+    /**
+     * @return Number of buffered statements, including spilled ones.
+     */
+    private long getBufferedCount() {
+        return writeBuffer.size() + (spillFile == null ? 0 : spillFile.size());
+    }
+
+    private void discardSpillFile() {
+        if (spillFile != null) {
+            spillFile.delete();
+            spillFile = null;
+        }
+    }
+
+    /**
+     * Add given statements into repository in a single transaction. On failure the connection is released.
+     *
+     * @param persistentConnection
+     * @param statements
+     * @param statementsFile Additional statements to store, can be null.
+     * @param contexts
+     * @throws SimpleRdfException
+     */
+    private void storeStatements(PersistentConnection persistentConnection, List<Statement> statements,
+            StatementSpillFile statementsFile, IRI[] contexts) throws SimpleRdfException {
+        boolean stored = false;
         try {
-            connection = writableDataUnit.getConnection();
+            final RepositoryConnection connection = persistentConnection.get();
             connection.begin();
-            for (Statement statemnt : writeBuffer) {
+            for (Statement statemnt : statements) {
                 connection.add(statemnt, contexts);
             }
+            if (statementsFile != null) {
+                statementsFile.addTo(connection, contexts);
+            }
             connection.commit();
+            stored = true;
         } catch (DataUnitException ex) {
             throw new SimpleRdfException("Problem with DataUnit.", ex);
         } catch (RepositoryException ex) {
             throw new SimpleRdfException("Problem with Repository.", ex);
+        } catch (IOException ex) {
+            throw new SimpleRdfException("Can't read spill file.", ex);
         } finally {
-            if (connection != null) {
-                try {
-                    connection.close();
-                } catch (RepositoryException ex) {
-                    LOG.warn("Can't close connection.", ex);
-                }
+            if (!stored) {
+                persistentConnection.release();
             }
         }
-        // Data sucesfully stored, clear the buffer.
+    }
+
+    /**
+     * Hand current buffer to the background committer and clear the buffer.
+     *
+     * @throws SimpleRdfException
+     * @throws DPUException
+     */
+    private void submitBuffer() throws SimpleRdfException, DPUException {
+        if (writeContext.isEmpty()) {
+            createDefaultWriteGraph();
+        }
+        if (committer == null) {
+            committer = new AsyncCommitter(Math.max(1, configuration.asyncQueueSize));
+        }
+        committer.submit(new Batch(new ArrayList<>(writeBuffer), writeBufferBytes, spillFile,
+                writeContext.toArray(new IRI[0])));
+        // The spill file is now owned by the committer.
         writeBuffer.clear();
+        writeBufferBytes = 0;
+        spillFile = null;
+    }
+
+    /**
+     * Stop background committer if running.
+     */
+    private void stopCommitter() {
+        if (committer != null) {
+            committer.shutdown();
+            committer = null;
+        }
     }
 
     /**
@@ -295,6 +768,7 @@ public class WritableSimpleRdf extends SimpleRdf implements Extension.Executable
         if (faultTolerance == null) {
             try {
                 writeGraphUri = writableDataUnit.addNewDataGraph(DEFAULT_SYMBOLIC_NAME);
+                DataUnitUtils.entryAdded(writableDataUnit, DEFAULT_SYMBOLIC_NAME);
             } catch (DataUnitException ex) {
                 throw new SimpleRdfException("Failed to add new graph.", ex);
             }
@@ -303,7 +777,9 @@ public class WritableSimpleRdf extends SimpleRdf implements Extension.Executable
 
                 @Override
                 public IRI action() throws Exception {
-                    return writableDataUnit.addNewDataGraph(DEFAULT_SYMBOLIC_NAME);
+                    final IRI graph = writableDataUnit.addNewDataGraph(DEFAULT_SYMBOLIC_NAME);
+                    DataUnitUtils.entryAdded(writableDataUnit, DEFAULT_SYMBOLIC_NAME);
+                    return graph;
                 }
             });
         }
@@ -319,7 +795,7 @@ public class WritableSimpleRdf extends SimpleRdf implements Extension.Executable
     private void applyFlushBufferPolicy() throws SimpleRdfException, DPUException {
         switch (configuration.addPolicy) {
             case BUFFERED:
-                if (writeBuffer.size() > configuration.commitSize) {
+                if (getBufferedCount() > configuration.commitSize) {
                     flushBuffer();
                 }
                 break;
@@ -329,6 +805,14 @@ public class WritableSimpleRdf extends SimpleRdf implements Extension.Executable
             case ON_DEMAND:
                 // No operation here.
                 break;
+            case ASYNC:
+                if (committer != null) {
+                    committer.checkFailure();
+                }
+                if (getBufferedCount() > configuration.commitSize) {
+                    submitBuffer();
+                }
+                break;
             default:
                 throw new RuntimeException("Unknown AddPolicy type: " + configuration.addPolicy.toString());
         }
@@ -349,6 +833,7 @@ public class WritableSimpleRdf extends SimpleRdf implements Extension.Executable
     }
 
     private void afterInitExecution(ExecContext execContext) throws DPUException {
+        dpuContext = execContext.getDpuContext();
         // Get underliyng RDFDataUnit.
         final Object dpu = execContext.getDpu();
         final Field field;
@@ -382,6 +867,11 @@ public class WritableSimpleRdf extends SimpleRdf implements Extension.Executable
                 flushBuffer();
             } catch (DPUException ex) {
                 throw new ExtensionException("Can't flush data at the end of execution.", ex);
+            } finally {
+                stopCommitter();
+                connection.release();
+                // Not stored if the flush failed.
+                discardSpillFile();
             }
         }
     }
@@ -0,0 +1,204 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dpu.extension.resource;
+
+import java.lang.reflect.Field;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.unifiedviews.dataunit.WritableMetadataDataUnit;
+import eu.unifiedviews.dpu.DPUException;
+import eu.unifiedviews.helpers.dataunit.resource.Resource;
+import eu.unifiedviews.helpers.dataunit.resource.ResourceHelper;
+import eu.unifiedviews.helpers.dataunit.resource.ResourceHelpers;
+import eu.unifiedviews.helpers.dpu.context.Context;
+import eu.unifiedviews.helpers.dpu.exec.ExecContext;
+import eu.unifiedviews.helpers.dpu.extension.Extension;
+import eu.unifiedviews.helpers.dpu.extension.ExtensionException;
+import eu.unifiedviews.helpers.dpu.extension.faulttolerance.FaultTolerance;
+
+/**
+ * Provide cached access to {@link Resource} metadata of {@link WritableMetadataDataUnit}, see
+ * {@link ResourceHelpers#createCached(WritableMetadataDataUnit)}. Resources are cached for the whole execution
+ * and changed resources are written together at the end of the execution or on {@link #flush()}.
+ * If {@link FaultTolerance} is presented and initialized then it is automatically used by this class.
+ *
+ * Sample usage:
+ * <pre>
+ * {@code
+ * // Annotated by ExtensionInitializer.Init(param = "output").
+ * public CachedResources outputResources;
+ *
+ * Resource resource = outputResources.get(symbolicName);
+ * resource.setDescription("...");
+ * outputResources.set(symbolicName, resource);
+ * }
+ * </pre>
+ */
+public class CachedResources implements Extension, Extension.Executable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CachedResources.class);
+
+    /**
+     * Name of field that should be bound as a data unit.
+     */
+    private String dataUnitName;
+
+    private WritableMetadataDataUnit writableDataUnit = null;
+
+    private FaultTolerance faultTolerance = null;
+
+    private ResourceHelper helper = null;
+
+    /**
+     *
+     * @param symbolicName
+     * @return Cached resource, changes must be stored by {@link #set(String, Resource)}.
+     * @throws DPUException
+     */
+    public Resource get(final String symbolicName) throws DPUException {
+        return execute(new FaultTolerance.ActionReturn<Resource>() {
+
+            @Override
+            public Resource action() throws Exception {
+                return getHelper().getResource(symbolicName);
+            }
+        }, "Failed to get resource.");
+    }
+
+    /**
+     * Set resource, resource is written at the end of execution or on {@link #flush()}.
+     *
+     * @param symbolicName
+     * @param resource
+     * @throws DPUException
+     */
+    public void set(final String symbolicName, final Resource resource) throws DPUException {
+        execute(new FaultTolerance.ActionReturn<Void>() {
+
+            @Override
+            public Void action() throws Exception {
+                getHelper().setResource(symbolicName, resource);
+                return null;
+            }
+        }, "Failed to set resource.");
+    }
+
+    /**
+     * Write all changed resources.
+     *
+     * @throws DPUException
+     */
+    public void flush() throws DPUException {
+        if (helper == null) {
+            return;
+        }
+        execute(new FaultTolerance.ActionReturn<Void>() {
+
+            @Override
+            public Void action() throws Exception {
+                helper.flush();
+                return null;
+            }
+        }, "Failed to write resources.");
+    }
+
+    @Override
+    public void preInit(String param) throws DPUException {
+        dataUnitName = param;
+    }
+
+    @Override
+    public void afterInit(Context context) throws DPUException {
+        if (context instanceof ExecContext) {
+            final ExecContext execContext = (ExecContext) context;
+            afterInitExecution(execContext);
+        }
+    }
+
+    @Override
+    public void execute(ExecutionPoint execPoint) throws ExtensionException {
+        if (execPoint == ExecutionPoint.POST_EXECUTE && helper != null) {
+            // Made sure that all resources are saved.
+            try {
+                flush();
+            } catch (DPUException ex) {
+                throw new ExtensionException("Can't write resources at the end of execution.", ex);
+            } finally {
+                try {
+                    helper.close();
+                } catch (RuntimeException ex) {
+                    LOG.warn("Can't close helper.", ex);
+                }
+                helper = null;
+            }
+        }
+    }
+
+    private ResourceHelper getHelper() throws DPUException {
+        if (writableDataUnit == null) {
+            throw new DPUException("No data unit bound for: " + dataUnitName);
+        }
+        if (helper == null) {
+            helper = ResourceHelpers.createCached(writableDataUnit);
+        }
+        return helper;
+    }
+
+    private <TYPE> TYPE execute(FaultTolerance.ActionReturn<TYPE> action, String failMessage)
+            throws DPUException {
+        if (faultTolerance == null) {
+            try {
+                return action.action();
+            } catch (Exception ex) {
+                throw new DPUException(failMessage, ex);
+            }
+        } else {
+            return faultTolerance.execute(action);
+        }
+    }
+
+    private void afterInitExecution(ExecContext execContext) throws DPUException {
+        final Object dpu = execContext.getDpu();
+        // Get underlying data unit.
+        final Field field;
+        try {
+            field = dpu.getClass().getField(dataUnitName);
+        } catch (NoSuchFieldException | SecurityException ex) {
+            throw new DPUException("Wrong initial parameter for CachedResources: " + dataUnitName
+                    + ". Can't access such field.", ex);
+        }
+        try {
+            final Object value = field.get(dpu);
+            if (value == null) {
+                return;
+            }
+            if (WritableMetadataDataUnit.class.isAssignableFrom(value.getClass())) {
+                writableDataUnit = (WritableMetadataDataUnit) value;
+            } else {
+                throw new DPUException("Class" + value.getClass().getCanonicalName()
+                        + " can't be assigned to WritableMetadataDataUnit.");
+            }
+        } catch (IllegalAccessException | IllegalArgumentException ex) {
+            throw new DPUException("Can't get value for: " + dataUnitName, ex);
+        }
+        // Get FaultTolerance class if presented.
+        faultTolerance = (FaultTolerance) execContext.getInstance(FaultTolerance.class);
+    }
+
+}
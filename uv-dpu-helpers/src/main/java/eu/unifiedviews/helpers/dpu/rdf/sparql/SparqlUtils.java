@@ -28,6 +28,8 @@ import org.eclipse.rdf4j.query.*;
 import org.eclipse.rdf4j.query.impl.SimpleDataset;
 import org.eclipse.rdf4j.repository.RepositoryConnection;
 import org.eclipse.rdf4j.repository.RepositoryException;
+import org.eclipse.rdf4j.rio.RDFHandler;
+import org.eclipse.rdf4j.rio.RDFHandlerException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -418,6 +420,63 @@ public class SparqlUtils {
     public static void execute(RepositoryConnection connection, UserExecContext context,
             SparqlConstructObject constructObject, StatementIterator callback)
             throws SparqlProblemException, MalformedQueryException, DPUException {
+        executeGraphQuery(connection, context, constructObject, callback);
+    }
+
+    /**
+     * Execute user given construct and stream the result into given handler. If the execution is cancelled
+     * before all statements are handled, then {@link RDFHandler#endRDF()} is not called.
+     *
+     * @param connection
+     * @param context
+     * @param constructObject
+     * @param handler
+     * @throws SparqlProblemException
+     * @throws MalformedQueryException
+     * @throws DPUException
+     */
+    public static void executeConstruct(RepositoryConnection connection, UserExecContext context,
+            SparqlConstructObject constructObject, final RDFHandler handler)
+            throws SparqlProblemException, MalformedQueryException, DPUException {
+        try {
+            handler.startRDF();
+            final StatementIterator callback = new StatementIterator() {
+
+                @Override
+                public void next(Statement statement) throws DPUException {
+                    try {
+                        handler.handleStatement(statement);
+                    } catch (RDFHandlerException ex) {
+                        if (ex.getCause() instanceof DPUException) {
+                            throw (DPUException) ex.getCause();
+                        }
+                        throw new DPUException("Handler failed to process statement.", ex);
+                    }
+                }
+            };
+            if (executeGraphQuery(connection, context, constructObject, callback)) {
+                handler.endRDF();
+            }
+        } catch (RDFHandlerException ex) {
+            throw new DPUException("Handler failed.", ex);
+        }
+    }
+
+    /**
+     * Execute user given construct.
+     *
+     * @param connection
+     * @param context
+     * @param constructObject
+     * @param callback
+     *            Use null to not iterate over result.
+     * @return False if the iteration was cancelled before the end of the result.
+     * @throws SparqlProblemException
+     * @throws MalformedQueryException
+     */
+    private static boolean executeGraphQuery(RepositoryConnection connection, UserExecContext context,
+            SparqlConstructObject constructObject, StatementIterator callback)
+            throws SparqlProblemException, MalformedQueryException, DPUException {
         LOG.debug("Executing construct: {}", constructObject.sparqlQuery);
         // Prepare query.
         final GraphQuery query;
@@ -434,11 +493,13 @@ public class SparqlUtils {
         GraphQueryResult queryResult = null;
         try {
             queryResult = query.evaluate();
-            if (callback != null) {
-                while (queryResult.hasNext() && !context.canceled()) {
-                    callback.next(queryResult.next());
-                }
+            if (callback == null) {
+                return true;
+            }
+            while (queryResult.hasNext() && !context.canceled()) {
+                callback.next(queryResult.next());
             }
+            return !queryResult.hasNext();
         } catch (QueryEvaluationException ex) {
             throw new SparqlProblemException("Can't evaluate query.", ex);
         } finally {
@@ -0,0 +1,133 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dpu.exec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import eu.unifiedviews.dataunit.DataUnitException;
+import eu.unifiedviews.dataunit.MetadataDataUnit;
+import eu.unifiedviews.dpu.DPUContext;
+import eu.unifiedviews.dpu.DPUException;
+import eu.unifiedviews.helpers.dpu.extension.faulttolerance.FaultTolerance;
+
+public class EntryProcessorTest {
+
+    private static final int ENTRIES = 50;
+
+    /**
+     * Data unit with given number of entries, the first iteration fails in the middle.
+     */
+    private static class FailingDataUnit implements MetadataDataUnit {
+
+        private int iterations = 0;
+
+        @Override
+        public RepositoryConnection getConnection() throws DataUnitException {
+            return Mockito.mock(RepositoryConnection.class);
+        }
+
+        @Override
+        public Set<IRI> getMetadataGraphnames() throws DataUnitException {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public MetadataDataUnit.Iteration getIteration() throws DataUnitException {
+            final boolean fail = iterations++ == 0;
+            return new MetadataDataUnit.Iteration() {
+
+                private int index = 0;
+
+                @Override
+                public boolean hasNext() throws DataUnitException {
+                    if (fail && index == ENTRIES / 2) {
+                        throw new DataUnitException("Connection lost.");
+                    }
+                    return index < ENTRIES;
+                }
+
+                @Override
+                public MetadataDataUnit.Entry next() throws DataUnitException {
+                    final String symbolicName = "entry-" + (index++);
+                    return new MetadataDataUnit.Entry() {
+
+                        @Override
+                        public String getSymbolicName() throws DataUnitException {
+                            return symbolicName;
+                        }
+
+                    };
+                }
+
+                @Override
+                public void close() throws DataUnitException {
+                }
+
+            };
+        }
+
+    }
+
+    @Test
+    public void faultTolerantReadSkipsSubmittedEntries() throws DPUException {
+        final DPUContext dpuContext = Mockito.mock(DPUContext.class);
+        final FaultTolerance faultTolerance = Mockito.mock(FaultTolerance.class);
+        // Retry every failure once.
+        Mockito.doAnswer(new Answer<Void>() {
+
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                final FaultTolerance.Action action = (FaultTolerance.Action) invocation.getArguments()[0];
+                try {
+                    action.action();
+                } catch (Exception ex) {
+                    action.action();
+                }
+                return null;
+            }
+        }).when(faultTolerance).execute(Mockito.any(FaultTolerance.Action.class));
+
+        final FailingDataUnit dataUnit = new FailingDataUnit();
+        final List<String> processed = Collections.synchronizedList(new ArrayList<String>());
+        EntryProcessor.forEachParallel(dpuContext, faultTolerance, dataUnit, MetadataDataUnit.Entry.class, 4,
+                new EntryProcessor.EntryAction<MetadataDataUnit.Entry>() {
+
+                    @Override
+                    public void action(MetadataDataUnit.Entry entry, RepositoryConnection connection)
+                            throws Exception {
+                        processed.add(entry.getSymbolicName());
+                    }
+
+                });
+        Assert.assertEquals(2, dataUnit.iterations);
+        Assert.assertEquals(ENTRIES, processed.size());
+        Assert.assertEquals(ENTRIES, new HashSet<>(processed).size());
+    }
+
+}
@@ -0,0 +1,141 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dpu.extension.rdf.simple;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.XMLSchema;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryResult;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.sail.memory.MemoryStore;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class StatementSpillFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private SailRepository repository;
+
+    private ValueFactory valueFactory;
+
+    private IRI graph;
+
+    @Before
+    public void before() {
+        repository = new SailRepository(new MemoryStore());
+        repository.initialize();
+        valueFactory = repository.getValueFactory();
+        graph = valueFactory.createIRI("http://localhost/graph");
+    }
+
+    @After
+    public void after() {
+        repository.shutDown();
+    }
+
+    @Test
+    public void roundTrip() throws Exception {
+        final List<Statement> statements = createStatements();
+        final StatementSpillFile spillFile = new StatementSpillFile(folder.getRoot());
+        try {
+            for (Statement statement : statements) {
+                spillFile.append(statement);
+            }
+            Assert.assertEquals(statements.size(), spillFile.size());
+            try (RepositoryConnection connection = repository.getConnection()) {
+                spillFile.addTo(connection, new Resource[]{graph});
+                Assert.assertEquals(new HashSet<>(statements), getStatements(connection));
+            }
+        } finally {
+            spillFile.delete();
+        }
+        Assert.assertEquals(0, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void reReadAfterFailedCommit() throws Exception {
+        final List<Statement> statements = createStatements();
+        final StatementSpillFile spillFile = new StatementSpillFile(folder.getRoot());
+        try {
+            for (Statement statement : statements.subList(0, 2)) {
+                spillFile.append(statement);
+            }
+            try (RepositoryConnection connection = repository.getConnection()) {
+                // First attempt is not committed.
+                connection.begin();
+                spillFile.addTo(connection, new Resource[]{graph});
+                connection.rollback();
+                Assert.assertTrue(getStatements(connection).isEmpty());
+                // Statements appended after a read are added after the previous ones.
+                for (Statement statement : statements.subList(2, statements.size())) {
+                    spillFile.append(statement);
+                }
+                connection.begin();
+                spillFile.addTo(connection, new Resource[]{graph});
+                connection.commit();
+                Assert.assertEquals(new HashSet<>(statements), getStatements(connection));
+            }
+        } finally {
+            spillFile.delete();
+        }
+    }
+
+    /**
+     * @return Statements in {@link #graph} with IRI, blank node, typed and language literal values.
+     */
+    private List<Statement> createStatements() {
+        final IRI subject = valueFactory.createIRI("http://localhost/subject");
+        final IRI predicate = valueFactory.createIRI("http://localhost/predicate");
+        return Arrays.asList(
+                valueFactory.createStatement(subject, predicate, valueFactory.createIRI("http://localhost/o"),
+                        graph),
+                valueFactory.createStatement(valueFactory.createBNode("node"), predicate,
+                        valueFactory.createLiteral("plain"), graph),
+                valueFactory.createStatement(subject, predicate, valueFactory.createLiteral("42",
+                        XMLSchema.INT), graph),
+                valueFactory.createStatement(subject, predicate, valueFactory.createLiteral("déjà vu",
+                        "fr"), graph));
+    }
+
+    private Set<Statement> getStatements(RepositoryConnection connection) {
+        final Set<Statement> result = new HashSet<>();
+        final RepositoryResult<Statement> statements = connection.getStatements(null, null, null, false, graph);
+        try {
+            while (statements.hasNext()) {
+                result.add(statements.next());
+            }
+        } finally {
+            statements.close();
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,285 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dpu.extension.rdf.simple;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFParser;
+import org.eclipse.rdf4j.rio.Rio;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import eu.unifiedviews.dataunit.rdf.WritableRDFDataUnit;
+import eu.unifiedviews.dpu.DPUContext;
+import eu.unifiedviews.dpu.DPUException;
+import eu.unifiedviews.helpers.dpu.config.ConfigHistory;
+import eu.unifiedviews.helpers.dpu.config.ConfigManager;
+import eu.unifiedviews.helpers.dpu.exec.AbstractDpu;
+import eu.unifiedviews.helpers.dpu.exec.ExecContext;
+import eu.unifiedviews.helpers.dpu.extension.Extension;
+import eu.unifiedviews.helpers.dpu.extension.ExtensionException;
+import eu.unifiedviews.helpers.dpu.extension.faulttolerance.FaultTolerance;
+
+public class WritableSimpleRdfTest {
+
+    /**
+     * Owner of the output data unit, only mocked instances are used.
+     */
+    public static abstract class TestDpu extends AbstractDpu<Object> {
+
+        public WritableRDFDataUnit output;
+
+        public TestDpu() {
+            super(null, null);
+        }
+
+    }
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ValueFactory valueFactory = SimpleValueFactory.getInstance();
+
+    private final AtomicBoolean canceled = new AtomicBoolean(false);
+
+    private RepositoryConnection connection;
+
+    private WritableRDFDataUnit dataUnit;
+
+    private ExecContext execContext;
+
+    private WritableSimpleRdf rdf;
+
+    @Before
+    public void before() throws Exception {
+        connection = Mockito.mock(RepositoryConnection.class);
+        Mockito.when(connection.getValueFactory()).thenReturn(valueFactory);
+        dataUnit = Mockito.mock(WritableRDFDataUnit.class);
+        Mockito.when(dataUnit.getConnection()).thenReturn(connection);
+        final TestDpu dpu = Mockito.mock(TestDpu.class);
+        dpu.output = dataUnit;
+        final DPUContext dpuContext = Mockito.mock(DPUContext.class);
+        Mockito.when(dpuContext.getWorkingDir()).thenReturn(folder.getRoot());
+        Mockito.when(dpuContext.canceled()).thenAnswer(new Answer<Boolean>() {
+
+            @Override
+            public Boolean answer(InvocationOnMock invocation) throws Throwable {
+                return canceled.get();
+            }
+        });
+        execContext = Mockito.mock(ExecContext.class);
+        Mockito.when(execContext.getDpu()).thenReturn(dpu);
+        Mockito.when(execContext.getDpuContext()).thenReturn(dpuContext);
+
+        rdf = new WritableSimpleRdf();
+        rdf.preInit("output");
+        rdf.afterInit(execContext);
+        final WritableSimpleRdf.Configuration configuration = new WritableSimpleRdf.Configuration();
+        configuration.addPolicy = WritableSimpleRdf.Configuration.AddPolicy.ASYNC;
+        configuration.commitSize = 1;
+        rdf.setConfiguration(configuration);
+        rdf.setWriteContext(Arrays.asList(valueFactory.createIRI("http://localhost/graph")));
+    }
+
+    @After
+    public void after() {
+        // Do not wait for commits blocked by a failed test.
+        canceled.set(true);
+        try {
+            rdf.execute(Extension.ExecutionPoint.POST_EXECUTE);
+        } catch (ExtensionException ex) {
+            // Failures are checked by the tests.
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void asyncFailureIsReported() throws Exception {
+        Mockito.doThrow(new AssertionError("Storage failure.")).when(connection).add(
+                Mockito.any(Statement.class), Mockito.<Resource>anyVararg());
+        addStatements();
+        try {
+            rdf.flushBuffer();
+            Assert.fail("Flush should fail.");
+        } catch (SimpleRdfException ex) {
+            Assert.assertTrue(ex.getCause() instanceof AssertionError);
+        }
+        try {
+            rdf.execute(Extension.ExecutionPoint.POST_EXECUTE);
+            Assert.fail("Execution should fail.");
+        } catch (ExtensionException ex) {
+            // Expected.
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void cancelDoesNotWaitForCommit() throws Exception {
+        blockCommits(new CountDownLatch(1));
+        addStatements();
+        canceled.set(true);
+        try {
+            rdf.flushBuffer();
+            Assert.fail("Flush should fail.");
+        } catch (DPUException ex) {
+            // Expected.
+        }
+        // Committer is interrupted, so the execution can end.
+        try {
+            rdf.execute(Extension.ExecutionPoint.POST_EXECUTE);
+            Assert.fail("Execution should fail.");
+        } catch (ExtensionException ex) {
+            // Expected.
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void queuedBuffersCountAgainstByteLimit() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        blockCommits(release);
+        // Enough for the two statements waiting for commit (about 300 bytes each), but not for another one.
+        rdf.getConfiguration().bufferByteLimit = 800L;
+        addStatements();
+        rdf.add(valueFactory.createIRI("http://localhost/subject/spilled"),
+                valueFactory.createIRI("http://localhost/predicate"), valueFactory.createLiteral("spilled"));
+        Assert.assertEquals(1, folder.getRoot().list().length);
+
+        release.countDown();
+        rdf.flushBuffer();
+        Assert.assertEquals(0, folder.getRoot().list().length);
+    }
+
+    @Test(timeout = 10000)
+    public void failedCommitReopensConnection() throws Exception {
+        final RepositoryConnection failing = Mockito.mock(RepositoryConnection.class);
+        Mockito.doThrow(new RepositoryException("Commit failed.")).when(failing).commit();
+        Mockito.when(dataUnit.getConnection()).thenReturn(failing, connection);
+        final FaultTolerance.Configuration_V1 faultToleranceConfig = new FaultTolerance.Configuration_V1();
+        faultToleranceConfig.setEnabled(true);
+        faultToleranceConfig.getExceptionNames().add(RepositoryException.class.getCanonicalName());
+        faultToleranceConfig.setMaxRetryCount(1);
+        final ConfigManager configManager = Mockito.mock(ConfigManager.class);
+        Mockito.when(configManager.get(Mockito.eq(FaultTolerance.USED_CONFIG_NAME),
+                Mockito.<ConfigHistory<FaultTolerance.Configuration_V1>>any())).thenReturn(faultToleranceConfig);
+        Mockito.when(execContext.getConfigManager()).thenReturn(configManager);
+        final FaultTolerance faultTolerance = new FaultTolerance();
+        faultTolerance.afterInit(execContext);
+        Mockito.when(execContext.getInstance(FaultTolerance.class)).thenReturn(faultTolerance);
+
+        final WritableSimpleRdf buffered = createBuffered(100);
+        buffered.add(valueFactory.createIRI("http://localhost/subject"),
+                valueFactory.createIRI("http://localhost/predicate"), valueFactory.createLiteral("value"));
+        buffered.flushBuffer();
+        // Failed connection is dropped and the statement is stored by the retry on a new connection.
+        Mockito.verify(failing).close();
+        Mockito.verify(connection).add(Mockito.any(Statement.class), Mockito.<Resource>anyVararg());
+        Mockito.verify(connection).commit();
+
+        // The new connection is kept for following flushes and released at the end of execution.
+        buffered.add(valueFactory.createIRI("http://localhost/subject"),
+                valueFactory.createIRI("http://localhost/predicate"), valueFactory.createLiteral("other"));
+        buffered.flushBuffer();
+        Mockito.verify(connection, Mockito.times(2)).commit();
+        Mockito.verify(dataUnit, Mockito.times(2)).getConnection();
+        Mockito.verify(connection, Mockito.never()).close();
+        buffered.execute(Extension.ExecutionPoint.POST_EXECUTE);
+        Mockito.verify(connection).close();
+    }
+
+    @Test(timeout = 10000)
+    public void handlerFlushesBuffersDuringParsing() throws Exception {
+        final WritableSimpleRdf buffered = createBuffered(2);
+        final StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 7; ++i) {
+            data.append("<http://localhost/subject/").append(i).append("> <http://localhost/predicate> \"")
+                    .append(i).append("\" .\n");
+        }
+        final RDFParser parser = Rio.createParser(RDFFormat.NTRIPLES);
+        parser.setRDFHandler(buffered.asRdfHandler());
+        parser.parse(new StringReader(data.toString()), "http://localhost/");
+        // Buffer is flushed once it is over the commit size, the rest waits for explicit flush.
+        Mockito.verify(connection, Mockito.times(2)).commit();
+        Mockito.verify(connection, Mockito.times(6)).add(Mockito.any(Statement.class),
+                Mockito.eq(valueFactory.createIRI("http://localhost/graph")));
+        buffered.flushBuffer();
+        Mockito.verify(connection, Mockito.times(3)).commit();
+        Mockito.verify(connection, Mockito.times(7)).add(Mockito.any(Statement.class), Mockito.<Resource>anyVararg());
+        buffered.execute(Extension.ExecutionPoint.POST_EXECUTE);
+    }
+
+    /**
+     * Create instance with {@link WritableSimpleRdf.Configuration.AddPolicy#BUFFERED} policy for the output data
+     * unit.
+     */
+    private WritableSimpleRdf createBuffered(int commitSize) throws DPUException {
+        final WritableSimpleRdf buffered = new WritableSimpleRdf();
+        buffered.preInit("output");
+        buffered.afterInit(execContext);
+        final WritableSimpleRdf.Configuration configuration = new WritableSimpleRdf.Configuration();
+        configuration.addPolicy = WritableSimpleRdf.Configuration.AddPolicy.BUFFERED;
+        configuration.commitSize = commitSize;
+        buffered.setConfiguration(configuration);
+        buffered.setWriteContext(Arrays.asList(valueFactory.createIRI("http://localhost/graph")));
+        return buffered;
+    }
+
+    /**
+     * Make commits of buffered statements wait until given latch is released.
+     */
+    private void blockCommits(final CountDownLatch release) {
+        Mockito.doAnswer(new Answer<Void>() {
+
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    throw new RepositoryException("Interrupted.", ex);
+                }
+                return null;
+            }
+        }).when(connection).add(Mockito.any(Statement.class), Mockito.<Resource>anyVararg());
+    }
+
+    /**
+     * Add statements to fill a buffer, so it is submitted to the committer.
+     */
+    private void addStatements() throws DPUException {
+        final IRI predicate = valueFactory.createIRI("http://localhost/predicate");
+        for (int i = 0; i < 2; ++i) {
+            rdf.add(valueFactory.createIRI("http://localhost/subject/" + i), predicate,
+                    valueFactory.createLiteral(i));
+        }
+    }
+
+}
@@ -0,0 +1,142 @@
+/**
+ * This file is part of UnifiedViews.
+ *
+ * UnifiedViews is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UnifiedViews is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UnifiedViews.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.unifiedviews.helpers.dpu.rdf.sparql;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.rio.RDFHandlerException;
+import org.eclipse.rdf4j.rio.helpers.AbstractRDFHandler;
+import org.eclipse.rdf4j.sail.memory.MemoryStore;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import eu.unifiedviews.helpers.dpu.exec.UserExecContext;
+
+public class SparqlUtilsTest {
+
+    /**
+     * Handler that records calls and can cancel the execution after given number of statements.
+     */
+    private class RecordingHandler extends AbstractRDFHandler {
+
+        private final int cancelAfter;
+
+        private boolean started = false;
+
+        private boolean ended = false;
+
+        private int statements = 0;
+
+        RecordingHandler(int cancelAfter) {
+            this.cancelAfter = cancelAfter;
+        }
+
+        @Override
+        public void startRDF() throws RDFHandlerException {
+            started = true;
+        }
+
+        @Override
+        public void handleStatement(Statement statement) throws RDFHandlerException {
+            if (++statements == cancelAfter) {
+                canceled.set(true);
+            }
+        }
+
+        @Override
+        public void endRDF() throws RDFHandlerException {
+            ended = true;
+        }
+
+    }
+
+    private static final String CONSTRUCT = "CONSTRUCT { ?s ?p ?o } WHERE { ?s ?p ?o }";
+
+    private final AtomicBoolean canceled = new AtomicBoolean(false);
+
+    private SailRepository repository;
+
+    private RepositoryConnection connection;
+
+    private UserExecContext context;
+
+    @Before
+    public void before() {
+        repository = new SailRepository(new MemoryStore());
+        repository.initialize();
+        connection = repository.getConnection();
+        final ValueFactory valueFactory = connection.getValueFactory();
+        final IRI predicate = valueFactory.createIRI("http://localhost/predicate");
+        for (int i = 0; i < 3; ++i) {
+            connection.add(valueFactory.createIRI("http://localhost/subject/" + i), predicate,
+                    valueFactory.createLiteral(i));
+        }
+        context = Mockito.mock(UserExecContext.class);
+        Mockito.when(context.canceled()).thenAnswer(new Answer<Boolean>() {
+
+            @Override
+            public Boolean answer(InvocationOnMock invocation) throws Throwable {
+                return canceled.get();
+            }
+        });
+    }
+
+    @After
+    public void after() {
+        connection.close();
+        repository.shutDown();
+    }
+
+    @Test
+    public void constructIsStreamedIntoHandler() throws Exception {
+        final RecordingHandler handler = new RecordingHandler(-1);
+        SparqlUtils.executeConstruct(connection, context,
+                new SparqlUtils.SparqlConstructObject(CONSTRUCT, null), handler);
+        Assert.assertTrue(handler.started);
+        Assert.assertEquals(3, handler.statements);
+        Assert.assertTrue(handler.ended);
+    }
+
+    @Test
+    public void cancelledConstructIsNotEnded() throws Exception {
+        final RecordingHandler handler = new RecordingHandler(1);
+        SparqlUtils.executeConstruct(connection, context,
+                new SparqlUtils.SparqlConstructObject(CONSTRUCT, null), handler);
+        Assert.assertEquals(1, handler.statements);
+        Assert.assertFalse(handler.ended);
+    }
+
+    @Test
+    public void cancelAfterLastStatementEndsHandler() throws Exception {
+        final RecordingHandler handler = new RecordingHandler(3);
+        SparqlUtils.executeConstruct(connection, context,
+                new SparqlUtils.SparqlConstructObject(CONSTRUCT, null), handler);
+        Assert.assertEquals(3, handler.statements);
+        Assert.assertTrue(handler.ended);
+    }
+
+}